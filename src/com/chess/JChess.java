@@ -1,6 +1,15 @@
 package com.chess;
 
+import com.chess.analysis.BatchAnalyzer;
+import com.chess.analysis.EPDRunner;
 import com.chess.gui.Table;
+import com.chess.server.GameServer;
+import com.chess.server.LoadGenerator;
+import com.chess.tournament.Tournament;
+import com.chess.uci.UCIEngine;
+
+import java.awt.GraphicsEnvironment;
+import java.util.Arrays;
 
 /**
  * Gra w szachy
@@ -11,8 +20,30 @@ import com.chess.gui.Table;
 
 public class JChess extends Thread{
 
+    /**
+     * Metoda uruchamiajaca program: "uci" (lub brak ekranu) uruchamia silnik w protokole UCI, "analyze" - analize wsadowa,
+     * "epd" - zestaw testowy EPD, "server" - serwer partii, "loadgen" - generator obciazenia serwera,
+     * "tournament" - mecz silnikow z testem SPRT,
+     * a w pozostalych przypadkach uruchamiany jest interfejs graficzny
+     * @param args argumenty programu
+     */
     public static void main(final String[] args) throws Exception {
-        new Thread(new JChess()).start();
+        final String mode = args.length > 0 ? args[0] : "";
+        if (mode.equals("uci") || (mode.isEmpty() && GraphicsEnvironment.isHeadless())) {
+            new UCIEngine(System.in, System.out).run();
+        } else if (mode.equals("analyze")) {
+            BatchAnalyzer.main(Arrays.copyOfRange(args, 1, args.length));
+        } else if (mode.equals("epd")) {
+            EPDRunner.main(Arrays.copyOfRange(args, 1, args.length));
+        } else if (mode.equals("server")) {
+            GameServer.main(Arrays.copyOfRange(args, 1, args.length));
+        } else if (mode.equals("loadgen")) {
+            LoadGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+        } else if (mode.equals("tournament")) {
+            Tournament.main(Arrays.copyOfRange(args, 1, args.length));
+        } else {
+            new Thread(new JChess()).start();
+        }
     }
 
     /**
@@ -0,0 +1,607 @@
+package com.chess.analysis;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveTransition;
+import com.chess.engine.board.SANWriter;
+import com.chess.engine.endgame.Bitbases;
+import com.chess.engine.player.ai.AlphaBeta;
+import com.chess.engine.player.ai.SearchResult;
+import com.chess.engine.player.ai.StandardBoardEvaluator;
+import com.chess.pgn.FenUtilities;
+import com.chess.pgn.ImportedGame;
+import com.chess.pgn.PGNImporter;
+import com.chess.pgn.PGNUtilities;
+import com.chess.util.ThreadPools;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Klasa analizujaca wsadowo partie z pliku PGN lub pozycje z pliku FEN. Potok sklada sie z trzech etapow: czytnik (watek wejscia/wyjscia)
+ * odtwarza partie i przekazuje kazda pozycje do stalej puli watkow liczacych, pula przeszukuje pozycje algorytmem alfa-beta,
+ * a pisarz (watek wejscia/wyjscia) zapisuje wyniki w kolejnosci z pliku wejsciowego jako PGN z komentarzami [%eval] lub CSV.
+ * Liczba pozycji w toku jest ograniczona semaforem, a liczba partii czekajacych na zapis - kolejka o stalej pojemnosci,
+ * wiec zuzycie pamieci nie zalezy od rozmiaru pliku. Postep jest okresowo zapisywany w pliku kontrolnym, co pozwala wznowic przerwana analize.
+ * Uzycie: BatchAnalyzer -in partie.pgn|pozycje.fen -out wynik.pgn|wynik.csv [-depth n] [-nodes n] [-movetime ms] [-threads n] [-hash mb] [-checkpoint plik]
+ */
+public final class BatchAnalyzer {
+
+    private static final long CHECKPOINT_INTERVAL_MILLIS = 2000;
+    private static final int LINE_LENGTH = 79;
+    private static final String CSV_HEADER = "unit,ply,fen,move,eval,best,depth,nodes\n";
+    private static final Unit END = new Unit(-1, null, null, 0);
+
+    private final int threads;
+    private final int depth;
+    private final long nodeLimit;
+    private final long moveTimeMillis;
+    private final int hashMegabytes;
+
+    private BatchAnalyzer(final Builder builder) {
+        this.threads = builder.threads;
+        this.depth = builder.depth;
+        this.nodeLimit = builder.nodeLimit;
+        this.moveTimeMillis = builder.moveTimeMillis;
+        this.hashMegabytes = builder.hashMegabytes;
+    }
+
+    /**
+     * Metoda analizujaca plik wejsciowy. Jezeli plik kontrolny istnieje, analiza jest wznawiana od pierwszej niezapisanej partii,
+     * a plik wyjsciowy jest przycinany do dlugosci zapisanej w pliku kontrolnym. Po ukonczeniu analizy plik kontrolny jest usuwany.
+     * Partie, ktorych nie udalo sie wczytac (ImportedGame.isValid()), sa pomijane, a ich liczba jest wypisywana na koniec.
+     * @param input plik .pgn, .pgn.gz lub plik z pozycjami FEN (jedna w linii)
+     * @param output plik wynikowy - .csv lub PGN z komentarzami
+     * @param checkpoint plik kontrolny
+     * @return zwraca liczbe przeanalizowanych partii lub pozycji (lacznie z tymi z poprzednich uruchomien)
+     * @throws IOException w przypadku bledu odczytu lub zapisu
+     */
+    public long analyze(final File input,
+                        final File output,
+                        final File checkpoint) throws IOException {
+        final boolean csv = output.getName().endsWith(".csv");
+        final Properties progress = readCheckpoint(input, checkpoint);
+        final long skipped = Long.parseLong(progress.getProperty("completed", "0"));
+        final long resumeBytes = Long.parseLong(progress.getProperty("bytes", "0"));
+        final ExecutorService compute = ThreadPools.newComputeExecutor("analysis", this.threads);
+        final ExecutorService io = ThreadPools.newIOExecutor("analysis-io");
+        final Semaphore permits = new Semaphore(8 * this.threads);
+        final BlockingQueue<Unit> pending = new ArrayBlockingQueue<>(2 * this.threads + 2);
+        final ThreadLocal<AlphaBeta> searchers = ThreadLocal.withInitial(() -> new AlphaBeta(
+                StandardBoardEvaluator.INSTANCE, this.depth, this.hashMegabytes));
+        try (final FileChannel channel = FileChannel.open(output.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (channel.size() < resumeBytes) {
+                throw new RuntimeException("Output file " + output + " is shorter than recorded in " + checkpoint);
+            }
+            channel.truncate(resumeBytes);
+            channel.position(resumeBytes);
+            final Stage stage = new Stage(compute, permits, searchers, csv);
+            final Future<?> reader = io.submit(() -> {
+                try {
+                    read(input, skipped, stage, pending);
+                } finally {
+                    pending.put(END);
+                }
+                return null;
+            });
+            final Future<Long> writer = io.submit(() -> write(channel, resumeBytes, skipped, input, checkpoint, csv, pending));
+            final long completed;
+            try {
+                completed = writer.get();
+                reader.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Analysis interrupted", e);
+            } catch (final ExecutionException e) {
+                throw new RuntimeException("Analysis failed", e.getCause());
+            }
+            Files.deleteIfExists(checkpoint.toPath());
+            return completed;
+        } finally {
+            io.shutdownNow();
+            compute.shutdownNow();
+        }
+    }
+
+    /**
+     * Etap czytnika - odtwarza kolejne partie, wysyla ich pozycje do analizy i przekazuje partie pisarzowi
+     */
+    private static void read(final File input,
+                             final long skipped,
+                             final Stage stage,
+                             final BlockingQueue<Unit> pending) throws IOException {
+        final long[] index = {0};
+        if (isFENFile(input)) {
+            try (final InputStream stream = new FileInputStream(input)) {
+                FenUtilities.readFENs(stream, board -> {
+                    if (index[0]++ >= skipped) {
+                        final Map<String, String> tags = new LinkedHashMap<>();
+                        tags.put("SetUp", "1");
+                        tags.put("FEN", FenUtilities.createFENFromGame(board));
+                        stage.submit(index[0] - 1, tags, board, new int[0], "*", pending);
+                    }
+                });
+            }
+        } else {
+            new PGNImporter(1).importFile(input, game -> {
+                if (index[0]++ >= skipped) {
+                    stage.submit(index[0] - 1, game, pending);
+                }
+            });
+        }
+    }
+
+    /**
+     * Etap pisarza - zapisuje partie w kolejnosci, w jakiej wystapily w pliku wejsciowym, i okresowo zapisuje plik kontrolny
+     */
+    private static long write(final FileChannel channel,
+                              final long resumeBytes,
+                              final long skipped,
+                              final File input,
+                              final File checkpoint,
+                              final boolean csv,
+                              final BlockingQueue<Unit> pending) throws IOException, InterruptedException, ExecutionException {
+        final OutputStream output = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+        final StringBuilder text = new StringBuilder(4096);
+        long bytes = resumeBytes;
+        long completed = skipped;
+        long positions = 0;
+        long invalid = 0;
+        final long start = System.currentTimeMillis();
+        long lastCheckpoint = start;
+        if (csv && bytes == 0) {
+            output.write(CSV_HEADER.getBytes(StandardCharsets.US_ASCII));
+            bytes += CSV_HEADER.length();
+        }
+        Unit unit;
+        while ((unit = pending.take()) != END) {
+            if (unit.skipped) {
+                completed++;
+                invalid++;
+                continue;
+            }
+            text.setLength(0);
+            if (csv) {
+                unit.appendCSV(text);
+            } else {
+                unit.appendPGN(text);
+            }
+            final byte[] encoded = text.toString().getBytes(StandardCharsets.UTF_8);
+            output.write(encoded);
+            bytes += encoded.length;
+            completed++;
+            positions += unit.analyses.length;
+            final long now = System.currentTimeMillis();
+            if (now - lastCheckpoint >= CHECKPOINT_INTERVAL_MILLIS) {
+                writeCheckpoint(output, channel, input, checkpoint, completed, bytes);
+                lastCheckpoint = now;
+                System.err.printf("%d analysed, %.1f positions/s%n", completed, 1000.0 * positions / Math.max(1, now - start));
+            }
+        }
+        writeCheckpoint(output, channel, input, checkpoint, completed, bytes);
+        if (invalid > 0) {
+            System.err.printf("%d invalid games skipped%n", invalid);
+        }
+        return completed;
+    }
+
+    private static void writeCheckpoint(final OutputStream output,
+                                        final FileChannel channel,
+                                        final File input,
+                                        final File checkpoint,
+                                        final long completed,
+                                        final long bytes) throws IOException {
+        output.flush();
+        channel.force(false);
+        final Properties progress = new Properties();
+        progress.setProperty("input", input.getAbsolutePath());
+        progress.setProperty("completed", Long.toString(completed));
+        progress.setProperty("bytes", Long.toString(bytes));
+        final File temporary = new File(checkpoint.getPath() + ".tmp");
+        try (final OutputStream stream = new FileOutputStream(temporary)) {
+            progress.store(stream, "BatchAnalyzer checkpoint");
+        }
+        Files.move(temporary.toPath(), checkpoint.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Properties readCheckpoint(final File input,
+                                             final File checkpoint) throws IOException {
+        final Properties progress = new Properties();
+        if (checkpoint.isFile()) {
+            try (final InputStream stream = new FileInputStream(checkpoint)) {
+                progress.load(stream);
+            }
+            if (!input.getAbsolutePath().equals(progress.getProperty("input"))) {
+                throw new RuntimeException("Checkpoint " + checkpoint + " belongs to " + progress.getProperty("input"));
+            }
+        }
+        return progress;
+    }
+
+    private static boolean isFENFile(final File file) {
+        final String name = file.getName().toLowerCase();
+        return name.endsWith(".fen") || name.endsWith(".epd");
+    }
+
+    /**
+     * Metoda dopisujaca ocene z punktu widzenia bialych w formacie komentarza [%eval]
+     */
+    private static void appendEval(final PositionAnalysis analysis,
+                                   final StringBuilder output) {
+        if (analysis.mateIn != 0) {
+            output.append('#').append(analysis.mateIn);
+            return;
+        }
+        final int score = analysis.whiteScore;
+        if (score < 0) {
+            output.append('-');
+        }
+        final int magnitude = Math.abs(score);
+        output.append(magnitude / 100).append('.').append((char) ('0' + magnitude % 100 / 10)).append((char) ('0' + magnitude % 10));
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final Builder builder = new Builder();
+        File input = null;
+        File output = null;
+        File checkpoint = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-in":
+                    input = new File(args[i + 1]);
+                    break;
+                case "-out":
+                    output = new File(args[i + 1]);
+                    break;
+                case "-checkpoint":
+                    checkpoint = new File(args[i + 1]);
+                    break;
+                case "-depth":
+                    builder.setDepth(Integer.parseInt(args[i + 1]));
+                    break;
+                case "-nodes":
+                    builder.setNodeLimit(Long.parseLong(args[i + 1]));
+                    break;
+                case "-movetime":
+                    builder.setMoveTimeMillis(Long.parseLong(args[i + 1]));
+                    break;
+                case "-threads":
+                    builder.setThreads(Integer.parseInt(args[i + 1]));
+                    break;
+                case "-hash":
+                    builder.setHashMegabytes(Integer.parseInt(args[i + 1]));
+                    break;
+                default:
+                    input = null;
+                    i = args.length;
+            }
+        }
+        if (input == null || output == null) {
+            System.err.println("Usage: BatchAnalyzer -in games.pgn|positions.fen -out out.pgn|out.csv [-depth n] [-nodes n] " +
+                               "[-movetime ms] [-threads n] [-hash mb] [-checkpoint file]");
+            return;
+        }
+        if (checkpoint == null) {
+            checkpoint = new File(output.getPath() + ".checkpoint");
+        }
+        Bitbases.INSTANCE.initialize(Bitbases.DEFAULT_DIRECTORY).join();
+        final long start = System.nanoTime();
+        final long units = builder.build().analyze(input, output, checkpoint);
+        System.out.printf("%d analysed in %.1f s, written to %s%n", units, (System.nanoTime() - start) / 1e9, output);
+    }
+
+    /**
+     * Klasa budujaca analizator
+     */
+    public static class Builder {
+
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private int depth = 4;
+        private long nodeLimit = Long.MAX_VALUE;
+        private long moveTimeMillis;
+        private int hashMegabytes = 16;
+
+        /**
+         * Metoda ustawiajaca liczbe watkow liczacych
+         */
+        public Builder setThreads(final int threads) {
+            this.threads = Math.max(1, threads);
+            return this;
+        }
+
+        /**
+         * Metoda ustawiajaca glebokosc przeszukiwania kazdej pozycji
+         */
+        public Builder setDepth(final int depth) {
+            this.depth = Math.max(1, depth);
+            return this;
+        }
+
+        /**
+         * Metoda ustawiajaca limit wezlow dla kazdej pozycji
+         */
+        public Builder setNodeLimit(final long nodeLimit) {
+            this.nodeLimit = nodeLimit;
+            return this;
+        }
+
+        /**
+         * Metoda ustawiajaca limit czasu dla kazdej pozycji (0 - bez limitu)
+         */
+        public Builder setMoveTimeMillis(final long moveTimeMillis) {
+            this.moveTimeMillis = moveTimeMillis;
+            return this;
+        }
+
+        /**
+         * Metoda ustawiajaca rozmiar tablicy transpozycji kazdego watku liczacego
+         */
+        public Builder setHashMegabytes(final int hashMegabytes) {
+            this.hashMegabytes = hashMegabytes;
+            return this;
+        }
+
+        public BatchAnalyzer build() {
+            return new BatchAnalyzer(this);
+        }
+
+    }
+
+    /**
+     * Stan wspoldzielony przez czytnik i pule liczaca - wysyla pozycje do analizy z ograniczeniem liczby pozycji w toku
+     */
+    private final class Stage {
+
+        private final ExecutorService compute;
+        private final Semaphore permits;
+        private final ThreadLocal<AlphaBeta> searchers;
+        private final boolean withFEN;
+
+        Stage(final ExecutorService compute,
+              final Semaphore permits,
+              final ThreadLocal<AlphaBeta> searchers,
+              final boolean withFEN) {
+            this.compute = compute;
+            this.permits = permits;
+            this.searchers = searchers;
+            this.withFEN = withFEN;
+        }
+
+        /**
+         * Metoda wysylajaca do analizy pozycje wczytanej partii - partia, ktorej nie udalo sie wczytac (np. bledny naglowek FEN),
+         * jest przekazywana pisarzowi jako pominieta, zeby numeracja partii w pliku kontrolnym sie zgadzala
+         */
+        void submit(final long index,
+                    final ImportedGame game,
+                    final BlockingQueue<Unit> pending) {
+            if (!game.isValid()) {
+                final Unit unit = new Unit(index, game.getTags(), game.getResult(), 0);
+                unit.skipped = true;
+                try {
+                    pending.put(unit);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Analysis interrupted", e);
+                }
+                return;
+            }
+            final int[] moves = new int[game.getMoveCount()];
+            for (int ply = 0; ply < moves.length; ply++) {
+                moves[ply] = game.getMove(ply);
+            }
+            submit(index, game.getTags(), game.createInitialBoard(), moves, game.getResult(), pending);
+        }
+
+        void submit(final long index,
+                    final Map<String, String> tags,
+                    final Board initialBoard,
+                    final int[] moves,
+                    final String result,
+                    final BlockingQueue<Unit> pending) {
+            final Unit unit = new Unit(index, tags, result, moves.length);
+            unit.whiteStarts = initialBoard.currentPlayer().getAlliance().isWhite();
+            unit.firstMoveNumber = initialBoard.getFullmoveNumber();
+            Board board = initialBoard;
+            try {
+                for (int ply = 0; ply <= moves.length; ply++) {
+                    unit.analyses[ply] = analyzeLater(board);
+                    if (ply < moves.length) {
+                        final MoveTransition transition = PGNUtilities.createMoveTransition(board, moves[ply]);
+                        final Board next = transition.getToBoard();
+                        unit.moves[ply] = SANWriter.INSTANCE.toSAN(transition.getTransitionMove(), next);
+                        board = next;
+                    }
+                }
+                pending.put(unit);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Analysis interrupted", e);
+            }
+        }
+
+        private Future<PositionAnalysis> analyzeLater(final Board board) throws InterruptedException {
+            this.permits.acquire();
+            try {
+                return this.compute.submit(() -> {
+                    try {
+                        return analyze(board);
+                    } finally {
+                        this.permits.release();
+                    }
+                });
+            } catch (final RuntimeException e) {
+                this.permits.release();
+                throw e;
+            }
+        }
+
+        private PositionAnalysis analyze(final Board board) {
+            final SearchResult result = this.searchers.get().search(board, depth, nodeLimit, moveTimeMillis);
+            final int sign = board.currentPlayer().getAlliance().isWhite() ? 1 : -1;
+            final Move bestMove = result.getBestMove();
+            return new PositionAnalysis(sign * result.getScore(), sign * result.getMateIn(),
+                                        bestMove == null ? "" : SANWriter.INSTANCE.toSAN(bestMove, bestMove.execute()),
+                                        result.getDepth(), result.getNodes(),
+                                        this.withFEN ? FenUtilities.createFENFromGame(board) : null);
+        }
+
+    }
+
+    /**
+     * Klasa przechowujaca wynik analizy jednej pozycji - ocene z punktu widzenia bialych i najlepszy ruch w notacji SAN
+     */
+    private static final class PositionAnalysis {
+
+        private final int whiteScore;
+        private final int mateIn;
+        private final String bestMove;
+        private final int depth;
+        private final long nodes;
+        private final String fen;
+
+        PositionAnalysis(final int whiteScore,
+                         final int mateIn,
+                         final String bestMove,
+                         final int depth,
+                         final long nodes,
+                         final String fen) {
+            this.whiteScore = whiteScore;
+            this.mateIn = mateIn;
+            this.bestMove = bestMove;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.fen = fen;
+        }
+
+    }
+
+    /**
+     * Klasa przechowujaca jedna partie (lub pozycje) w drodze od czytnika do pisarza - ruchy w notacji SAN
+     * i wyniki analizy kolejnych pozycji, ktore moga byc jeszcze liczone
+     */
+    private static final class Unit {
+
+        private final long index;
+        private final Map<String, String> tags;
+        private final String result;
+        private final String[] moves;
+        private final Future<PositionAnalysis>[] analyses;
+        private boolean whiteStarts;
+        private int firstMoveNumber;
+        private boolean skipped;
+
+        @SuppressWarnings("unchecked")
+        Unit(final long index,
+             final Map<String, String> tags,
+             final String result,
+             final int moveCount) {
+            this.index = index;
+            this.tags = tags;
+            this.result = result;
+            this.moves = new String[moveCount];
+            this.analyses = (Future<PositionAnalysis>[]) new Future<?>[moveCount + 1];
+        }
+
+        /**
+         * Metoda dopisujaca partie w formacie PGN - po kazdym ruchu komentarz z ocena pozycji i najlepszym ruchem, gdy rozni sie od zagranego
+         */
+        void appendPGN(final StringBuilder output) throws InterruptedException, ExecutionException {
+            for (final Map.Entry<String, String> tag : this.tags.entrySet()) {
+                output.append('[').append(tag.getKey()).append(" \"")
+                      .append(tag.getValue().replace("\\", "\\\\").replace("\"", "\\\"")).append("\"]\n");
+            }
+            output.append('\n');
+            final StringBuilder token = new StringBuilder(64);
+            int lineStart = output.length();
+            boolean whiteToMove = this.whiteStarts;
+            int moveNumber = this.firstMoveNumber;
+            PositionAnalysis before = this.analyses[0].get();
+            if (this.moves.length == 0) {
+                token.append("{[%eval ");
+                appendEval(before, token);
+                token.append("] best: ").append(before.bestMove).append('}');
+                lineStart = appendToken(output, token, lineStart);
+            }
+            for (int ply = 0; ply < this.moves.length; ply++) {
+                token.setLength(0);
+                if (whiteToMove) {
+                    token.append(moveNumber).append(". ");
+                } else if (ply == 0) {
+                    token.append(moveNumber).append("... ");
+                }
+                token.append(this.moves[ply]);
+                lineStart = appendToken(output, token, lineStart);
+                final PositionAnalysis after = this.analyses[ply + 1].get();
+                token.setLength(0);
+                token.append("{[%eval ");
+                appendEval(after, token);
+                token.append(']');
+                if (!before.bestMove.isEmpty() && !before.bestMove.equals(this.moves[ply])) {
+                    token.append(" best: ").append(before.bestMove);
+                }
+                token.append('}');
+                lineStart = appendToken(output, token, lineStart);
+                before = after;
+                if (!whiteToMove) {
+                    moveNumber++;
+                }
+                whiteToMove = !whiteToMove;
+            }
+            token.setLength(0);
+            token.append(this.result);
+            appendToken(output, token, lineStart);
+            output.append("\n\n");
+        }
+
+        /**
+         * Metoda dopisujaca jeden wiersz CSV dla kazdej pozycji partii
+         */
+        void appendCSV(final StringBuilder output) throws InterruptedException, ExecutionException {
+            for (int ply = 0; ply < this.analyses.length; ply++) {
+                final PositionAnalysis analysis = this.analyses[ply].get();
+                output.append(this.index + 1).append(',').append(ply).append(',').append(analysis.fen).append(',')
+                      .append(ply < this.moves.length ? this.moves[ply] : "").append(',');
+                appendEval(analysis, output);
+                output.append(',').append(analysis.bestMove).append(',').append(analysis.depth).append(',')
+                      .append(analysis.nodes).append('\n');
+            }
+        }
+
+        private static int appendToken(final StringBuilder output,
+                                       final CharSequence token,
+                                       final int lineStart) {
+            if (output.length() > lineStart) {
+                if (output.length() - lineStart + 1 + token.length() > LINE_LENGTH) {
+                    output.append('\n');
+                    output.append(token);
+                    return output.length() - token.length();
+                }
+                output.append(' ');
+            }
+            output.append(token);
+            return lineStart;
+        }
+
+    }
+
+}
@@ -0,0 +1,351 @@
+package com.chess.analysis;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.MoveTransition;
+import com.chess.engine.board.SANWriter;
+import com.chess.engine.endgame.Bitbases;
+import com.chess.engine.player.ai.AlphaBeta;
+import com.chess.engine.player.ai.SearchResult;
+import com.chess.engine.player.ai.StandardBoardEvaluator;
+import com.chess.pgn.FenUtilities;
+import com.chess.pgn.PGNUtilities;
+import com.chess.util.ThreadPools;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Klasa uruchamiajaca zestaw testowy EPD. Kazda pozycja z operacja bm (najlepszy ruch) lub am (ruch do unikniecia) jest przeszukiwana
+ * z zadanym limitem czasu, wezlow lub glebokosci, rownolegle w stalej puli watkow (kazdy watek ma wlasne przeszukiwanie, a tablica
+ * transpozycji jest czyszczona przed kazda pozycja). Czas i liczba wezlow do rozwiazania sa brane z iteracji, od ktorej najlepszy ruch
+ * byl juz poprawny do konca przeszukiwania. Wyniki sa wypisywane w kolejnosci z pliku i moga byc zapisane do pliku CSV do porownania miedzy wersjami.
+ * Uzycie: EPDRunner plik.epd [-movetime ms] [-nodes n] [-depth n] [-threads n] [-hash mb] [-out wyniki.csv]
+ */
+public final class EPDRunner {
+
+    private static final String CSV_HEADER = "id,solved,best,expected,depth,solution_ms,solution_nodes,completed_ms,completed_nodes\n";
+
+    private final int threads;
+    private final int depth;
+    private final long nodeLimit;
+    private final long moveTimeMillis;
+    private final int hashMegabytes;
+
+    public EPDRunner(final int threads,
+                     final int depth,
+                     final long nodeLimit,
+                     final long moveTimeMillis,
+                     final int hashMegabytes) {
+        this.threads = Math.max(1, threads);
+        this.depth = depth;
+        this.nodeLimit = nodeLimit;
+        this.moveTimeMillis = moveTimeMillis;
+        this.hashMegabytes = hashMegabytes;
+    }
+
+    /**
+     * Metoda uruchamiajaca zestaw testowy
+     * @param positions pozycje testowe
+     * @return zwraca wyniki w kolejnosci pozycji
+     */
+    public List<Result> run(final List<TestPosition> positions) {
+        final ExecutorService executor = ThreadPools.newComputeExecutor("epd", this.threads);
+        final ThreadLocal<AlphaBeta> searchers = ThreadLocal.withInitial(() -> new AlphaBeta(
+                StandardBoardEvaluator.INSTANCE, this.depth, this.hashMegabytes));
+        try {
+            final List<Future<Result>> futures = new ArrayList<>(positions.size());
+            for (final TestPosition position : positions) {
+                futures.add(executor.submit(() -> solve(searchers.get(), position)));
+            }
+            final List<Result> results = new ArrayList<>(positions.size());
+            for (final Future<Result> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("EPD run interrupted", e);
+        } catch (final ExecutionException e) {
+            throw new RuntimeException("EPD run failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Result solve(final AlphaBeta searcher,
+                         final TestPosition position) {
+        final Board board = FenUtilities.createGameFromFEN(position.fen);
+        final SearchResult[] solvedAt = new SearchResult[1];
+        searcher.clear();
+        searcher.setListener(iteration -> {
+            if (position.isCorrect(iteration.getBestMove() == null ? 0 : PGNUtilities.encodeMove(iteration.getBestMove()))) {
+                if (solvedAt[0] == null) {
+                    solvedAt[0] = iteration;
+                }
+            } else {
+                solvedAt[0] = null;
+            }
+        });
+        final SearchResult result = searcher.search(board, this.depth, this.nodeLimit, this.moveTimeMillis);
+        searcher.setListener(null);
+        final String best = result.getBestMove() == null ? "-" :
+                            SANWriter.INSTANCE.toSAN(result.getBestMove(), result.getBestMove().execute());
+        return new Result(position, best, result, solvedAt[0]);
+    }
+
+    /**
+     * Metoda wczytujaca pozycje z pliku EPD - pomijane sa pozycje bez operacji bm i am
+     * @param file plik EPD
+     * @return zwraca pozycje testowe
+     * @throws IOException w przypadku bledu odczytu
+     */
+    public static List<TestPosition> readEPD(final File file) throws IOException {
+        final List<TestPosition> positions = new ArrayList<>();
+        try (final BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                final TestPosition position = parseEPD(line.trim(), "line" + lineNumber);
+                if (position != null) {
+                    positions.add(position);
+                }
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Metoda czytajaca jedna linie EPD: cztery pola FEN i operacje zakonczone srednikami (bm, am, id)
+     */
+    private static TestPosition parseEPD(final String line,
+                                         final String defaultId) {
+        final String[] fields = line.split("\\s+", 5);
+        if (fields.length < 5 || line.startsWith("#")) {
+            return null;
+        }
+        final String fen = String.join(" ", fields[0], fields[1], fields[2], fields[3], "0", "1");
+        final Board board = FenUtilities.createGameFromFEN(fen);
+        String id = defaultId;
+        final List<Integer> bestMoves = new ArrayList<>();
+        final List<Integer> avoidMoves = new ArrayList<>();
+        final StringBuilder expected = new StringBuilder();
+        for (final String operation : fields[4].split(";")) {
+            final String[] tokens = operation.trim().split("\\s+");
+            if (tokens[0].equals("id") && tokens.length > 1) {
+                id = operation.trim().substring(2).trim().replace("\"", "");
+            } else if (tokens[0].equals("bm") || tokens[0].equals("am")) {
+                for (int i = 1; i < tokens.length; i++) {
+                    final MoveTransition transition = PGNUtilities.createMoveTransition(board, tokens[i]);
+                    if (!transition.getMoveStatus().isDone()) {
+                        throw new RuntimeException("Invalid move " + tokens[i] + " in EPD " + defaultId);
+                    }
+                    (tokens[0].equals("bm") ? bestMoves : avoidMoves).add(PGNUtilities.encodeMove(transition.getTransitionMove()));
+                    expected.append(expected.length() > 0 ? " " : "").append(tokens[0].equals("am") ? "!" : "").append(tokens[i]);
+                }
+            }
+        }
+        if (bestMoves.isEmpty() && avoidMoves.isEmpty()) {
+            return null;
+        }
+        return new TestPosition(id, fen, toArray(bestMoves), toArray(avoidMoves), expected.toString());
+    }
+
+    private static int[] toArray(final List<Integer> values) {
+        final int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Metoda zapisujaca wyniki w formacie CSV
+     */
+    private static void writeCSV(final List<Result> results,
+                                 final Writer output) throws IOException {
+        output.write(CSV_HEADER);
+        final StringBuilder line = new StringBuilder(128);
+        for (final Result result : results) {
+            line.setLength(0);
+            line.append('"').append(result.position.id.replace("\"", "\"\"")).append("\",")
+                .append(result.isSolved() ? 1 : 0).append(',').append(result.best).append(',')
+                .append(result.position.expected).append(',').append(result.search.getDepth()).append(',')
+                .append(result.isSolved() ? Long.toString(result.solvedAt.getTimeMillis()) : "").append(',')
+                .append(result.isSolved() ? Long.toString(result.solvedAt.getNodes()) : "").append(',')
+                .append(result.search.getTimeMillis()).append(',').append(result.search.getNodes()).append('\n');
+            output.write(line.toString());
+        }
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: EPDRunner suite.epd [-movetime ms] [-nodes n] [-depth n] [-threads n] [-hash mb] [-out results.csv]");
+            return;
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        int depth = 64;
+        long nodes = Long.MAX_VALUE;
+        long moveTime = 0;
+        int hash = 16;
+        File out = null;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-movetime":
+                    moveTime = Long.parseLong(args[i + 1]);
+                    break;
+                case "-nodes":
+                    nodes = Long.parseLong(args[i + 1]);
+                    break;
+                case "-depth":
+                    depth = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-hash":
+                    hash = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-out":
+                    out = new File(args[i + 1]);
+                    break;
+                default:
+                    throw new RuntimeException("Unknown option " + args[i]);
+            }
+        }
+        if (moveTime == 0 && nodes == Long.MAX_VALUE && depth == 64) {
+            moveTime = 1000;
+        }
+        final List<TestPosition> positions = readEPD(new File(args[0]));
+        Bitbases.INSTANCE.initialize(Bitbases.DEFAULT_DIRECTORY).join();
+        final long start = System.nanoTime();
+        final List<Result> results = new EPDRunner(threads, depth, nodes, moveTime, hash).run(positions);
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        int solved = 0;
+        long solutionMillis = 0;
+        long solutionNodes = 0;
+        for (final Result result : results) {
+            System.out.printf("%-20s %-8s %-8s %s%n", result.position.id, result.best, result.position.expected,
+                              result.isSolved() ? "solved in " + result.solvedAt.getTimeMillis() + " ms, " +
+                                                  result.solvedAt.getNodes() + " nodes" : "not solved");
+            if (result.isSolved()) {
+                solved++;
+                solutionMillis += result.solvedAt.getTimeMillis();
+                solutionNodes += result.solvedAt.getNodes();
+            }
+        }
+        System.out.printf("Solved %d of %d in %.1f s; mean time to solution %d ms, mean nodes to solution %d%n",
+                          solved, results.size(), seconds, solved > 0 ? solutionMillis / solved : 0,
+                          solved > 0 ? solutionNodes / solved : 0);
+        if (out != null) {
+            try (final Writer writer = new OutputStreamWriter(new FileOutputStream(out), StandardCharsets.UTF_8)) {
+                writeCSV(results, writer);
+            }
+        }
+    }
+
+    /**
+     * Klasa przechowujaca pozycje testowa: identyfikator, FEN oraz kody ruchow najlepszych i do unikniecia
+     */
+    public static final class TestPosition {
+
+        private final String id;
+        private final String fen;
+        private final int[] bestMoves;
+        private final int[] avoidMoves;
+        private final String expected;
+
+        TestPosition(final String id,
+                     final String fen,
+                     final int[] bestMoves,
+                     final int[] avoidMoves,
+                     final String expected) {
+            this.id = id;
+            this.fen = fen;
+            this.bestMoves = bestMoves;
+            this.avoidMoves = avoidMoves;
+            this.expected = expected;
+        }
+
+        public String getId() {
+            return this.id;
+        }
+
+        /**
+         * Metoda sprawdzajaca ruch: musi byc jednym z ruchow bm (jezeli podano) i nie moze byc zadnym z ruchow am
+         * @param code kod ruchu (PGNUtilities.encodeMove)
+         * @return zwraca prawde dla poprawnego ruchu
+         */
+        boolean isCorrect(final int code) {
+            for (final int avoid : this.avoidMoves) {
+                if (avoid == code) {
+                    return false;
+                }
+            }
+            if (this.bestMoves.length == 0) {
+                return code != 0;
+            }
+            for (final int best : this.bestMoves) {
+                if (best == code) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+    /**
+     * Klasa przechowujaca wynik pozycji testowej: koncowe przeszukiwanie oraz iteracje, od ktorej ruch byl poprawny
+     */
+    public static final class Result {
+
+        private final TestPosition position;
+        private final String best;
+        private final SearchResult search;
+        private final SearchResult solvedAt;
+
+        Result(final TestPosition position,
+               final String best,
+               final SearchResult search,
+               final SearchResult solvedAt) {
+            this.position = position;
+            this.best = best;
+            this.search = search;
+            this.solvedAt = solvedAt;
+        }
+
+        public TestPosition getPosition() {
+            return this.position;
+        }
+
+        public boolean isSolved() {
+            return this.solvedAt != null;
+        }
+
+        /**
+         * Metoda zwracajaca iteracje, od ktorej najlepszy ruch byl poprawny do konca przeszukiwania
+         * @return zwraca wynik iteracji lub null, gdy pozycja nie zostala rozwiazana
+         */
+        public SearchResult getSolvedAt() {
+            return this.solvedAt;
+        }
+
+        public SearchResult getSearch() {
+            return this.search;
+        }
+
+    }
+
+}
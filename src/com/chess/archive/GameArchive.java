@@ -0,0 +1,53 @@
+package com.chess.archive;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Klasa opisujaca binarny format archiwum partii:
+ * naglowek (MAGIC, VERSION), nastepnie kolejne partie (liczba polruchow jako varint i numery ruchow, po bajcie na ruch),
+ * blok naglowkow partii zapisany kolumnowo (dla kazdej nazwy naglowka slownik wartosci i numer wartosci dla kazdej partii),
+ * indeks przesuniec partii (8 bajtow na partie) oraz stopka stalej dlugosci z polozeniem bloku naglowkow, indeksu i liczba partii.
+ */
+final class GameArchive {
+
+    static final int MAGIC = 0x4A434741;
+    static final int VERSION = 1;
+    static final int FOOTER_SIZE = 24;
+
+    private GameArchive() {
+        throw new RuntimeException("Not instantiatable!");
+    }
+
+    static void writeVarInt(final DataOutput output,
+                            int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    static int readVarInt(final DataInput input) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int b = input.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+
+}
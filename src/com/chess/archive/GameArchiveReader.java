@@ -0,0 +1,220 @@
+package com.chess.archive;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveTransition;
+import com.chess.pgn.FenUtilities;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Klasa czytajaca binarne archiwum partii (opis formatu w GameArchive). Naglowki wszystkich partii sa wczytywane przy otwarciu,
+ * a ruchy partii o podanym numerze sa czytane bezposrednio z pliku po odczytaniu jej przesuniecia z indeksu.
+ * Odczyty sa pozycyjne, wiec z jednego obiektu moze korzystac wiele watkow.
+ */
+public final class GameArchiveReader implements Closeable {
+
+    private final FileChannel channel;
+    private final long indexOffset;
+    private final int gameCount;
+    private final String[] columnNames;
+    private final String[][] columnValues;
+    private final int[][] columnReferences;
+
+    /**
+     * Konstruktor otwierajacy archiwum
+     * @param file plik archiwum
+     * @throws IOException w przypadku bledu odczytu lub niepoprawnego formatu
+     */
+    public GameArchiveReader(final File file) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        final long size = this.channel.size();
+        final ByteBuffer header = read(0, 8);
+        if (size < 8 + GameArchive.FOOTER_SIZE || header.getInt() != GameArchive.MAGIC || header.getInt() != GameArchive.VERSION) {
+            this.channel.close();
+            throw new IOException("Not a game archive: " + file);
+        }
+        final ByteBuffer footer = read(size - GameArchive.FOOTER_SIZE, GameArchive.FOOTER_SIZE);
+        final long headerOffset = footer.getLong();
+        this.indexOffset = footer.getLong();
+        this.gameCount = footer.getInt();
+        if (footer.getInt() != GameArchive.MAGIC) {
+            this.channel.close();
+            throw new IOException("Truncated game archive: " + file);
+        }
+        final ByteBuffer headerBlock = read(headerOffset, (int) (this.indexOffset - headerOffset));
+        final DataInputStream headers = new DataInputStream(
+                new ByteArrayInputStream(headerBlock.array(), 0, headerBlock.limit()));
+        final int columnCount = headers.readInt();
+        this.columnNames = new String[columnCount];
+        this.columnValues = new String[columnCount][];
+        this.columnReferences = new int[columnCount][];
+        for (int column = 0; column < columnCount; column++) {
+            this.columnNames[column] = headers.readUTF();
+            final String[] values = new String[GameArchive.readVarInt(headers)];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = headers.readUTF();
+            }
+            final int[] references = new int[this.gameCount];
+            for (int game = 0; game < this.gameCount; game++) {
+                references[game] = GameArchive.readVarInt(headers);
+            }
+            this.columnValues[column] = values;
+            this.columnReferences[column] = references;
+        }
+    }
+
+    public int getGameCount() {
+        return this.gameCount;
+    }
+
+    /**
+     * Metoda zwracajaca naglowki partii
+     * @param game numer partii
+     * @return zwraca mape naglowkow (nazwa - wartosc)
+     */
+    public Map<String, String> getTags(final int game) {
+        checkGame(game);
+        final Map<String, String> tags = new LinkedHashMap<>();
+        for (int column = 0; column < this.columnNames.length; column++) {
+            final int reference = this.columnReferences[column][game];
+            if (reference != 0) {
+                tags.put(this.columnNames[column], this.columnValues[column][reference - 1]);
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * Metoda zwracajaca wartosc jednego naglowka partii bez tworzenia mapy naglowkow
+     * @param game numer partii
+     * @param name nazwa naglowka
+     * @return zwraca wartosc naglowka lub null gdy partia go nie ma
+     */
+    public String getTag(final int game,
+                         final String name) {
+        checkGame(game);
+        for (int column = 0; column < this.columnNames.length; column++) {
+            if (this.columnNames[column].equals(name)) {
+                final int reference = this.columnReferences[column][game];
+                return reference == 0 ? null : this.columnValues[column][reference - 1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Metoda odtwarzajaca ruchy partii - plansza przed kazdym ruchem jest dostepna przez Move.getBoard()
+     * @param game numer partii
+     * @return zwraca liste ruchow
+     * @throws IOException w przypadku bledu odczytu lub uszkodzonego zapisu partii
+     */
+    public List<Move> readMoves(final int game) throws IOException {
+        final ByteBuffer record = readRecord(game);
+        Board board = createInitialBoard(game);
+        final List<Move> moves = new ArrayList<>(record.remaining());
+        while (record.hasRemaining()) {
+            final MoveTransition transition = nextMove(board, record, game, moves.size());
+            moves.add(transition.getTransitionMove());
+            board = transition.getToBoard();
+        }
+        return moves;
+    }
+
+    /**
+     * Metoda odtwarzajaca partie i zwracajaca klucze Zobrist wszystkich jej pozycji
+     * @param game numer partii
+     * @return zwraca klucze pozycji od poczatkowej (indeks 0) do koncowej (indeks rowny liczbie polruchow)
+     * @throws IOException w przypadku bledu odczytu lub uszkodzonego zapisu partii
+     */
+    public long[] readPositionHashes(final int game) throws IOException {
+        final ByteBuffer record = readRecord(game);
+        Board board = createInitialBoard(game);
+        long[] hashes = new long[record.remaining() + 1];
+        int ply = 0;
+        hashes[ply] = board.getZobristHash();
+        while (record.hasRemaining()) {
+            board = nextMove(board, record, game, ply).getToBoard();
+            hashes[++ply] = board.getZobristHash();
+        }
+        return ply + 1 == hashes.length ? hashes : Arrays.copyOf(hashes, ply + 1);
+    }
+
+    /**
+     * Metoda tworzaca plansze poczatkowa partii
+     * @param game numer partii
+     * @return zwraca plansze standardowa lub plansze z naglowka FEN
+     */
+    public Board createInitialBoard(final int game) {
+        final String fen = getTag(game, "FEN");
+        return fen == null ? Board.createStandardBoard() : FenUtilities.createGameFromFEN(fen);
+    }
+
+    private ByteBuffer readRecord(final int game) throws IOException {
+        checkGame(game);
+        final long offset = read(this.indexOffset + 8L * game, 8).getLong();
+        final ByteBuffer prefix = read(offset, 5);
+        int length = 0;
+        int prefixLength = 0;
+        for (int shift = 0; ; shift += 7) {
+            final int b = prefix.get(prefixLength++) & 0xFF;
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        return read(offset + prefixLength, length);
+    }
+
+    private static MoveTransition nextMove(final Board board,
+                                           final ByteBuffer record,
+                                           final int game,
+                                           final int ply) throws IOException {
+        int index = record.get() & 0xFF;
+        if (index == MoveIndexer.ESCAPE) {
+            index += record.get() & 0xFF;
+        }
+        final MoveTransition transition = MoveIndexer.createMoveTransition(board, index);
+        if (!transition.getMoveStatus().isDone()) {
+            throw new IOException("Corrupted move " + ply + " in game " + game);
+        }
+        return transition;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private void checkGame(final int game) {
+        if (game < 0 || game >= this.gameCount) {
+            throw new RuntimeException("Game " + game + " out of range, archive has " + this.gameCount + " games");
+        }
+    }
+
+    private ByteBuffer read(final long position,
+                            final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (this.channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+}
@@ -0,0 +1,228 @@
+package com.chess.archive;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveTransition;
+import com.chess.pgn.FenUtilities;
+import com.chess.pgn.ImportedGame;
+import com.chess.pgn.PGNImporter;
+import com.chess.pgn.PGNUtilities;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Klasa zapisujaca partie do binarnego archiwum (opis formatu w GameArchive). Ruchy sa zapisywane od razu,
+ * a naglowki partii i indeks przesuniec sa zbierane w pamieci i zapisywane przy zamknieciu archiwum.
+ * Uzycie: GameArchiveWriter -out archiwum.jga plik1.pgn [plik2.pgn.gz ...]
+ */
+public final class GameArchiveWriter implements Closeable {
+
+    private final DataOutputStream output;
+    private final Map<String, Column> columns;
+    private long[] gameOffsets;
+    private int gameCount;
+    private long position;
+    private final byte[] moveBuffer;
+
+    /**
+     * Konstruktor tworzacy nowe archiwum
+     * @param file plik archiwum
+     * @throws IOException w przypadku bledu zapisu
+     */
+    public GameArchiveWriter(final File file) throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        this.columns = new LinkedHashMap<>();
+        this.gameOffsets = new long[1024];
+        this.moveBuffer = new byte[2048];
+        this.output.writeInt(GameArchive.MAGIC);
+        this.output.writeInt(GameArchive.VERSION);
+        this.position = 8;
+    }
+
+    /**
+     * Metoda dopisujaca partie zapisana jako lista ruchow (np. z MoveLog). Gdy partia nie zaczyna sie od pozycji
+     * standardowej, a naglowki nie zawieraja FEN, pozycja poczatkowa jest dopisywana do naglowkow.
+     * @param tags naglowki partii
+     * @param moves ruchy partii - plansza przed kazdym ruchem jest odczytywana z Move.getBoard()
+     * @return zwraca numer partii w archiwum
+     * @throws IOException w przypadku bledu zapisu
+     */
+    public int addGame(final Map<String, String> tags,
+                       final List<Move> moves) throws IOException {
+        Map<String, String> gameTags = tags;
+        if (!moves.isEmpty() && !tags.containsKey("FEN") &&
+            moves.get(0).getBoard().getZobristHash() != Board.createStandardBoard().getZobristHash()) {
+            gameTags = new LinkedHashMap<>(tags);
+            gameTags.put("SetUp", "1");
+            gameTags.put("FEN", FenUtilities.createFENFromGame(moves.get(0).getBoard()));
+        }
+        final int[] indices = new int[moves.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = MoveIndexer.indexOf(moves.get(i));
+        }
+        return writeGame(gameTags, indices);
+    }
+
+    /**
+     * Metoda dopisujaca partie wczytana przez PGNImporter - ruchy sa odtwarzane od pozycji poczatkowej, wiec partia musi
+     * byc poprawna (isValid())
+     * @param game wczytana partia
+     * @return zwraca numer partii w archiwum
+     * @throws IOException w przypadku bledu zapisu
+     */
+    public int addGame(final ImportedGame game) throws IOException {
+        final int[] indices = new int[game.getMoveCount()];
+        Board board = game.createInitialBoard();
+        for (int ply = 0; ply < indices.length; ply++) {
+            final MoveTransition transition = PGNUtilities.createMoveTransition(board, game.getMove(ply));
+            indices[ply] = MoveIndexer.indexOf(transition.getTransitionMove());
+            board = transition.getToBoard();
+        }
+        return writeGame(game.getTags(), indices);
+    }
+
+    public int getGameCount() {
+        return this.gameCount;
+    }
+
+    /**
+     * Metoda zapisujaca blok naglowkow, indeks przesuniec oraz stopke i zamykajaca plik
+     * @throws IOException w przypadku bledu zapisu
+     */
+    @Override
+    public void close() throws IOException {
+        final ByteArrayOutputStream headerBlock = new ByteArrayOutputStream();
+        final DataOutputStream headers = new DataOutputStream(headerBlock);
+        headers.writeInt(this.columns.size());
+        for (final Map.Entry<String, Column> entry : this.columns.entrySet()) {
+            headers.writeUTF(entry.getKey());
+            entry.getValue().write(headers, this.gameCount);
+        }
+        headers.flush();
+        headerBlock.writeTo(this.output);
+        final long headerOffset = this.position;
+        final long indexOffset = headerOffset + headerBlock.size();
+        for (int i = 0; i < this.gameCount; i++) {
+            this.output.writeLong(this.gameOffsets[i]);
+        }
+        this.output.writeLong(headerOffset);
+        this.output.writeLong(indexOffset);
+        this.output.writeInt(this.gameCount);
+        this.output.writeInt(GameArchive.MAGIC);
+        this.output.close();
+    }
+
+    private int writeGame(final Map<String, String> tags,
+                          final int[] indices) throws IOException {
+        if (this.gameCount == this.gameOffsets.length) {
+            this.gameOffsets = Arrays.copyOf(this.gameOffsets, 2 * this.gameCount);
+        }
+        this.gameOffsets[this.gameCount] = this.position;
+        byte[] bytes = this.moveBuffer;
+        int length = 0;
+        for (final int index : indices) {
+            if (length + 2 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, 2 * bytes.length);
+            }
+            if (index >= 2 * MoveIndexer.ESCAPE) {
+                throw new RuntimeException("Move index out of range: " + index);
+            }
+            if (index >= MoveIndexer.ESCAPE) {
+                bytes[length++] = (byte) MoveIndexer.ESCAPE;
+                bytes[length++] = (byte) (index - MoveIndexer.ESCAPE);
+            } else {
+                bytes[length++] = (byte) index;
+            }
+        }
+        GameArchive.writeVarInt(this.output, length);
+        this.output.write(bytes, 0, length);
+        this.position += GameArchive.varIntSize(length) + length;
+        for (final Map.Entry<String, String> tag : tags.entrySet()) {
+            this.columns.computeIfAbsent(tag.getKey(), name -> new Column()).set(this.gameCount, tag.getValue());
+        }
+        return this.gameCount++;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        File out = null;
+        final List<File> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-out") && i + 1 < args.length) {
+                out = new File(args[++i]);
+            } else {
+                inputs.add(new File(args[i]));
+            }
+        }
+        if (out == null || inputs.isEmpty()) {
+            System.err.println("Usage: GameArchiveWriter -out archive.jga file1.pgn [file2.pgn.gz ...]");
+            return;
+        }
+        final PGNImporter importer = new PGNImporter(Runtime.getRuntime().availableProcessors());
+        final long[] skipped = new long[1];
+        try (final GameArchiveWriter writer = new GameArchiveWriter(out)) {
+            for (final File input : inputs) {
+                importer.importFile(input, game -> {
+                    if (!game.isValid()) {
+                        skipped[0]++;
+                        return;
+                    }
+                    try {
+                        writer.addGame(game);
+                    } catch (final IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+            }
+            System.out.println(writer.getGameCount() + " games written to " + out + " (" + skipped[0] + " invalid skipped)");
+        }
+    }
+
+    /**
+     * Kolumna jednego naglowka - slownik roznych wartosci oraz numer wartosci dla kazdej partii (0 gdy partia nie ma naglowka)
+     */
+    private static final class Column {
+
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private int[] references = new int[1024];
+
+        void set(final int game,
+                 final String value) {
+            Integer reference = this.dictionary.get(value);
+            if (reference == null) {
+                this.values.add(value);
+                reference = this.values.size();
+                this.dictionary.put(value, reference);
+            }
+            if (game >= this.references.length) {
+                this.references = Arrays.copyOf(this.references, Math.max(2 * this.references.length, game + 1));
+            }
+            this.references[game] = reference;
+        }
+
+        void write(final DataOutputStream output,
+                   final int gameCount) throws IOException {
+            GameArchive.writeVarInt(output, this.values.size());
+            for (final String value : this.values) {
+                output.writeUTF(value);
+            }
+            for (int game = 0; game < gameCount; game++) {
+                GameArchive.writeVarInt(output, game < this.references.length ? this.references[game] : 0);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.chess.archive;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveTransition;
+import com.chess.pgn.PGNUtilities;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Klasa zamieniajaca ruch na jego numer w deterministycznym uporzadkowaniu ruchow gracza (rosnaco po kodzie z PGNUtilities.encodeMove)
+ * i z powrotem. Numer jest liczony wsrod wszystkich wygenerowanych ruchow gracza, wiec nie wymaga sprawdzania legalnosci kazdego ruchu.
+ */
+final class MoveIndexer {
+
+    /**
+     * Wartosc bajtu oznaczajaca, ze numer ruchu nie miesci sie w jednym bajcie i kontynuowany jest w nastepnym
+     */
+    static final int ESCAPE = 0xFF;
+
+    private MoveIndexer() {
+        throw new RuntimeException("Not instantiatable!");
+    }
+
+    /**
+     * Metoda wyznaczajaca numer ruchu
+     * @param move ruch wykonywany na planszy move.getBoard()
+     * @return zwraca liczbe ruchow gracza o mniejszym kodzie
+     */
+    static int indexOf(final Move move) {
+        final int code = PGNUtilities.encodeMove(move);
+        int index = 0;
+        for (final Move candidate : move.getBoard().currentPlayer().getLegalMoves()) {
+            if (PGNUtilities.encodeMove(candidate) < code) {
+                index++;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Metoda wykonujaca ruch o podanym numerze
+     * @param board aktualna plansza
+     * @param index numer ruchu
+     * @return zwraca obiekt MoveTransition ze statusem DONE lub ILLEGAL_MOVE gdy numer jest niepoprawny
+     */
+    static MoveTransition createMoveTransition(final Board board,
+                                               final int index) {
+        final Collection<Move> moves = board.currentPlayer().getLegalMoves();
+        final int[] codes = new int[moves.size()];
+        int count = 0;
+        for (final Move move : moves) {
+            codes[count++] = PGNUtilities.encodeMove(move);
+        }
+        if (index < 0 || index >= count) {
+            return PGNUtilities.createMoveTransition(board, -1);
+        }
+        Arrays.sort(codes);
+        return PGNUtilities.createMoveTransition(board, codes[index]);
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.chess.archive;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Klasa odczytujaca indeks pozycji zbudowany przez PositionIndexBuilder. Plik zawiera naglowek (MAGIC, VERSION, liczba wpisow)
+ * oraz wpisy po 16 bajtow (klucz Zobrist, numer partii, numer polruchu) posortowane po kluczu. Plik jest mapowany do pamieci
+ * fragmentami, a wpisy dla pozycji sa wyszukiwane binarnie.
+ */
+public final class PositionIndex implements Closeable {
+
+    static final int MAGIC = 0x4A435049;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int ENTRY_SIZE = 16;
+    private static final int SEGMENT_SHIFT = 30;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long entryCount;
+
+    /**
+     * Konstruktor otwierajacy indeks
+     * @param file plik indeksu
+     * @throws IOException w przypadku bledu odczytu lub niepoprawnego formatu
+     */
+    public PositionIndex(final File file) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        final long size = this.channel.size();
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (this.channel.read(header, header.position()) < 0) {
+                break;
+            }
+        }
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+            this.channel.close();
+            throw new IOException("Not a position index: " + file);
+        }
+        this.entryCount = header.getLong();
+        if (HEADER_SIZE + this.entryCount * ENTRY_SIZE != size) {
+            this.channel.close();
+            throw new IOException("Truncated position index: " + file);
+        }
+        this.segments = new MappedByteBuffer[(int) ((size + (1L << SEGMENT_SHIFT) - 1) >>> SEGMENT_SHIFT)];
+        for (int i = 0; i < this.segments.length; i++) {
+            final long start = (long) i << SEGMENT_SHIFT;
+            this.segments[i] = this.channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(1L << SEGMENT_SHIFT, size - start));
+        }
+    }
+
+    public long getEntryCount() {
+        return this.entryCount;
+    }
+
+    /**
+     * Metoda zliczajaca wystapienia pozycji
+     * @param hash klucz Zobrist pozycji
+     * @return zwraca liczbe wpisow (partia, polruch) dla pozycji
+     */
+    public long count(final long hash) {
+        return bound(hash, true) - bound(hash, false);
+    }
+
+    /**
+     * Metoda wyszukujaca partie, w ktorych wystapila pozycja
+     * @param hash klucz Zobrist pozycji
+     * @param limit maksymalna liczba zwracanych wynikow
+     * @return zwraca wyniki posortowane po numerze partii i polruchu
+     */
+    public List<Hit> find(final long hash,
+                          final int limit) {
+        final List<Hit> hits = new ArrayList<>();
+        for (long entry = bound(hash, false); entry < this.entryCount && hits.size() < limit && hashAt(entry) == hash; entry++) {
+            final ByteBuffer segment = segmentOf(entry);
+            final int position = positionOf(entry);
+            hits.add(new Hit(segment.getInt(position + 8), segment.getInt(position + 12)));
+        }
+        return hits;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * Metoda szukajaca binarnie pierwszego wpisu o kluczu nie mniejszym (lub, gdy upper jest prawda, wiekszym) od podanego
+     */
+    private long bound(final long hash,
+                       final boolean upper) {
+        long low = 0;
+        long high = this.entryCount;
+        while (low < high) {
+            final long middle = (low + high) >>> 1;
+            final long middleHash = hashAt(middle);
+            if (middleHash < hash || (upper && middleHash == hash)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long hashAt(final long entry) {
+        return segmentOf(entry).getLong(positionOf(entry));
+    }
+
+    private ByteBuffer segmentOf(final long entry) {
+        return this.segments[(int) ((HEADER_SIZE + entry * ENTRY_SIZE) >>> SEGMENT_SHIFT)];
+    }
+
+    private static int positionOf(final long entry) {
+        return (int) ((HEADER_SIZE + entry * ENTRY_SIZE) & ((1L << SEGMENT_SHIFT) - 1));
+    }
+
+    /**
+     * Klasa opisujaca wystapienie pozycji - numer partii w archiwum oraz numer polruchu, przed ktorym pozycja wystapila
+     */
+    public static final class Hit {
+
+        private final int game;
+        private final int ply;
+
+        Hit(final int game,
+            final int ply) {
+            this.game = game;
+            this.ply = ply;
+        }
+
+        public int getGame() {
+            return this.game;
+        }
+
+        public int getPly() {
+            return this.ply;
+        }
+
+        @Override
+        public String toString() {
+            return "game " + this.game + ", ply " + this.ply;
+        }
+
+    }
+
+}
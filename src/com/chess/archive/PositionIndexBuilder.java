@@ -0,0 +1,303 @@
+package com.chess.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Narzedzie budujace indeks pozycji dla archiwum partii sortowaniem zewnetrznym. Watki robocze odtwarzaja kolejne bloki partii,
+ * zbieraja wpisy (klucz pozycji, partia, polruch) w buforach o ograniczonym rozmiarze, sortuja je i zrzucaja na dysk
+ * jako posortowane przebiegi, ktore na koncu sa scalane w jeden plik indeksu (format w PositionIndex).
+ * Uzycie: PositionIndexBuilder -archive archiwum.jga -out indeks.jpi [-memory 256] [-threads n] [-tmp katalog]
+ */
+public final class PositionIndexBuilder {
+
+    private static final int GAMES_PER_TASK = 64;
+
+    private final int threads;
+    private final int entriesPerBuffer;
+    private final File tempDirectory;
+
+    /**
+     * Konstruktor tworzacy budowniczego indeksu
+     * @param threads liczba watkow odtwarzajacych partie
+     * @param memoryBytes laczny budzet pamieci na bufory wpisow
+     * @param tempDirectory katalog na tymczasowe przebiegi
+     */
+    public PositionIndexBuilder(final int threads,
+                                final long memoryBytes,
+                                final File tempDirectory) {
+        this.threads = Math.max(1, threads);
+        this.entriesPerBuffer = (int) Math.max(1024, Math.min(Integer.MAX_VALUE / 2, memoryBytes / this.threads / 16));
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * Metoda budujaca indeks wszystkich pozycji archiwum
+     * @param archive plik archiwum
+     * @param indexFile plik wynikowy indeksu
+     * @return zwraca liczbe zapisanych wpisow
+     * @throws IOException w przypadku bledu odczytu lub zapisu
+     */
+    public long build(final File archive,
+                      final File indexFile) throws IOException {
+        final List<File> runs = Collections.synchronizedList(new ArrayList<>());
+        try (final GameArchiveReader reader = new GameArchiveReader(archive)) {
+            final AtomicInteger nextGame = new AtomicInteger();
+            final ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+            try {
+                final List<Future<Void>> workers = new ArrayList<>();
+                for (int i = 0; i < this.threads; i++) {
+                    workers.add(executor.submit(() -> {
+                        collect(reader, nextGame, runs);
+                        return null;
+                    }));
+                }
+                for (final Future<Void> worker : workers) {
+                    worker.get();
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Position index build interrupted", e);
+            } catch (final ExecutionException e) {
+                throw new IOException("Position index build failed", e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        try {
+            return merge(runs, indexFile);
+        } finally {
+            for (final File run : runs) {
+                run.delete();
+            }
+        }
+    }
+
+    /**
+     * Metoda wykonywana przez watek roboczy - pobiera kolejne bloki partii az do wyczerpania archiwum
+     */
+    private void collect(final GameArchiveReader reader,
+                         final AtomicInteger nextGame,
+                         final List<File> runs) throws IOException {
+        final long[] hashes = new long[this.entriesPerBuffer];
+        final long[] payloads = new long[this.entriesPerBuffer];
+        int size = 0;
+        int first;
+        while ((first = nextGame.getAndAdd(GAMES_PER_TASK)) < reader.getGameCount()) {
+            final int last = Math.min(reader.getGameCount(), first + GAMES_PER_TASK);
+            for (int game = first; game < last; game++) {
+                final long[] positions = reader.readPositionHashes(game);
+                for (int ply = 0; ply < positions.length; ply++) {
+                    if (size == hashes.length) {
+                        runs.add(spill(hashes, payloads, size));
+                        size = 0;
+                    }
+                    hashes[size] = positions[ply];
+                    payloads[size++] = ((long) game << 32) | ply;
+                }
+            }
+        }
+        if (size > 0) {
+            runs.add(spill(hashes, payloads, size));
+        }
+    }
+
+    private File spill(final long[] hashes,
+                       final long[] payloads,
+                       final int size) throws IOException {
+        sort(hashes, payloads, 0, size - 1);
+        final File run = File.createTempFile("positions", ".run", this.tempDirectory);
+        run.deleteOnExit();
+        try (final DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(run), 1 << 16))) {
+            for (int i = 0; i < size; i++) {
+                output.writeLong(hashes[i]);
+                output.writeLong(payloads[i]);
+            }
+        }
+        return run;
+    }
+
+    private static long merge(final List<File> runs,
+                              final File indexFile) throws IOException {
+        long entries = 0;
+        for (final File run : runs) {
+            entries += run.length() / PositionIndex.ENTRY_SIZE;
+        }
+        final PriorityQueue<RunReader> queue = new PriorityQueue<>();
+        try (final DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(indexFile), 1 << 16))) {
+            output.writeInt(PositionIndex.MAGIC);
+            output.writeInt(PositionIndex.VERSION);
+            output.writeLong(entries);
+            for (final File run : runs) {
+                final RunReader reader = new RunReader(run);
+                if (reader.advance()) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+            while (!queue.isEmpty()) {
+                final RunReader reader = queue.poll();
+                output.writeLong(reader.hash);
+                output.writeLong(reader.payload);
+                if (reader.advance()) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+        } finally {
+            for (final RunReader reader : queue) {
+                reader.close();
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Metoda sortujaca w miejscu rownolegle tablice kluczy i danych (po kluczu, a nastepnie po danych)
+     */
+    private static void sort(final long[] hashes,
+                             final long[] payloads,
+                             int low,
+                             int high) {
+        while (high - low > 16) {
+            final int middle = (low + high) >>> 1;
+            final long pivotHash = hashes[middle];
+            final long pivotPayload = payloads[middle];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(hashes[i], payloads[i], pivotHash, pivotPayload) < 0) {
+                    i++;
+                }
+                while (compare(hashes[j], payloads[j], pivotHash, pivotPayload) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(hashes, payloads, i++, j--);
+                }
+            }
+            if (j - low < high - i) {
+                sort(hashes, payloads, low, j);
+                low = i;
+            } else {
+                sort(hashes, payloads, i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && compare(hashes[j], payloads[j], hashes[j - 1], payloads[j - 1]) < 0; j--) {
+                swap(hashes, payloads, j, j - 1);
+            }
+        }
+    }
+
+    private static int compare(final long hash,
+                               final long payload,
+                               final long otherHash,
+                               final long otherPayload) {
+        final int byHash = Long.compare(hash, otherHash);
+        return byHash != 0 ? byHash : Long.compare(payload, otherPayload);
+    }
+
+    private static void swap(final long[] hashes,
+                             final long[] payloads,
+                             final int i,
+                             final int j) {
+        final long hash = hashes[i];
+        hashes[i] = hashes[j];
+        hashes[j] = hash;
+        final long payload = payloads[i];
+        payloads[i] = payloads[j];
+        payloads[j] = payload;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        File archive = null;
+        File out = null;
+        long memory = 256L << 20;
+        int threads = Runtime.getRuntime().availableProcessors();
+        File tempDirectory = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-archive":
+                    archive = new File(args[i + 1]);
+                    break;
+                case "-out":
+                    out = new File(args[i + 1]);
+                    break;
+                case "-memory":
+                    memory = Long.parseLong(args[i + 1]) << 20;
+                    break;
+                case "-threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-tmp":
+                    tempDirectory = new File(args[i + 1]);
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (archive == null || out == null) {
+            System.err.println("Usage: PositionIndexBuilder -archive archive.jga -out index.jpi [-memory 256] [-threads n] [-tmp dir]");
+            return;
+        }
+        final long entries = new PositionIndexBuilder(threads, memory, tempDirectory).build(archive, out);
+        System.out.println(entries + " positions written to " + out);
+    }
+
+    /**
+     * Klasa czytajaca jeden posortowany przebieg podczas scalania
+     */
+    private static final class RunReader implements Comparable<RunReader> {
+
+        private final DataInputStream input;
+        private long hash;
+        private long payload;
+
+        RunReader(final File run) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(new FileInputStream(run), 1 << 16));
+        }
+
+        boolean advance() throws IOException {
+            try {
+                this.hash = this.input.readLong();
+                this.payload = this.input.readLong();
+                return true;
+            } catch (final EOFException e) {
+                return false;
+            }
+        }
+
+        void close() throws IOException {
+            this.input.close();
+        }
+
+        @Override
+        public int compareTo(final RunReader other) {
+            return compare(this.hash, this.payload, other.hash, other.payload);
+        }
+
+    }
+
+}
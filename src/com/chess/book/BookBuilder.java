@@ -0,0 +1,301 @@
+package com.chess.book;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.MoveTransition;
+import com.chess.pgn.PGNGame;
+import com.chess.pgn.PGNReader;
+import com.chess.pgn.PGNUtilities;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Narzedzie budujace ksiazke debiutowa w formacie Polyglot z kolekcji partii PGN.
+ * Partie sa odtwarzane do zadanej liczby polruchow, statystyki ruchow sa zbierane w tablicy poza sterta,
+ * a po jej zapelnieniu zrzucane na dysk jako posortowane przebiegi, ktore na koncu sa scalane w gotowa ksiazke.
+ * Uzycie: BookBuilder -out ksiazka.bin [-ply 20] [-min-games 3] [-memory 256] [-tmp katalog] plik1.pgn [plik2.pgn ...]
+ */
+public final class BookBuilder {
+
+    private final int maxPly;
+    private final int minGames;
+    private final File tempDirectory;
+    private final BookStatsTable table;
+    private final List<File> runs;
+    private long gamesRead;
+    private long gamesSkipped;
+
+    /**
+     * Konstruktor tworzacy budowniczego ksiazki
+     * @param maxPly liczba polruchow odtwarzanych z kazdej partii
+     * @param minGames minimalna liczba partii, w ktorych ruch musial wystapic, aby trafil do ksiazki
+     * @param memoryBytes budzet pamieci dla tablicy statystyk
+     * @param tempDirectory katalog na tymczasowe przebiegi
+     */
+    public BookBuilder(final int maxPly,
+                       final int minGames,
+                       final long memoryBytes,
+                       final File tempDirectory) {
+        this.maxPly = maxPly;
+        this.minGames = minGames;
+        this.tempDirectory = tempDirectory;
+        this.table = new BookStatsTable(memoryBytes);
+        this.runs = new ArrayList<>();
+    }
+
+    /**
+     * Metoda czytajaca wszystkie partie z pliku PGN i dodajaca je do statystyk
+     * @param pgnFile plik PGN
+     * @throws IOException w przypadku bledu odczytu lub zapisu przebiegu
+     */
+    public void addGames(final File pgnFile) throws IOException {
+        try (final PGNReader reader = new PGNReader(new InputStreamReader(
+                new FileInputStream(pgnFile), StandardCharsets.ISO_8859_1))) {
+            PGNGame game;
+            while ((game = reader.nextGame()) != null) {
+                addGame(game);
+            }
+        }
+    }
+
+    /**
+     * Metoda odtwarzajaca partie do zadanej liczby polruchow i dodajaca jej ruchy do statystyk
+     * @param game wczytana partia
+     * @throws IOException w przypadku bledu zapisu przebiegu
+     */
+    public void addGame(final PGNGame game) throws IOException {
+        final Integer whiteScore = game.getWhiteScore();
+        if (whiteScore == null || game.getTags().containsKey("FEN")) {
+            this.gamesSkipped++;
+            return;
+        }
+        this.gamesRead++;
+        Board board = Board.createStandardBoard();
+        final int plies = Math.min(this.maxPly, game.getMoves().size());
+        for (int ply = 0; ply < plies; ply++) {
+            final MoveTransition transition = PGNUtilities.createMoveTransition(board, game.getMoves().get(ply));
+            if (!transition.getMoveStatus().isDone()) {
+                break;
+            }
+            final int score = board.currentPlayer().getAlliance().isWhite() ? whiteScore : -whiteScore;
+            this.table.add(board.getZobristHash(), PolyglotBook.encodeMove(transition.getTransitionMove()), score);
+            if (this.table.isFull()) {
+                spill();
+            }
+            board = transition.getToBoard();
+        }
+    }
+
+    /**
+     * Metoda scalajaca wszystkie przebiegi i zapisujaca ksiazke Polyglot
+     * @param bookFile plik wynikowy ksiazki
+     * @return zwraca liczbe zapisanych wpisow
+     * @throws IOException w przypadku bledu odczytu lub zapisu
+     */
+    public long write(final File bookFile) throws IOException {
+        if (this.table.size() > 0) {
+            spill();
+        }
+        final PriorityQueue<RunReader> queue = new PriorityQueue<>();
+        long written = 0;
+        try (final DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(bookFile), 1 << 16))) {
+            for (final File run : this.runs) {
+                final RunReader reader = new RunReader(run);
+                if (reader.advance()) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+            final List<long[]> positionMoves = new ArrayList<>();
+            long currentKey = 0L;
+            while (!queue.isEmpty()) {
+                final RunReader reader = queue.poll();
+                final long key = reader.key;
+                final int move = reader.move;
+                final long[] stats = {move, reader.games, reader.wins, reader.draws, reader.losses};
+                if (reader.advance()) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+                while (!queue.isEmpty() && queue.peek().key == key && queue.peek().move == move) {
+                    final RunReader same = queue.poll();
+                    stats[1] += same.games;
+                    stats[2] += same.wins;
+                    stats[3] += same.draws;
+                    stats[4] += same.losses;
+                    if (same.advance()) {
+                        queue.add(same);
+                    } else {
+                        same.close();
+                    }
+                }
+                if (!positionMoves.isEmpty() && key != currentKey) {
+                    written += writePosition(output, currentKey, positionMoves);
+                    positionMoves.clear();
+                }
+                currentKey = key;
+                positionMoves.add(stats);
+            }
+            if (!positionMoves.isEmpty()) {
+                written += writePosition(output, currentKey, positionMoves);
+            }
+        } finally {
+            for (final RunReader reader : queue) {
+                reader.close();
+            }
+            for (final File run : this.runs) {
+                run.delete();
+            }
+            this.runs.clear();
+        }
+        return written;
+    }
+
+    public long getGamesRead() {
+        return this.gamesRead;
+    }
+
+    public long getGamesSkipped() {
+        return this.gamesSkipped;
+    }
+
+    /**
+     * Metoda zapisujaca wpisy ksiazki dla jednej pozycji. Wagi sa skalowane tak, aby najlepszy ruch miescil sie w 16 bitach,
+     * a ruchy sa zapisywane od najwyzszej wagi.
+     */
+    private int writePosition(final DataOutputStream output,
+                              final long key,
+                              final List<long[]> moves) throws IOException {
+        moves.removeIf(stats -> stats[1] < this.minGames);
+        long maxScore = 0;
+        for (final long[] stats : moves) {
+            maxScore = Math.max(maxScore, PolyglotBook.score(stats[2], stats[3]));
+        }
+        moves.sort((first, second) -> Long.compare(PolyglotBook.score(second[2], second[3]),
+                                                    PolyglotBook.score(first[2], first[3])));
+        int written = 0;
+        for (final long[] stats : moves) {
+            final long score = PolyglotBook.score(stats[2], stats[3]);
+            final long weight = maxScore > PolyglotBook.MAX_WEIGHT ? score * PolyglotBook.MAX_WEIGHT / maxScore : score;
+            if (weight == 0) {
+                continue;
+            }
+            output.writeLong(key);
+            output.writeShort((int) stats[0]);
+            output.writeShort((int) weight);
+            output.writeInt(0);
+            written++;
+        }
+        return written;
+    }
+
+    private void spill() throws IOException {
+        final File run = File.createTempFile("book-run-", ".bin", this.tempDirectory);
+        run.deleteOnExit();
+        try (final DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(run), 1 << 16))) {
+            this.table.spill(output);
+        }
+        this.runs.add(run);
+    }
+
+    /**
+     * Klasa czytajaca kolejne wpisy z posortowanego przebiegu
+     */
+    private static final class RunReader implements Comparable<RunReader> {
+
+        private final DataInputStream input;
+        private long key;
+        private int move;
+        private int games;
+        private int wins;
+        private int draws;
+        private int losses;
+
+        RunReader(final File run) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(new FileInputStream(run), 1 << 16));
+        }
+
+        boolean advance() throws IOException {
+            try {
+                this.key = this.input.readLong();
+                this.move = this.input.readUnsignedShort();
+                this.games = this.input.readInt();
+                this.wins = this.input.readInt();
+                this.draws = this.input.readInt();
+                this.losses = this.input.readInt();
+                return true;
+            } catch (final EOFException e) {
+                return false;
+            }
+        }
+
+        void close() throws IOException {
+            this.input.close();
+        }
+
+        @Override
+        public int compareTo(final RunReader other) {
+            final int keyOrder = Long.compareUnsigned(this.key, other.key);
+            return keyOrder != 0 ? keyOrder : Integer.compare(this.move, other.move);
+        }
+    }
+
+    public static void main(final String[] args) throws IOException {
+        File out = null;
+        int ply = 20;
+        int minGames = 3;
+        long memory = 256;
+        File tmp = new File(System.getProperty("java.io.tmpdir"));
+        final List<File> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-out":
+                    out = new File(args[++i]);
+                    break;
+                case "-ply":
+                    ply = Integer.parseInt(args[++i]);
+                    break;
+                case "-min-games":
+                    minGames = Integer.parseInt(args[++i]);
+                    break;
+                case "-memory":
+                    memory = Long.parseLong(args[++i]);
+                    break;
+                case "-tmp":
+                    tmp = new File(args[++i]);
+                    break;
+                default:
+                    inputs.add(new File(args[i]));
+            }
+        }
+        if (out == null || inputs.isEmpty()) {
+            System.err.println("Usage: BookBuilder -out book.bin [-ply 20] [-min-games 3] [-memory 256] [-tmp dir] games.pgn ...");
+            System.exit(1);
+        }
+        final long start = System.currentTimeMillis();
+        final BookBuilder builder = new BookBuilder(ply, minGames, memory << 20, tmp);
+        for (final File input : inputs) {
+            builder.addGames(input);
+        }
+        final long entries = builder.write(out);
+        System.out.println("games: " + builder.getGamesRead() + ", skipped: " + builder.getGamesSkipped() +
+                           ", entries: " + entries + ", time: " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+}
@@ -0,0 +1,209 @@
+package com.chess.book;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Klasa przechowujaca statystyki ruchow (partie, wygrane, remisy, przegrane) w tablicy mieszajacej
+ * z adresowaniem otwartym, umieszczonej poza sterta (ByteBuffer.allocateDirect). Kluczem jest para: klucz pozycji oraz kod ruchu.
+ * Po zapelnieniu tablica jest sortowana w miejscu i zrzucana na dysk jako posortowany przebieg.
+ */
+final class BookStatsTable {
+
+    private static final int SLOT_SIZE = 32;
+    private static final int KEY = 0;
+    private static final int MOVE = 8;
+    private static final int GAMES = 12;
+    private static final int WINS = 16;
+    private static final int DRAWS = 20;
+    private static final int LOSSES = 24;
+    private static final double MAX_LOAD = 0.75;
+
+    private final ByteBuffer slots;
+    private final int capacity;
+    private final int mask;
+    private final int threshold;
+    private int size;
+
+    /**
+     * Konstruktor tworzacy tablice mieszczaca sie w podanym budzecie pamieci
+     * @param memoryBytes budzet pamieci w bajtach
+     */
+    BookStatsTable(final long memoryBytes) {
+        final long slotCount = Math.max(1024L, Math.min(1L << 25, memoryBytes / SLOT_SIZE));
+        this.capacity = (int) Long.highestOneBit(slotCount);
+        this.mask = this.capacity - 1;
+        this.threshold = (int) (this.capacity * MAX_LOAD);
+        this.slots = ByteBuffer.allocateDirect(this.capacity * SLOT_SIZE);
+    }
+
+    /**
+     * Metoda dodajaca wynik partii dla ruchu wykonanego w pozycji
+     * @param key klucz pozycji
+     * @param move kod ruchu Polyglot
+     * @param score wynik z punktu widzenia gracza wykonujacego ruch (1, 0, -1)
+     */
+    void add(final long key,
+             final int move,
+             final int score) {
+        int slot = (int) mix(key, move) & this.mask;
+        while (true) {
+            final int base = slot * SLOT_SIZE;
+            if (this.slots.getInt(base + GAMES) == 0) {
+                this.slots.putLong(base + KEY, key);
+                this.slots.putInt(base + MOVE, move);
+                this.size++;
+                increment(base, score);
+                return;
+            }
+            if (this.slots.getLong(base + KEY) == key && this.slots.getInt(base + MOVE) == move) {
+                increment(base, score);
+                return;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+    }
+
+    /**
+     * Metoda sprawdzajaca czy tablica osiagnela maksymalne zapelnienie
+     * @return zwraca prawde gdy tablice nalezy zrzucic na dysk
+     */
+    boolean isFull() {
+        return this.size >= this.threshold;
+    }
+
+    /**
+     * Metoda zwracajaca liczbe zapisanych wpisow
+     * @return zwraca liczbe wpisow
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Metoda sortujaca wpisy (po kluczu bez znaku, a nastepnie po ruchu), zapisujaca je do strumienia i czyszczaca tablice
+     * @param output strumien, do ktorego zapisywany jest posortowany przebieg
+     * @throws IOException w przypadku bledu zapisu
+     */
+    void spill(final DataOutputStream output) throws IOException {
+        int count = 0;
+        for (int slot = 0; slot < this.capacity; slot++) {
+            if (this.slots.getInt(slot * SLOT_SIZE + GAMES) != 0) {
+                if (slot != count) {
+                    copy(slot, count);
+                }
+                count++;
+            }
+        }
+        sort(0, count - 1);
+        for (int i = 0; i < count; i++) {
+            final int base = i * SLOT_SIZE;
+            output.writeLong(this.slots.getLong(base + KEY));
+            output.writeShort(this.slots.getInt(base + MOVE));
+            output.writeInt(this.slots.getInt(base + GAMES));
+            output.writeInt(this.slots.getInt(base + WINS));
+            output.writeInt(this.slots.getInt(base + DRAWS));
+            output.writeInt(this.slots.getInt(base + LOSSES));
+        }
+        clear();
+    }
+
+    private void clear() {
+        for (int offset = 0; offset < this.capacity * SLOT_SIZE; offset += Long.BYTES) {
+            this.slots.putLong(offset, 0L);
+        }
+        this.size = 0;
+    }
+
+    private void increment(final int base,
+                           final int score) {
+        this.slots.putInt(base + GAMES, this.slots.getInt(base + GAMES) + 1);
+        final int field = score > 0 ? WINS : score < 0 ? LOSSES : DRAWS;
+        this.slots.putInt(base + field, this.slots.getInt(base + field) + 1);
+    }
+
+    private int compare(final int first,
+                        final int second) {
+        final int keyOrder = Long.compareUnsigned(this.slots.getLong(first * SLOT_SIZE + KEY),
+                                                  this.slots.getLong(second * SLOT_SIZE + KEY));
+        if (keyOrder != 0) {
+            return keyOrder;
+        }
+        return Integer.compare(this.slots.getInt(first * SLOT_SIZE + MOVE), this.slots.getInt(second * SLOT_SIZE + MOVE));
+    }
+
+    /**
+     * Metoda sortujaca wpisy w miejscu (quicksort z mediana z trzech, krotkie przedzialy przez wstawianie)
+     */
+    private void sort(int low, int high) {
+        while (high - low > 16) {
+            final int middle = (low + high) >>> 1;
+            if (compare(middle, low) < 0) {
+                swap(middle, low);
+            }
+            if (compare(high, low) < 0) {
+                swap(high, low);
+            }
+            if (compare(high, middle) < 0) {
+                swap(high, middle);
+            }
+            swap(middle, high - 1);
+            final int pivot = high - 1;
+            int i = low;
+            int j = high - 1;
+            while (true) {
+                while (compare(++i, pivot) < 0) {
+                }
+                while (compare(--j, pivot) > 0) {
+                }
+                if (i >= j) {
+                    break;
+                }
+                swap(i, j);
+            }
+            swap(i, high - 1);
+            if (i - low < high - i) {
+                sort(low, i - 1);
+                low = i + 1;
+            } else {
+                sort(i + 1, high);
+                high = i - 1;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && compare(j, j - 1) < 0; j--) {
+                swap(j, j - 1);
+            }
+        }
+    }
+
+    private void swap(final int first,
+                      final int second) {
+        final int a = first * SLOT_SIZE;
+        final int b = second * SLOT_SIZE;
+        for (int offset = 0; offset < SLOT_SIZE; offset += Long.BYTES) {
+            final long value = this.slots.getLong(a + offset);
+            this.slots.putLong(a + offset, this.slots.getLong(b + offset));
+            this.slots.putLong(b + offset, value);
+        }
+    }
+
+    private void copy(final int from,
+                      final int to) {
+        for (int offset = 0; offset < SLOT_SIZE; offset += Long.BYTES) {
+            this.slots.putLong(to * SLOT_SIZE + offset, this.slots.getLong(from * SLOT_SIZE + offset));
+            this.slots.putLong(from * SLOT_SIZE + offset, 0L);
+        }
+    }
+
+    private static long mix(final long key,
+                            final int move) {
+        long h = key ^ (move * 0x9E3779B97F4A7C15L);
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.chess.book;
+
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Move;
+import com.chess.engine.pieces.Piece;
+
+/**
+ * Klasa zawierajaca stale oraz operacje pomocnicze formatu ksiazki debiutowej Polyglot.
+ * Kazdy wpis ksiazki ma 16 bajtow (big-endian): klucz pozycji (8), ruch (2), waga (2), learn (4).
+ * Wpisy sa posortowane rosnaco po kluczu traktowanym jako liczba bez znaku.
+ */
+public final class PolyglotBook {
+
+    public static final int ENTRY_SIZE = 16;
+    public static final int MAX_WEIGHT = 0xFFFF;
+
+    private PolyglotBook() {
+        throw new RuntimeException("Not instantiatable!");
+    }
+
+    /**
+     * Metoda kodujaca ruch w formacie Polyglot: kolumna i rzad pola docelowego, kolumna i rzad pola startowego oraz awans.
+     * Roszada jest zapisywana jako ruch krola na pole wiezy (np. e1h1).
+     * @param move ruch do zakodowania
+     * @return zwraca 16-bitowy kod ruchu
+     */
+    public static int encodeMove(final Move move) {
+        final int from = move.getCurrentCoordinate();
+        int to = move.getDestinationCoordinate();
+        if (move.isCastlingMove()) {
+            to = to > from ? from + 3 : from - 4;
+        }
+        int promotion = 0;
+        final Piece promotionPiece = move.getPromotionPiece();
+        if (promotionPiece != null) {
+            promotion = promotionPiece.getPieceType().ordinal();
+        }
+        return file(to) | (row(to) << 3) | (file(from) << 6) | (row(from) << 9) | (promotion << 12);
+    }
+
+    /**
+     * Metoda zamieniajaca kod ruchu Polyglot na zapis w postaci "e2e4" (roszada jako ruch krola na pole wiezy)
+     * @param code 16-bitowy kod ruchu
+     * @return zwraca zapis ruchu
+     */
+    public static String moveToString(final int code) {
+        final int to = coordinate(code & 7, (code >>> 3) & 7);
+        final int from = coordinate((code >>> 6) & 7, (code >>> 9) & 7);
+        final int promotion = (code >>> 12) & 7;
+        return BoardUtils.INSTANCE.getPositionAtCoordinate(from) + BoardUtils.INSTANCE.getPositionAtCoordinate(to) +
+               (promotion == 0 ? "" : String.valueOf(" nbrq".charAt(promotion)));
+    }
+
+    /**
+     * Metoda wyznaczajaca wage ruchu w ksiazce na podstawie wynikow (jak w Polyglot: 2 * wygrane + remisy)
+     * @param wins liczba wygranych gracza wykonujacego ruch
+     * @param draws liczba remisow
+     * @return zwraca nieprzeskalowana wage ruchu
+     */
+    public static long score(final long wins,
+                             final long draws) {
+        return 2 * wins + draws;
+    }
+
+    private static int file(final int coordinate) {
+        return coordinate % BoardUtils.NUM_TILES_PER_ROW;
+    }
+
+    private static int row(final int coordinate) {
+        return 7 - coordinate / BoardUtils.NUM_TILES_PER_ROW;
+    }
+
+    private static int coordinate(final int file,
+                                  final int row) {
+        return (7 - row) * BoardUtils.NUM_TILES_PER_ROW + file;
+    }
+
+}
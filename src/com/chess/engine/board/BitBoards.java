@@ -0,0 +1,155 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Klasa zawierajaca operacje na maskach bitowych planszy (bit n odpowiada polu n, 0 = a8, 63 = h1):
+ * tablice atakow krola i skoczka, ataki pionkow oraz ataki figur liniowych dla podanej maski zajetych pol.
+ */
+public final class BitBoards {
+
+    private static final long[] KING_ATTACKS = initializeLeaperAttacks(new int[][]{{-1, -1}, {-1, 0}, {-1, 1}, {0, -1},
+                                                                                   {0, 1}, {1, -1}, {1, 0}, {1, 1}});
+    private static final long[] KNIGHT_ATTACKS = initializeLeaperAttacks(new int[][]{{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2},
+                                                                                     {1, -2}, {1, 2}, {2, -1}, {2, 1}});
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    private BitBoards() {
+        throw new RuntimeException("Not instantiatable!");
+    }
+
+    public static long kingAttacks(final int square) {
+        return KING_ATTACKS[square];
+    }
+
+    public static long knightAttacks(final int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /**
+     * Metoda wyznaczajaca pola atakowane przez pionka
+     * @param alliance kolor pionka
+     * @param square pole pionka
+     * @return zwraca maske atakowanych pol
+     */
+    public static long pawnAttacks(final Alliance alliance,
+                                   final int square) {
+        final int file = square & 7;
+        final int forward = square + 8 * alliance.getDirection();
+        if (forward < 0 || forward >= BoardUtils.NUM_TILES) {
+            return 0L;
+        }
+        long attacks = 0L;
+        if (file > 0) {
+            attacks |= 1L << (forward - 1);
+        }
+        if (file < 7) {
+            attacks |= 1L << (forward + 1);
+        }
+        return attacks;
+    }
+
+    /**
+     * Metoda wyznaczajaca pola atakowane przez pionek
+     * @param pieceType rodzaj pionka
+     * @param alliance kolor pionka (istotny tylko dla pionow)
+     * @param square pole pionka
+     * @param occupied maska zajetych pol
+     * @return zwraca maske atakowanych pol
+     */
+    public static long attacks(final PieceType pieceType,
+                               final Alliance alliance,
+                               final int square,
+                               final long occupied) {
+        switch (pieceType) {
+            case PAWN:
+                return pawnAttacks(alliance, square);
+            case KNIGHT:
+                return KNIGHT_ATTACKS[square];
+            case BISHOP:
+                return slidingAttacks(square, occupied, BISHOP_DIRECTIONS);
+            case ROOK:
+                return slidingAttacks(square, occupied, ROOK_DIRECTIONS);
+            case QUEEN:
+                return slidingAttacks(square, occupied, BISHOP_DIRECTIONS) | slidingAttacks(square, occupied, ROOK_DIRECTIONS);
+            default:
+                return KING_ATTACKS[square];
+        }
+    }
+
+    /**
+     * Metoda wyznaczajaca maske pol zajetych przez wszystkie pionki
+     * @param board plansza
+     * @return zwraca maske zajetych pol
+     */
+    public static long occupancy(final Board board) {
+        long occupied = 0L;
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            if (board.getPiece(square) != null) {
+                occupied |= 1L << square;
+            }
+        }
+        return occupied;
+    }
+
+    /**
+     * Metoda wyznaczajaca maske pol zajetych przez pionki danego rodzaju i koloru
+     * @param board plansza
+     * @param alliance kolor pionkow
+     * @param pieceType rodzaj pionkow
+     * @return zwraca maske pol
+     */
+    public static long pieces(final Board board,
+                              final Alliance alliance,
+                              final PieceType pieceType) {
+        long pieces = 0L;
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            final Piece piece = board.getPiece(square);
+            if (piece != null && piece.getPieceType() == pieceType && piece.getPieceAllegiance() == alliance) {
+                pieces |= 1L << square;
+            }
+        }
+        return pieces;
+    }
+
+    private static long slidingAttacks(final int square,
+                                       final long occupied,
+                                       final int[][] directions) {
+        long attacked = 0L;
+        for (final int[] direction : directions) {
+            int row = square >>> 3;
+            int file = square & 7;
+            while (true) {
+                row += direction[0];
+                file += direction[1];
+                if (row < 0 || row > 7 || file < 0 || file > 7) {
+                    break;
+                }
+                final long target = 1L << (row * 8 + file);
+                attacked |= target;
+                if ((occupied & target) != 0) {
+                    break;
+                }
+            }
+        }
+        return attacked;
+    }
+
+    private static long[] initializeLeaperAttacks(final int[][] offsets) {
+        final long[] attacks = new long[BoardUtils.NUM_TILES];
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            for (final int[] offset : offsets) {
+                final int row = (square >>> 3) + offset[0];
+                final int file = (square & 7) + offset[1];
+                if (row >= 0 && row < 8 && file >= 0 && file < 8) {
+                    attacks[square] |= 1L << (row * 8 + file);
+                }
+            }
+        }
+        return attacks;
+    }
+
+}
@@ -25,6 +25,11 @@ public final class Board {
     private final BlackPlayer blackPlayer;
     private final Player currentPlayer;
     private final Pawn enPassantPawn;
+    private final long zobristHash;
+    private final int halfmoveClock;
+    private final int fullmoveNumber;
+    private final HashHistory hashHistory;
+    private final long materialKey;
 
     private static final Board STANDARD_BOARD = createStandardBoardImpl();
 
@@ -33,11 +38,34 @@ public final class Board {
         this.whitePieces = calculateActivePieces(builder, Alliance.WHITE);
         this.blackPieces = calculateActivePieces(builder, Alliance.BLACK);
         this.enPassantPawn = builder.enPassantPawn;
+        final Move transitionMove = builder.transitionMove;
+        if (transitionMove != null && transitionMove.getBoard() != null) {
+            final Board previousBoard = transitionMove.getBoard();
+            this.halfmoveClock = transitionMove.getMovedPiece().getPieceType().isPawn() || transitionMove.isAttack() ?
+                                 0 : previousBoard.halfmoveClock + 1;
+            this.fullmoveNumber = previousBoard.fullmoveNumber +
+                                  (previousBoard.currentPlayer().getAlliance().isBlack() ? 1 : 0);
+            this.materialKey = calculateMaterialKey(previousBoard.materialKey, transitionMove);
+        } else {
+            this.halfmoveClock = builder.halfmoveClock;
+            this.fullmoveNumber = builder.fullmoveNumber;
+            this.materialKey = MaterialKey.of(builder.boardConfig.values());
+        }
         final Collection<Move> whiteStandardMoves = calculateLegalMoves(this.whitePieces);
         final Collection<Move> blackStandardMoves = calculateLegalMoves(this.blackPieces);
         this.whitePlayer = new WhitePlayer(this, whiteStandardMoves, blackStandardMoves);
         this.blackPlayer = new BlackPlayer(this, whiteStandardMoves, blackStandardMoves);
         this.currentPlayer = builder.nextMoveMaker.choosePlayerByAlliance(this.whitePlayer, this.blackPlayer);
+        this.zobristHash = Zobrist.INSTANCE.hash(this);
+        HashHistory previousHistory = null;
+        if (transitionMove != null && transitionMove.getBoard() != null) {
+            previousHistory = this.halfmoveClock > 0 ? transitionMove.getBoard().hashHistory : null;
+        } else if (builder.positionHistory != null) {
+            for (int i = builder.positionHistoryStart; i < builder.positionHistoryEnd; i++) {
+                previousHistory = new HashHistory(builder.positionHistory[i], previousHistory);
+            }
+        }
+        this.hashHistory = new HashHistory(this.zobristHash, previousHistory);
     }
 
     /**
@@ -115,6 +143,107 @@ public final class Board {
         return this.enPassantPawn;
     }
 
+    /**
+     * Metoda zwracajaca klucz pozycji (Zobrist, uklad Polyglot)
+     * @return zwraca 64-bitowy klucz pozycji
+     */
+    public long getZobristHash() {
+        return this.zobristHash;
+    }
+
+    /**
+     * Metoda zwracajaca liczbe polruchow od ostatniego bicia lub ruchu pionkiem
+     * @return zwraca licznik polruchow
+     */
+    public int getHalfmoveClock() {
+        return this.halfmoveClock;
+    }
+
+    /**
+     * Metoda liczaca, ile razy aktualna pozycja wystapila w partii (lacznie z biezacym wystapieniem). Przegladane sa tylko
+     * pozycje od ostatniego bicia lub ruchu pionkiem, co druga (ten sam gracz na ruchu), wiec koszt jest proporcjonalny do licznika polruchow.
+     * @return zwraca liczbe wystapien pozycji
+     */
+    public int getRepetitionCount() {
+        int count = 1;
+        HashHistory entry = this.hashHistory.previous;
+        for (int ply = 1; entry != null && ply <= this.halfmoveClock; ply++, entry = entry.previous) {
+            if ((ply & 1) == 0 && entry.hash == this.zobristHash) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Metoda sprawdzajaca czy pozycja juz wystapila w partii - przeszukiwanie traktuje pierwsze powtorzenie jako remis
+     * @return zwraca prawde gdy pozycja sie powtorzyla
+     */
+    public boolean isRepetition() {
+        HashHistory entry = this.hashHistory.previous;
+        for (int ply = 1; entry != null && ply <= this.halfmoveClock; ply++, entry = entry.previous) {
+            if ((ply & 1) == 0 && entry.hash == this.zobristHash) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Metoda sprawdzajaca remis przez trzykrotne powtorzenie pozycji
+     * @return zwraca prawde gdy pozycja wystapila co najmniej trzy razy
+     */
+    public boolean isThreefoldRepetition() {
+        return this.halfmoveClock >= 8 && getRepetitionCount() >= 3;
+    }
+
+    /**
+     * Metoda sprawdzajaca remis z zasady 50 ruchow (mat w ostatnim ruchu ma pierwszenstwo i musi byc sprawdzony osobno)
+     * @return zwraca prawde gdy od ostatniego bicia lub ruchu pionkiem minelo co najmniej 100 polruchow
+     */
+    public boolean isFiftyMoveRule() {
+        return this.halfmoveClock >= 100;
+    }
+
+    /**
+     * Metoda zwracajaca klucz materialu (liczby bierek kazdego rodzaju obu stron, zob. MaterialKey)
+     * @return zwraca klucz materialu
+     */
+    public long getMaterialKey() {
+        return this.materialKey;
+    }
+
+    /**
+     * Metoda sprawdzajaca remis z powodu niewystarczajacego materialu: krol przeciw krolowi, krol z lekka figura przeciw
+     * samotnemu krolowi lub same gonce stojace na polach jednego koloru. Zwykle wystarcza porownanie klucza materialu,
+     * pola goncow sa sprawdzane tylko, gdy na planszy zostaly wylacznie gonce.
+     * @return zwraca prawde gdy zadna ze stron nie moze dac mata
+     */
+    public boolean isInsufficientMaterial() {
+        if (MaterialKey.isInsufficientMaterial(this.materialKey)) {
+            return true;
+        }
+        if (!MaterialKey.hasOnlyBishops(this.materialKey)) {
+            return false;
+        }
+        int squareColours = 0;
+        for (final Piece piece : this.boardConfig.values()) {
+            if (piece.getPieceType().isBishop()) {
+                final int square = piece.getPiecePosition();
+                squareColours |= 1 << (((square >>> 3) + (square & 7)) & 1);
+            }
+        }
+        return squareColours != 3;
+    }
+
+    /**
+     * Metoda zwracajaca numer ruchu w partii (zwiekszany po ruchu czarnych)
+     * @return zwraca numer ruchu
+     */
+    public int getFullmoveNumber() {
+        return this.fullmoveNumber;
+    }
+
     /**
      * Metoda tworzaca standardowa plansze - poczatkowa
      * @return zwraca instancje standardowej planszy
@@ -174,6 +303,24 @@ public final class Board {
                       .collect(Collectors.toList());
     }
 
+    /**
+     * Metoda aktualizujaca klucz materialu po ruchu - odejmowana jest zbita bierka, a przy promocji pion zamieniany jest na figure
+     */
+    private static long calculateMaterialKey(final long previousKey,
+                                             final Move transitionMove) {
+        long key = previousKey;
+        final Piece attackedPiece = transitionMove.getAttackedPiece();
+        if (attackedPiece != null) {
+            key = MaterialKey.add(key, attackedPiece.getPieceAllegiance(), attackedPiece.getPieceType(), -1);
+        }
+        final Piece promotionPiece = transitionMove.getPromotionPiece();
+        if (promotionPiece != null) {
+            key = MaterialKey.add(key, promotionPiece.getPieceAllegiance(), Piece.PieceType.PAWN, -1);
+            key = MaterialKey.add(key, promotionPiece.getPieceAllegiance(), promotionPiece.getPieceType(), 1);
+        }
+        return key;
+    }
+
     private static Collection<Piece> calculateActivePieces(final Builder builder,
                                                            final Alliance alliance) {
         return builder.boardConfig.values().stream()
@@ -181,6 +328,23 @@ public final class Board {
                .collect(Collectors.toList());
     }
 
+    /**
+     * Element stosu kluczy pozycji przekazywanego z planszy na plansze. Stos konczy sie na ostatnim nieodwracalnym ruchu
+     * (biciu lub ruchu pionkiem), bo wczesniejsze pozycje nie moga sie juz powtorzyc.
+     */
+    private static final class HashHistory {
+
+        private final long hash;
+        private final HashHistory previous;
+
+        HashHistory(final long hash,
+                    final HashHistory previous) {
+            this.hash = hash;
+            this.previous = previous;
+        }
+
+    }
+
     /**
      * Klasa buildera planszy, ktora jest wykorzystywana przy tworzeniu planszy
      */
@@ -189,12 +353,18 @@ public final class Board {
         Alliance nextMoveMaker;
         Pawn enPassantPawn;
         Move transitionMove;
+        int halfmoveClock;
+        int fullmoveNumber;
+        long[] positionHistory;
+        int positionHistoryStart;
+        int positionHistoryEnd;
 
         /**
          * Metoda, ktora w boardConfig zapisuje mape w postaci hashCode
          */
         public Builder() {
             this.boardConfig = new Int2ObjectOpenHashMap<>(32, 1.0f);
+            this.fullmoveNumber = 1;
         }
 
         /**
@@ -237,6 +407,43 @@ public final class Board {
             return this;
         }
 
+        /**
+         * Metoda ustawiajaca licznik polruchow od ostatniego bicia lub ruchu pionkiem (uzywany gdy plansza nie powstaje z ruchu)
+         * @param halfmoveClock licznik polruchow
+         * @return zwraca instancje buildera z ustawionym licznikiem
+         */
+        public Builder setHalfmoveClock(final int halfmoveClock) {
+            this.halfmoveClock = halfmoveClock;
+            return this;
+        }
+
+        /**
+         * Metoda ustawiajaca numer ruchu w partii (uzywany gdy plansza nie powstaje z ruchu)
+         * @param fullmoveNumber numer ruchu
+         * @return zwraca instancje buildera z ustawionym numerem ruchu
+         */
+        public Builder setFullmoveNumber(final int fullmoveNumber) {
+            this.fullmoveNumber = fullmoveNumber;
+            return this;
+        }
+
+        /**
+         * Metoda ustawiajaca klucze wczesniejszych pozycji partii, potrzebne do wykrywania powtorzen na planszy, ktora nie
+         * powstaje z ruchu (np. odtworzonej z zapisu partii)
+         * @param keys klucze Zobrist pozycji w kolejnosci wystepowania - ostatni to pozycja bezposrednio poprzedzajaca
+         * @param start indeks pierwszego klucza (wlacznie)
+         * @param end indeks ostatniego klucza (wylacznie)
+         * @return zwraca instancje buildera z ustawiona historia pozycji
+         */
+        public Builder setPositionHistory(final long[] keys,
+                                          final int start,
+                                          final int end) {
+            this.positionHistory = keys;
+            this.positionHistoryStart = start;
+            this.positionHistoryEnd = end;
+            return this;
+        }
+
         /**
          * Metoda tworzaca nowa instancje buildera
          * @return zwraca stworzona instancje buildera
@@ -0,0 +1,173 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.util.Collection;
+
+/**
+ * Klasa zawierajaca operacje na kluczu materialu - liczbie bierek kazdego rodzaju (bez krolow) obu stron zapisanej w jednej
+ * liczbie typu long, po 4 bity na licznik (biale na bitach 0-19, czarne na bitach 20-39, w kolejnosci P, N, B, R, Q).
+ * Klucz jest aktualizowany przyrostowo przy kazdym ruchu, dzieki czemu sprawdzenie materialu nie wymaga przegladania bierek.
+ */
+public final class MaterialKey {
+
+    private static final int BITS = 4;
+    private static final long MASK = (1L << BITS) - 1;
+    private static final int ALLIANCE_SHIFT = 5 * BITS;
+    private static final long SIDE_MASK = (1L << ALLIANCE_SHIFT) - 1;
+    private static final String PIECE_LETTERS = "PNBRQ";
+    private static final long[] MINOR_PIECE_KEYS = {of("KN", "K"), of("KB", "K"), of("K", "KN"), of("K", "KB")};
+
+    private MaterialKey() {
+        throw new RuntimeException("Not instantiatable!");
+    }
+
+    private static int shift(final Alliance alliance,
+                             final PieceType pieceType) {
+        return (alliance.isWhite() ? 0 : ALLIANCE_SHIFT) + BITS * pieceType.ordinal();
+    }
+
+    /**
+     * Metoda obliczajaca klucz materialu od poczatku
+     * @param pieces bierki obu stron
+     * @return zwraca klucz materialu
+     */
+    public static long of(final Collection<Piece> pieces) {
+        long key = 0L;
+        for (final Piece piece : pieces) {
+            key = add(key, piece.getPieceAllegiance(), piece.getPieceType(), 1);
+        }
+        return key;
+    }
+
+    /**
+     * Metoda tworzaca klucz z opisu materialu, np. of("KBN", "K")
+     * @param white bierki bialych (litery K, Q, R, B, N, P)
+     * @param black bierki czarnych
+     * @return zwraca klucz materialu
+     */
+    public static long of(final String white,
+                          final String black) {
+        long key = 0L;
+        for (final char letter : white.toCharArray()) {
+            if (letter != 'K') {
+                key = add(key, Alliance.WHITE, PieceType.values()[PIECE_LETTERS.indexOf(letter)], 1);
+            }
+        }
+        for (final char letter : black.toCharArray()) {
+            if (letter != 'K') {
+                key = add(key, Alliance.BLACK, PieceType.values()[PIECE_LETTERS.indexOf(letter)], 1);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Metoda zmieniajaca liczbe bierek danego rodzaju (krole sa pomijane)
+     * @param key klucz materialu
+     * @param alliance kolor bierki
+     * @param pieceType rodzaj bierki
+     * @param delta zmiana liczby bierek
+     * @return zwraca nowy klucz materialu
+     */
+    public static long add(final long key,
+                           final Alliance alliance,
+                           final PieceType pieceType,
+                           final int delta) {
+        if (pieceType.isKing()) {
+            return key;
+        }
+        return key + ((long) delta << shift(alliance, pieceType));
+    }
+
+    /**
+     * Metoda zwracajaca liczbe bierek danego rodzaju
+     * @return zwraca liczbe bierek
+     */
+    public static int count(final long key,
+                            final Alliance alliance,
+                            final PieceType pieceType) {
+        if (pieceType.isKing()) {
+            return 1;
+        }
+        return (int) ((key >>> shift(alliance, pieceType)) & MASK);
+    }
+
+    /**
+     * Metoda zwracajaca czesc klucza jednej strony
+     * @return zwraca klucz bierek danej strony (zero dla samotnego krola)
+     */
+    public static long side(final long key,
+                            final Alliance alliance) {
+        return (key >>> (alliance.isWhite() ? 0 : ALLIANCE_SHIFT)) & SIDE_MASK;
+    }
+
+    /**
+     * Metoda zamieniajaca strony w kluczu materialu
+     * @return zwraca klucz z zamienionymi kolorami
+     */
+    public static long mirror(final long key) {
+        return side(key, Alliance.BLACK) | side(key, Alliance.WHITE) << ALLIANCE_SHIFT;
+    }
+
+    /**
+     * Metoda zwracajaca wartosc bierek danej strony bez pionow i krola
+     * @return zwraca wartosc figur
+     */
+    public static int nonPawnMaterial(final long key,
+                                      final Alliance alliance) {
+        return count(key, alliance, PieceType.KNIGHT) * PieceType.KNIGHT.getPieceValue() +
+               count(key, alliance, PieceType.BISHOP) * PieceType.BISHOP.getPieceValue() +
+               count(key, alliance, PieceType.ROOK) * PieceType.ROOK.getPieceValue() +
+               count(key, alliance, PieceType.QUEEN) * PieceType.QUEEN.getPieceValue();
+    }
+
+    /**
+     * Metoda sprawdzajaca niewystarczajacy material na podstawie samego klucza: krol przeciw krolowi oraz krol z jednym
+     * goncem lub skoczkiem przeciw samotnemu krolowi. Przypadek samych goncow na polach jednego koloru wymaga znajomosci
+     * pol i jest sprawdzany w Board.isInsufficientMaterial().
+     * @return zwraca prawde gdy zadna strona nie moze dac mata
+     */
+    public static boolean isInsufficientMaterial(final long key) {
+        if (key == 0L) {
+            return true;
+        }
+        for (final long minorPieceKey : MINOR_PIECE_KEYS) {
+            if (key == minorPieceKey) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Metoda sprawdzajaca czy na planszy zostaly tylko krole i gonce
+     * @return zwraca prawde gdy poza krolami sa wylacznie gonce
+     */
+    public static boolean hasOnlyBishops(final long key) {
+        final long bishops = MASK << shift(Alliance.WHITE, PieceType.BISHOP) | MASK << shift(Alliance.BLACK, PieceType.BISHOP);
+        return (key & ~bishops) == 0L;
+    }
+
+    /**
+     * Metoda zwracajaca opis materialu, np. KBNvK
+     * @return zwraca opis klucza
+     */
+    public static String toString(final long key) {
+        final StringBuilder builder = new StringBuilder("K");
+        for (final Alliance alliance : new Alliance[]{Alliance.WHITE, Alliance.BLACK}) {
+            for (int type = PIECE_LETTERS.length() - 1; type >= 0; type--) {
+                for (int i = count(key, alliance, PieceType.values()[type]); i > 0; i--) {
+                    builder.append(PIECE_LETTERS.charAt(type));
+                }
+            }
+            if (alliance.isWhite()) {
+                builder.append("vK");
+            }
+        }
+        return builder.toString();
+    }
+
+}
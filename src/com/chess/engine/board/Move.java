@@ -121,6 +121,14 @@ public abstract class Move {
         return null;
     }
 
+    /**
+     * Metoda zwracajaca domysly pionek, na ktory awansuje pionek
+     * @return zwraca null
+     */
+    public Piece getPromotionPiece() {
+        return null;
+    }
+
     /**
      * Metoda wykonywana podczas tworzenia nowej planszy, ktora ustawia ruchy pionkow na planszy
      * @return zwraca zbudowana plansze
@@ -147,17 +155,13 @@ public abstract class Move {
     }
 
     /**
-     * Metoda ktora zwraca koordynaty ruchu do wypisania
+     * Metoda ktora zwraca koordynaty ruchu do wypisania (kolumna, rzad lub cale pole, gdy inny pionek tego samego rodzaju moze przejsc na to samo pole)
      * @return zwraca lancuch znakow reprezentujacy koordynaty wykonywanego ruchu
      */
     String disambiguationFile() {
-        for(final Move move : this.board.currentPlayer().getLegalMoves()) {
-            if(move.getDestinationCoordinate() == this.destinationCoordinate && !this.equals(move) &&
-               this.movedPiece.getPieceType().equals(move.getMovedPiece().getPieceType())) {
-                return BoardUtils.INSTANCE.getPositionAtCoordinate(this.movedPiece.getPiecePosition()).substring(0, 1);
-            }
-        }
-        return "";
+        final StringBuilder disambiguation = new StringBuilder(2);
+        SANWriter.INSTANCE.appendDisambiguation(this, disambiguation);
+        return disambiguation.toString();
     }
 
     /**
@@ -259,6 +263,15 @@ public abstract class Move {
             return this.decoratedMove.getAttackedPiece();
         }
 
+        /**
+         * Metoda zwracajaca pionek, na ktory awansuje pionek
+         * @return zwraca pionek po awansie
+         */
+        @Override
+        public Piece getPromotionPiece() {
+            return this.promotionPiece;
+        }
+
         /**
          * Metoda zwracajaca odpowiedni lancuch znakow przy awansie pionka
          * @return zwraca komunikat awansu pionka
@@ -0,0 +1,161 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Enum zapisujace ruchy w notacji SAN. Niejednoznacznosc ruchu jest wyznaczana z maski pionkow tego samego rodzaju,
+ * ktore atakuja pole docelowe, zamiast z przegladania wszystkich ruchow gracza. Zapis jest dopisywany do podanego,
+ * wielokrotnie uzywanego bufora, a oznaczenia szachu i mata sa odczytywane z planszy po ruchu.
+ */
+public enum SANWriter {
+
+    INSTANCE;
+
+    private static final char[] FILES = {'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h'};
+    private static final char[] RANKS = {'8', '7', '6', '5', '4', '3', '2', '1'};
+
+    /**
+     * Metoda dopisujaca ruch w notacji SAN
+     * @param move ruch wykonywany na planszy move.getBoard()
+     * @param boardAfterMove plansza po ruchu lub null, gdy oznaczenie szachu i mata ma byc pominiete
+     * @param output bufor, do ktorego dopisywany jest zapis
+     * @return zwraca podany bufor
+     */
+    public StringBuilder appendSAN(final Move move,
+                                   final Board boardAfterMove,
+                                   final StringBuilder output) {
+        if (move.isCastlingMove()) {
+            output.append(move.getDestinationCoordinate() % BoardUtils.NUM_TILES_PER_ROW == 6 ? "O-O" : "O-O-O");
+        } else {
+            final Piece movedPiece = move.getMovedPiece();
+            final int from = move.getCurrentCoordinate();
+            final int to = move.getDestinationCoordinate();
+            if (movedPiece.getPieceType().isPawn()) {
+                if (move.isAttack()) {
+                    output.append(FILES[from & 7]).append('x');
+                }
+                appendSquare(to, output);
+                final Piece promotionPiece = move.getPromotionPiece();
+                if (promotionPiece != null) {
+                    output.append('=').append(promotionPiece.getPieceType());
+                }
+            } else {
+                output.append(movedPiece.getPieceType());
+                appendDisambiguation(move, output);
+                if (move.isAttack()) {
+                    output.append('x');
+                }
+                appendSquare(to, output);
+            }
+        }
+        if (boardAfterMove != null && boardAfterMove.currentPlayer().isInCheck()) {
+            output.append(boardAfterMove.currentPlayer().isInCheckMate() ? '#' : '+');
+        }
+        return output;
+    }
+
+    /**
+     * Metoda zwracajaca ruch w notacji SAN
+     * @param move ruch
+     * @param boardAfterMove plansza po ruchu lub null, gdy oznaczenie szachu i mata ma byc pominiete
+     * @return zwraca zapis ruchu
+     */
+    public String toSAN(final Move move,
+                        final Board boardAfterMove) {
+        return appendSAN(move, boardAfterMove, new StringBuilder(8)).toString();
+    }
+
+    /**
+     * Metoda dopisujaca rozroznienie ruchu: kolumne, rzad lub cale pole poczatkowe, gdy inny pionek tego samego rodzaju
+     * moze zgodnie z zasadami przejsc na to samo pole
+     * @param move ruch figury (nie piona i nie roszada)
+     * @param output bufor, do ktorego dopisywany jest zapis
+     */
+    void appendDisambiguation(final Move move,
+                              final StringBuilder output) {
+        final long others = competingPieces(move);
+        if (others == 0L) {
+            return;
+        }
+        final int from = move.getCurrentCoordinate();
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (long remaining = others; remaining != 0L; remaining &= remaining - 1) {
+            final int square = Long.numberOfTrailingZeros(remaining);
+            sameFile |= (square & 7) == (from & 7);
+            sameRank |= (square >>> 3) == (from >>> 3);
+        }
+        if (!sameFile) {
+            output.append(FILES[from & 7]);
+        } else if (!sameRank) {
+            output.append(RANKS[from >>> 3]);
+        } else {
+            appendSquare(from, output);
+        }
+    }
+
+    /**
+     * Metoda wyznaczajaca maske innych pionkow gracza tego samego rodzaju, ktore moga legalnie przejsc na pole docelowe ruchu
+     */
+    private static long competingPieces(final Move move) {
+        final Board board = move.getBoard();
+        final Piece movedPiece = move.getMovedPiece();
+        final PieceType pieceType = movedPiece.getPieceType();
+        final Alliance alliance = movedPiece.getPieceAllegiance();
+        final int from = move.getCurrentCoordinate();
+        final int to = move.getDestinationCoordinate();
+        long candidates = 0L;
+        long occupied = 0L;
+        int kingSquare = -1;
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            final Piece piece = board.getPiece(square);
+            if (piece != null) {
+                occupied |= 1L << square;
+                if (piece.getPieceType().isKing() && piece.getPieceAllegiance() == alliance) {
+                    kingSquare = square;
+                }
+                if (square != from && piece.getPieceType() == pieceType && piece.getPieceAllegiance() == alliance) {
+                    candidates |= 1L << square;
+                }
+            }
+        }
+        candidates &= BitBoards.attacks(pieceType, alliance, to, occupied);
+        long legal = 0L;
+        for (long remaining = candidates; remaining != 0L; remaining &= remaining - 1) {
+            final int square = Long.numberOfTrailingZeros(remaining);
+            if (!leavesKingInCheck(board, alliance, kingSquare, square, to, occupied)) {
+                legal |= 1L << square;
+            }
+        }
+        return legal;
+    }
+
+    /**
+     * Metoda sprawdzajaca czy przejscie pionka z pola from na pole to zostawia wlasnego krola w szachu
+     */
+    private static boolean leavesKingInCheck(final Board board,
+                                             final Alliance alliance,
+                                             final int kingSquare,
+                                             final int from,
+                                             final int to,
+                                             final long occupied) {
+        final long occupiedAfter = (occupied & ~(1L << from)) | (1L << to);
+        final long kingMask = 1L << kingSquare;
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            final Piece piece = board.getPiece(square);
+            if (piece != null && square != to && piece.getPieceAllegiance() != alliance &&
+                (BitBoards.attacks(piece.getPieceType(), piece.getPieceAllegiance(), square, occupiedAfter) & kingMask) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void appendSquare(final int square,
+                                     final StringBuilder output) {
+        output.append(FILES[square & 7]).append(RANKS[square >>> 3]);
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.King;
+import com.chess.engine.pieces.Piece;
+
+/**
+ * Enum wyliczajace 64-bitowy klucz pozycji w ukladzie zgodnym z formatem Polyglot
+ * (781 losowych wartosci: 768 dla pionkow na polach, 4 dla roszad, 8 dla kolumny EnPassant i 1 dla ruchu bialych).
+ * Wartosci pochodza z kanonicznej tablicy Random64, wiec klucze zgadzaja sie z kluczami ksiazek otwarc Polyglot.
+ */
+public enum Zobrist {
+
+    INSTANCE;
+
+    public static final int CASTLE_OFFSET = 768;
+    public static final int EN_PASSANT_OFFSET = 772;
+    public static final int TURN_OFFSET = 780;
+    public static final int NUM_KEYS = 781;
+
+    private final long[] RANDOM = PolyglotRandom.values();
+
+    /**
+     * Metoda wyliczajaca klucz pozycji dla podanej planszy
+     * @param board plansza, dla ktorej liczony jest klucz
+     * @return zwraca 64-bitowy klucz pozycji
+     */
+    public long hash(final Board board) {
+        long key = 0L;
+        for (final Piece piece : board.getWhitePieces()) {
+            key ^= this.RANDOM[pieceIndex(piece.getPieceType().ordinal(), piece.getPieceAllegiance(), piece.getPiecePosition())];
+        }
+        for (final Piece piece : board.getBlackPieces()) {
+            key ^= this.RANDOM[pieceIndex(piece.getPieceType().ordinal(), piece.getPieceAllegiance(), piece.getPiecePosition())];
+        }
+        final int castleRights = castleRights(board);
+        for (int i = 0; i < 4; i++) {
+            if ((castleRights & (1 << i)) != 0) {
+                key ^= this.RANDOM[CASTLE_OFFSET + i];
+            }
+        }
+        final int enPassantFile = enPassantFile(board);
+        if (enPassantFile >= 0) {
+            key ^= this.RANDOM[EN_PASSANT_OFFSET + enPassantFile];
+        }
+        if (board.currentPlayer().getAlliance().isWhite()) {
+            key ^= this.RANDOM[TURN_OFFSET];
+        }
+        return key;
+    }
+
+    /**
+     * Metoda zwracajaca losowa wartosc klucza o podanym indeksie
+     * @param index indeks z przedzialu 0 - 780
+     * @return zwraca losowa wartosc klucza
+     */
+    public long getKey(final int index) {
+        return this.RANDOM[index];
+    }
+
+    /**
+     * Metoda wyznaczajaca indeks klucza dla pionka stojacego na polu (kolejnosc rodzajow jak w Polyglot: czarny, bialy)
+     * @param pieceTypeOrdinal numer rodzaju pionka (kolejnosc PieceType)
+     * @param alliance kolor pionka
+     * @param coordinate pole na planszy (0 = a8, 63 = h1)
+     * @return zwraca indeks klucza
+     */
+    public static int pieceIndex(final int pieceTypeOrdinal,
+                                 final Alliance alliance,
+                                 final int coordinate) {
+        final int kind = 2 * pieceTypeOrdinal + (alliance.isWhite() ? 1 : 0);
+        return 64 * kind + 8 * (7 - coordinate / BoardUtils.NUM_TILES_PER_ROW) + coordinate % BoardUtils.NUM_TILES_PER_ROW;
+    }
+
+    /**
+     * Metoda wyznaczajaca prawa do roszady na planszy
+     * @param board aktualna plansza
+     * @return zwraca maske bitowa: 1 - biale krotka, 2 - biale dluga, 4 - czarne krotka, 8 - czarne dluga
+     */
+    public static int castleRights(final Board board) {
+        int rights = 0;
+        final King whiteKing = findCastleCapableKing(board, Alliance.WHITE, 60);
+        if (whiteKing != null) {
+            if (whiteKing.isKingSideCastleCapable() && isUnmovedRook(board, 63, Alliance.WHITE)) {
+                rights |= 1;
+            }
+            if (whiteKing.isQueenSideCastleCapable() && isUnmovedRook(board, 56, Alliance.WHITE)) {
+                rights |= 2;
+            }
+        }
+        final King blackKing = findCastleCapableKing(board, Alliance.BLACK, 4);
+        if (blackKing != null) {
+            if (blackKing.isKingSideCastleCapable() && isUnmovedRook(board, 7, Alliance.BLACK)) {
+                rights |= 4;
+            }
+            if (blackKing.isQueenSideCastleCapable() && isUnmovedRook(board, 0, Alliance.BLACK)) {
+                rights |= 8;
+            }
+        }
+        return rights;
+    }
+
+    /**
+     * Metoda wyznaczajaca kolumne EnPassant - tylko gdy pionek gracza wykonujacego ruch moze faktycznie bic w przelocie
+     * @param board aktualna plansza
+     * @return zwraca numer kolumny (0 - 7) lub -1 gdy bicie w przelocie nie jest mozliwe
+     */
+    public static int enPassantFile(final Board board) {
+        final Piece enPassantPawn = board.getEnPassantPawn();
+        if (enPassantPawn == null || enPassantPawn.getPieceAllegiance() == board.currentPlayer().getAlliance()) {
+            return -1;
+        }
+        final int position = enPassantPawn.getPiecePosition();
+        final int file = position % BoardUtils.NUM_TILES_PER_ROW;
+        if ((file > 0 && isCapturingPawn(board, position - 1)) ||
+            (file < 7 && isCapturingPawn(board, position + 1))) {
+            return file;
+        }
+        return -1;
+    }
+
+    private static boolean isCapturingPawn(final Board board,
+                                           final int coordinate) {
+        final Piece piece = board.getPiece(coordinate);
+        return piece != null && piece.getPieceType().isPawn() &&
+               piece.getPieceAllegiance() == board.currentPlayer().getAlliance();
+    }
+
+    private static King findCastleCapableKing(final Board board,
+                                              final Alliance alliance,
+                                              final int homeSquare) {
+        final Piece piece = board.getPiece(homeSquare);
+        if (piece != null && piece.getPieceType().isKing() && piece.getPieceAllegiance() == alliance &&
+            piece.isFirstMove()) {
+            return (King) piece;
+        }
+        return null;
+    }
+
+    private static boolean isUnmovedRook(final Board board,
+                                         final int coordinate,
+                                         final Alliance alliance) {
+        final Piece piece = board.getPiece(coordinate);
+        return piece != null && piece.getPieceType().isRook() && piece.getPieceAllegiance() == alliance &&
+               piece.isFirstMove();
+    }
+
+}
@@ -0,0 +1,158 @@
+package com.chess.engine.endgame;
+
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Klasa przechowujaca baze koncowki w postaci upakowanej tablicy bitow. Silniejsza strona jest zawsze biala
+ * (pozycje z silniejszymi czarnymi sa odbijane przy odczycie), a slabsza strona ma samego krola.
+ * Bit ustawiony oznacza wygrana silniejszej strony, bit wyzerowany - remis lub pozycje niepoprawna.
+ * Indeks pozycji: (strona na ruchu, krol silniejszy, krol slabszy, kolejne pionki silniejszego) po 6 bitow na pole.
+ */
+public final class Bitbase {
+
+    public static final int STRONG_TO_MOVE = 0;
+    public static final int WEAK_TO_MOVE = 1;
+
+    private static final int MAGIC = 0x4A434242;
+    private static final int VERSION = 1;
+
+    private final String name;
+    private final PieceType[] strongPieces;
+    private final long[] wins;
+
+    Bitbase(final String name,
+            final PieceType[] strongPieces,
+            final long[] wins) {
+        this.name = name;
+        this.strongPieces = strongPieces.clone();
+        this.wins = wins;
+    }
+
+    /**
+     * Metoda zwracajaca nazwe koncowki
+     * @return zwraca nazwe koncowki, np. "KBNK"
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Metoda zwracajaca pionki silniejszej strony (poza krolem) w kolejnosci uzywanej w indeksie
+     * @return zwraca tablice rodzajow pionkow
+     */
+    public PieceType[] getStrongPieces() {
+        return this.strongPieces.clone();
+    }
+
+    /**
+     * Metoda zwracajaca liczbe pol w indeksie pozycji (dwa krole i pionki silniejszej strony)
+     * @return zwraca liczbe pol
+     */
+    public int getSquareCount() {
+        return this.strongPieces.length + 2;
+    }
+
+    /**
+     * Metoda sprawdzajaca czy pozycja jest wygrana dla silniejszej strony
+     * @param sideToMove STRONG_TO_MOVE lub WEAK_TO_MOVE
+     * @param squares pola: krol silniejszy, krol slabszy, pionki silniejszego (silniejszy gra bialymi)
+     * @return zwraca prawde dla wygranej silniejszej strony
+     */
+    public boolean isWin(final int sideToMove,
+                         final int[] squares) {
+        final long index = index(sideToMove, squares, squares.length);
+        return (this.wins[(int) (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    /**
+     * Metoda zwracajaca liczbe wygranych pozycji w bazie
+     * @return zwraca liczbe ustawionych bitow
+     */
+    public long countWins() {
+        long count = 0;
+        for (final long word : this.wins) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Metoda zapisujaca baze do pliku
+     * @param file plik docelowy
+     * @throws IOException w przypadku bledu zapisu
+     */
+    public void save(final File file) throws IOException {
+        try (final DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeUTF(this.name);
+            output.writeInt(this.strongPieces.length);
+            for (final PieceType pieceType : this.strongPieces) {
+                output.writeByte(pieceType.ordinal());
+            }
+            output.writeInt(this.wins.length);
+            for (final long word : this.wins) {
+                output.writeLong(word);
+            }
+        }
+    }
+
+    /**
+     * Metoda wczytujaca baze z pliku
+     * @param file plik z zapisana baza
+     * @return zwraca wczytana baze
+     * @throws IOException w przypadku bledu odczytu lub niepoprawnego pliku
+     */
+    public static Bitbase load(final File file) throws IOException {
+        try (final DataInputStream input = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException("Not a bitbase file: " + file);
+            }
+            final String name = input.readUTF();
+            final PieceType[] strongPieces = new PieceType[input.readInt()];
+            for (int i = 0; i < strongPieces.length; i++) {
+                strongPieces[i] = PieceType.values()[input.readByte()];
+            }
+            final long[] wins = new long[input.readInt()];
+            if (wins.length != wordCount(strongPieces.length + 2)) {
+                throw new IOException("Corrupted bitbase file: " + file);
+            }
+            for (int i = 0; i < wins.length; i++) {
+                wins[i] = input.readLong();
+            }
+            return new Bitbase(name, strongPieces, wins);
+        }
+    }
+
+    static long index(final int sideToMove,
+                      final int[] squares,
+                      final int count) {
+        long index = sideToMove;
+        for (int i = 0; i < count; i++) {
+            index = (index << 6) | squares[i];
+        }
+        return index;
+    }
+
+    static int wordCount(final int squareCount) {
+        return (int) ((2L << (6 * squareCount)) >>> 6);
+    }
+
+    @Override
+    public String toString() {
+        return this.name + Arrays.toString(this.strongPieces);
+    }
+
+}
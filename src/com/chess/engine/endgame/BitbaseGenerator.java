@@ -0,0 +1,361 @@
+package com.chess.engine.endgame;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoards;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.stream.IntStream;
+
+/**
+ * Klasa generujaca bazy koncowek analiza wsteczna. Najpierw oznaczane sa pozycje matowe, a nastepnie, warstwa po warstwie,
+ * dla nowo wygranych pozycji generowane sa ruchy wsteczne: poprzednik z ruchem silniejszego jest wygrany od razu,
+ * a poprzednik z ruchem slabszego - gdy wszystkie jego ruchy prowadza do wygranej. Kazda warstwa jest przetwarzana
+ * rownolegle na wszystkich rdzeniach (ustawianie bitow atomowe).
+ * Pola sa numerowane jak na planszy (0 = a8, 63 = h1), silniejsza strona gra bialymi.
+ */
+final class BitbaseGenerator {
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int WORDS_PER_TASK = 256;
+
+
+    private final String name;
+    private final PieceType[] strongPieces;
+    private final int squareCount;
+    private final long[] wins;
+    private final Bitbase queenPromotions;
+    private final Bitbase rookPromotions;
+
+    /**
+     * Konstruktor generatora
+     * @param name nazwa koncowki
+     * @param strongPieces pionki silniejszej strony poza krolem
+     * @param queenPromotions baza KQK (wymagana tylko gdy silniejsza strona ma pionka)
+     * @param rookPromotions baza KRK (wymagana tylko gdy silniejsza strona ma pionka)
+     */
+    BitbaseGenerator(final String name,
+                     final PieceType[] strongPieces,
+                     final Bitbase queenPromotions,
+                     final Bitbase rookPromotions) {
+        this.name = name;
+        this.strongPieces = strongPieces.clone();
+        this.squareCount = strongPieces.length + 2;
+        this.wins = new long[Bitbase.wordCount(this.squareCount)];
+        this.queenPromotions = queenPromotions;
+        this.rookPromotions = rookPromotions;
+    }
+
+    /**
+     * Metoda generujaca baze
+     * @return zwraca wygenerowana baze
+     */
+    Bitbase generate() {
+        final int words = this.wins.length;
+        final int half = words / 2;
+        long[] weakFrontier = new long[words];
+        long[] strongFrontier = new long[words];
+        final long[] weakSeeds = weakFrontier;
+        final long[] strongSeeds = strongFrontier;
+        parallelWords(half, words, (start, end) -> seedMates(start, end, weakSeeds));
+        if (hasPawn()) {
+            parallelWords(0, half, (start, end) -> seedPromotions(start, end, strongSeeds));
+        }
+        while (true) {
+            final long[] fromWeak = weakFrontier;
+            final long[] nextStrong = strongFrontier;
+            parallelWords(half, words, (start, end) -> retractStrongMoves(start, end, fromWeak, nextStrong));
+            if (isEmpty(nextStrong)) {
+                break;
+            }
+            final long[] nextWeak = new long[words];
+            parallelWords(0, half, (start, end) -> retractWeakMoves(start, end, nextStrong, nextWeak));
+            if (isEmpty(nextWeak)) {
+                break;
+            }
+            weakFrontier = nextWeak;
+            strongFrontier = new long[words];
+        }
+        return new Bitbase(this.name, this.strongPieces, this.wins);
+    }
+
+    private interface WordRange {
+        void process(int start, int end);
+    }
+
+    private static void parallelWords(final int from,
+                                      final int to,
+                                      final WordRange range) {
+        final int tasks = (to - from + WORDS_PER_TASK - 1) / WORDS_PER_TASK;
+        IntStream.range(0, tasks).parallel().forEach(task -> {
+            final int start = from + task * WORDS_PER_TASK;
+            range.process(start, Math.min(to, start + WORDS_PER_TASK));
+        });
+    }
+
+    /**
+     * Metoda oznaczajaca pozycje, w ktorych slabsza strona jest zamatowana
+     */
+    private void seedMates(final int start,
+                           final int end,
+                           final long[] frontier) {
+        final int[] squares = new int[this.squareCount];
+        for (int word = start; word < end; word++) {
+            for (int bit = 0; bit < 64; bit++) {
+                final long index = ((long) word << 6) | bit;
+                decode(index, squares);
+                if (isLegal(Bitbase.WEAK_TO_MOVE, squares) && isMate(squares)) {
+                    setBit(this.wins, index);
+                    setBit(frontier, index);
+                }
+            }
+        }
+    }
+
+    /**
+     * Metoda oznaczajaca pozycje, w ktorych silniejsza strona wygrywa od razu przez promocje pionka
+     */
+    private void seedPromotions(final int start,
+                                final int end,
+                                final long[] frontier) {
+        final int[] squares = new int[this.squareCount];
+        final int[] promoted = new int[3];
+        for (int word = start; word < end; word++) {
+            for (int bit = 0; bit < 64; bit++) {
+                final long index = ((long) word << 6) | bit;
+                decode(index, squares);
+                if (!isLegal(Bitbase.STRONG_TO_MOVE, squares)) {
+                    continue;
+                }
+                for (int i = 2; i < this.squareCount; i++) {
+                    final int target = squares[i] - 8;
+                    if (this.strongPieces[i - 2] == PieceType.PAWN && target >= 0 && target < 8 &&
+                        (occupancy(squares) & (1L << target)) == 0) {
+                        promoted[0] = squares[0];
+                        promoted[1] = squares[1];
+                        promoted[2] = target;
+                        if (this.queenPromotions.isWin(Bitbase.WEAK_TO_MOVE, promoted) ||
+                            this.rookPromotions.isWin(Bitbase.WEAK_TO_MOVE, promoted)) {
+                            setBit(this.wins, index);
+                            setBit(frontier, index);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Metoda cofajaca ruchy silniejszej strony z nowo wygranych pozycji slabszej strony - kazdy poprawny poprzednik jest wygrany
+     */
+    private void retractStrongMoves(final int start,
+                                    final int end,
+                                    final long[] frontier,
+                                    final long[] next) {
+        final int[] squares = new int[this.squareCount];
+        for (int word = start; word < end; word++) {
+            long bits = frontier[word];
+            while (bits != 0) {
+                final long index = ((long) word << 6) | Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                decode(index, squares);
+                final long occupied = occupancy(squares);
+                for (int i = 0; i < this.squareCount; i++) {
+                    if (i == 1) {
+                        continue;
+                    }
+                    final int square = squares[i];
+                    long origins;
+                    if (i == 0) {
+                        origins = BitBoards.kingAttacks(square) & ~occupied & ~BitBoards.kingAttacks(squares[1]);
+                    } else if (this.strongPieces[i - 2] == PieceType.PAWN) {
+                        origins = pawnOrigins(square, occupied);
+                    } else {
+                        origins = BitBoards.attacks(this.strongPieces[i - 2], Alliance.WHITE, square, occupied & ~(1L << square)) & ~occupied;
+                    }
+                    while (origins != 0) {
+                        final int origin = Long.numberOfTrailingZeros(origins);
+                        origins &= origins - 1;
+                        squares[i] = origin;
+                        if (isLegal(Bitbase.STRONG_TO_MOVE, squares)) {
+                            final long predecessor = Bitbase.index(Bitbase.STRONG_TO_MOVE, squares, this.squareCount);
+                            if (setBit(this.wins, predecessor)) {
+                                setBit(next, predecessor);
+                            }
+                        }
+                    }
+                    squares[i] = square;
+                }
+            }
+        }
+    }
+
+    /**
+     * Metoda cofajaca ruchy krola slabszej strony z nowo wygranych pozycji silniejszej strony.
+     * Poprzednik jest wygrany gdy wszystkie jego ruchy prowadza do wygranych pozycji.
+     */
+    private void retractWeakMoves(final int start,
+                                  final int end,
+                                  final long[] frontier,
+                                  final long[] next) {
+        final int[] squares = new int[this.squareCount];
+        for (int word = start; word < end; word++) {
+            long bits = frontier[word];
+            while (bits != 0) {
+                final long index = ((long) word << 6) | Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                decode(index, squares);
+                final int weakKing = squares[1];
+                long origins = BitBoards.kingAttacks(weakKing) & ~occupancy(squares) & ~BitBoards.kingAttacks(squares[0]);
+                while (origins != 0) {
+                    squares[1] = Long.numberOfTrailingZeros(origins);
+                    origins &= origins - 1;
+                    final long predecessor = Bitbase.index(Bitbase.WEAK_TO_MOVE, squares, this.squareCount);
+                    if (!getBit(this.wins, predecessor) && isLegal(Bitbase.WEAK_TO_MOVE, squares) &&
+                        allWeakMovesLose(squares)) {
+                        if (setBit(this.wins, predecessor)) {
+                            setBit(next, predecessor);
+                        }
+                    }
+                }
+                squares[1] = weakKing;
+            }
+        }
+    }
+
+    private boolean isMate(final int[] squares) {
+        final long attacked = strongAttacks(squares);
+        return (attacked & (1L << squares[1])) != 0 && weakKingMoves(squares, attacked) == 0;
+    }
+
+    /**
+     * Metoda sprawdzajaca czy kazdy ruch slabszej strony prowadzi do pozycji wygranej (bicie zawsze prowadzi do remisu)
+     */
+    private boolean allWeakMovesLose(final int[] squares) {
+        final long attacked = strongAttacks(squares);
+        long moves = weakKingMoves(squares, attacked);
+        if (moves == 0) {
+            return (attacked & (1L << squares[1])) != 0;
+        }
+        final long strongOccupied = occupancy(squares) & ~(1L << squares[1]);
+        final int weakKing = squares[1];
+        boolean allLose = true;
+        while (moves != 0 && allLose) {
+            final int target = Long.numberOfTrailingZeros(moves);
+            moves &= moves - 1;
+            if ((strongOccupied & (1L << target)) != 0) {
+                allLose = false;
+            } else {
+                squares[1] = target;
+                allLose = getBit(this.wins, Bitbase.index(Bitbase.STRONG_TO_MOVE, squares, this.squareCount));
+            }
+        }
+        squares[1] = weakKing;
+        return allLose;
+    }
+
+    private long weakKingMoves(final int[] squares,
+                               final long attacked) {
+        return BitBoards.kingAttacks(squares[1]) & ~attacked;
+    }
+
+    /**
+     * Metoda wyznaczajaca pola atakowane przez silniejsza strone, z pominieciem krola slabszej strony jako przeszkody
+     */
+    private long strongAttacks(final int[] squares) {
+        final long occupied = occupancy(squares) & ~(1L << squares[1]);
+        long attacked = BitBoards.kingAttacks(squares[0]);
+        for (int i = 2; i < this.squareCount; i++) {
+            attacked |= BitBoards.attacks(this.strongPieces[i - 2], Alliance.WHITE, squares[i], occupied);
+        }
+        return attacked;
+    }
+
+    private boolean isLegal(final int sideToMove,
+                            final int[] squares) {
+        final long occupied = occupancy(squares);
+        if (Long.bitCount(occupied) != this.squareCount || (BitBoards.kingAttacks(squares[0]) & (1L << squares[1])) != 0) {
+            return false;
+        }
+        for (int i = 2; i < this.squareCount; i++) {
+            if (this.strongPieces[i - 2] == PieceType.PAWN && (squares[i] < 8 || squares[i] >= 56)) {
+                return false;
+            }
+        }
+        if (sideToMove == Bitbase.STRONG_TO_MOVE) {
+            for (int i = 2; i < this.squareCount; i++) {
+                if ((BitBoards.attacks(this.strongPieces[i - 2], Alliance.WHITE, squares[i], occupied) & (1L << squares[1])) != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean hasPawn() {
+        for (final PieceType pieceType : this.strongPieces) {
+            if (pieceType == PieceType.PAWN) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void decode(final long index,
+                        final int[] squares) {
+        for (int i = this.squareCount - 1; i >= 0; i--) {
+            squares[i] = (int) ((index >>> (6 * (this.squareCount - 1 - i))) & 63);
+        }
+    }
+
+    private static long occupancy(final int[] squares) {
+        long occupied = 0L;
+        for (final int square : squares) {
+            occupied |= 1L << square;
+        }
+        return occupied;
+    }
+
+    /**
+     * Metoda wyznaczajaca pola, z ktorych bialy pionek mogl przyjsc na podane pole (bez bicia)
+     */
+    private static long pawnOrigins(final int square,
+                                    final long occupied) {
+        long origins = 0L;
+        final int single = square + 8;
+        if (single < 56 && (occupied & (1L << single)) == 0) {
+            origins |= 1L << single;
+            final int jump = square + 16;
+            if (square >= 32 && square < 40 && (occupied & (1L << jump)) == 0) {
+                origins |= 1L << jump;
+            }
+        }
+        return origins;
+    }
+
+    private static boolean getBit(final long[] bits,
+                                  final long index) {
+        return (bits[(int) (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    /**
+     * Metoda atomowo ustawiajaca bit
+     * @return zwraca prawde gdy bit nie byl wczesniej ustawiony
+     */
+    private static boolean setBit(final long[] bits,
+                                  final long index) {
+        final long mask = 1L << index;
+        return ((long) LONGS.getAndBitwiseOr(bits, (int) (index >>> 6), mask) & mask) == 0;
+    }
+
+    private static boolean isEmpty(final long[] bits) {
+        for (final long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.chess.engine.endgame;
+
+/**
+ * Enum przechowujace wynik pozycji odczytany z bazy koncowek, z punktu widzenia gracza wykonujacego ruch
+ */
+public enum BitbaseResult {
+
+    WIN {
+        @Override
+        public boolean isWin() {
+            return true;
+        }
+
+        @Override
+        public boolean isDraw() {
+            return false;
+        }
+
+        @Override
+        public boolean isLoss() {
+            return false;
+        }
+    },
+    DRAW {
+        @Override
+        public boolean isWin() {
+            return false;
+        }
+
+        @Override
+        public boolean isDraw() {
+            return true;
+        }
+
+        @Override
+        public boolean isLoss() {
+            return false;
+        }
+    },
+    LOSS {
+        @Override
+        public boolean isWin() {
+            return false;
+        }
+
+        @Override
+        public boolean isDraw() {
+            return false;
+        }
+
+        @Override
+        public boolean isLoss() {
+            return true;
+        }
+    };
+
+    public abstract boolean isWin();
+
+    public abstract boolean isDraw();
+
+    public abstract boolean isLoss();
+
+}
@@ -0,0 +1,136 @@
+package com.chess.engine.endgame;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Enum przechowujace bazy koncowek KPK, KRK, KQK oraz KBNK. Bazy sa wczytywane z dysku lub generowane w tle
+ * i zapisywane do ponownego uzycia. Do czasu ich przygotowania sondowanie zwraca null.
+ */
+public enum Bitbases {
+
+    INSTANCE;
+
+    public static final File DEFAULT_DIRECTORY = new File(System.getProperty("user.home"), ".jchess" + File.separator + "bitbases");
+
+    private final Map<String, Bitbase> bitbases = new ConcurrentHashMap<>();
+    private volatile CompletableFuture<Void> initialization;
+
+    /**
+     * Metoda uruchamiajaca w tle wczytanie lub wygenerowanie wszystkich baz
+     * @param directory katalog, w ktorym bazy sa przechowywane
+     * @return zwraca obiekt konczacy sie po przygotowaniu wszystkich baz
+     */
+    public synchronized CompletableFuture<Void> initialize(final File directory) {
+        if (this.initialization == null) {
+            this.initialization = CompletableFuture.runAsync(() -> {
+                final Bitbase kqk = prepare(directory, "KQK", new PieceType[]{PieceType.QUEEN}, null, null);
+                final Bitbase krk = prepare(directory, "KRK", new PieceType[]{PieceType.ROOK}, null, null);
+                prepare(directory, "KBNK", new PieceType[]{PieceType.BISHOP, PieceType.KNIGHT}, null, null);
+                prepare(directory, "KPK", new PieceType[]{PieceType.PAWN}, kqk, krk);
+            });
+        }
+        return this.initialization;
+    }
+
+    /**
+     * Metoda zwracajaca baze o podanej nazwie
+     * @param name nazwa koncowki, np. "KPK"
+     * @return zwraca baze lub null gdy nie jest jeszcze dostepna
+     */
+    public Bitbase getBitbase(final String name) {
+        return this.bitbases.get(name);
+    }
+
+    /**
+     * Metoda odczytujaca wynik pozycji z bazy koncowek
+     * @param board aktualna plansza
+     * @return zwraca wynik z punktu widzenia gracza wykonujacego ruch lub null, gdy dla pozycji nie ma bazy
+     */
+    public BitbaseResult probe(final Board board) {
+        final Collection<Piece> whitePieces = board.getWhitePieces();
+        final Collection<Piece> blackPieces = board.getBlackPieces();
+        if (this.bitbases.isEmpty() || (whitePieces.size() != 1 && blackPieces.size() != 1) ||
+            whitePieces.size() + blackPieces.size() > 4 || whitePieces.size() + blackPieces.size() < 3) {
+            return null;
+        }
+        final Alliance strongSide = whitePieces.size() > 1 ? Alliance.WHITE : Alliance.BLACK;
+        final Collection<Piece> strongPieces = strongSide.isWhite() ? whitePieces : blackPieces;
+        final Collection<Piece> weakPieces = strongSide.isWhite() ? blackPieces : whitePieces;
+        final Bitbase bitbase = this.bitbases.get(materialName(strongPieces));
+        if (bitbase == null) {
+            return null;
+        }
+        final PieceType[] order = bitbase.getStrongPieces();
+        final int[] squares = new int[bitbase.getSquareCount()];
+        final int mirror = strongSide.isWhite() ? 0 : 56;
+        squares[1] = weakPieces.iterator().next().getPiecePosition() ^ mirror;
+        for (final Piece piece : strongPieces) {
+            if (piece.getPieceType().isKing()) {
+                squares[0] = piece.getPiecePosition() ^ mirror;
+            } else {
+                for (int i = 0; i < order.length; i++) {
+                    if (order[i] == piece.getPieceType()) {
+                        squares[i + 2] = piece.getPiecePosition() ^ mirror;
+                    }
+                }
+            }
+        }
+        final boolean strongToMove = board.currentPlayer().getAlliance() == strongSide;
+        if (!bitbase.isWin(strongToMove ? Bitbase.STRONG_TO_MOVE : Bitbase.WEAK_TO_MOVE, squares)) {
+            return BitbaseResult.DRAW;
+        }
+        return strongToMove ? BitbaseResult.WIN : BitbaseResult.LOSS;
+    }
+
+    private Bitbase prepare(final File directory,
+                            final String name,
+                            final PieceType[] strongPieces,
+                            final Bitbase queenPromotions,
+                            final Bitbase rookPromotions) {
+        final File file = new File(directory, name.toLowerCase() + ".bb");
+        Bitbase bitbase = null;
+        if (file.isFile()) {
+            try {
+                bitbase = Bitbase.load(file);
+            } catch (final IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (bitbase == null) {
+            bitbase = new BitbaseGenerator(name, strongPieces, queenPromotions, rookPromotions).generate();
+            try {
+                if (directory.isDirectory() || directory.mkdirs()) {
+                    bitbase.save(file);
+                }
+            } catch (final IOException e) {
+                e.printStackTrace();
+            }
+        }
+        this.bitbases.put(name, bitbase);
+        return bitbase;
+    }
+
+    private static String materialName(final Collection<Piece> strongPieces) {
+        final StringBuilder name = new StringBuilder("K");
+        for (final PieceType pieceType : new PieceType[]{PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP,
+                                                         PieceType.KNIGHT, PieceType.PAWN}) {
+            for (final Piece piece : strongPieces) {
+                if (piece.getPieceType() == pieceType) {
+                    name.append(pieceType);
+                }
+            }
+        }
+        return name.append('K').toString();
+    }
+
+}
@@ -36,6 +36,14 @@ public abstract class Player {
         this.legalMoves = Collections.unmodifiableCollection(playerLegals);
     }
 
+    /**
+     * Metoda zwracajaca krola gracza
+     * @return zwraca krola gracza
+     */
+    public King getPlayerKing() {
+        return this.playerKing;
+    }
+
     /**
      * Metoda zwracajaca wartosc prawda lub falsz dla mozliwosci zbicia krola (Szach)
      * @return aktualna wartosc parametru isInCheck
@@ -0,0 +1,449 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.Move.MoveFactory;
+import com.chess.engine.endgame.BitbaseResult;
+import com.chess.engine.endgame.Bitbases;
+import com.chess.pgn.PGNUtilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Klasa przeszukujaca drzewo gry algorytmem alfa-beta (negamax) z iteracyjnym poglebianiem, tablica transpozycji,
+ * przeszukiwaniem stabilizujacym (bicia) oraz sondowaniem baz koncowek.
+ * Powtorzenie pozycji i zasada 50 ruchow sa oceniane jako remis. Przeszukiwanie moze byc ograniczone glebokoscia,
+ * liczba wezlow, czasem lub przerwane metoda stop(). Obiekt nie jest bezpieczny watkowo - kazdy watek powinien miec wlasna instancje.
+ */
+public final class AlphaBeta implements MoveStrategy {
+
+    static final int MATE_SCORE = 30000;
+    static final int MAX_PLY = 128;
+    static final int KNOWN_WIN = 20000;
+    private static final int MAX_KNOWN_WIN_PROGRESS = 5000;
+    private static final int INFINITY = 32000;
+    private static final int EXACT = 0;
+    private static final int LOWER_BOUND = 1;
+    private static final int UPPER_BOUND = 2;
+    private static final int ENTRY_BYTES = 16;
+
+    private final BoardEvaluator evaluator;
+    private final int defaultDepth;
+    private final long[] keys;
+    private final long[] entries;
+    private final int mask;
+    private volatile boolean stopped;
+    private Consumer<SearchResult> listener;
+    private long nodes;
+    private long nodeLimit;
+    private volatile long deadline;
+
+    /**
+     * Konstruktor tworzacy przeszukiwanie ze standardowa funkcja oceny i tablica transpozycji 16 MB
+     * @param defaultDepth glebokosc uzywana przez execute()
+     */
+    public AlphaBeta(final int defaultDepth) {
+        this(StandardBoardEvaluator.INSTANCE, defaultDepth, 16);
+    }
+
+    /**
+     * Konstruktor tworzacy przeszukiwanie
+     * @param evaluator funkcja oceny
+     * @param defaultDepth glebokosc uzywana przez execute()
+     * @param hashMegabytes rozmiar tablicy transpozycji w megabajtach
+     */
+    public AlphaBeta(final BoardEvaluator evaluator,
+                     final int defaultDepth,
+                     final int hashMegabytes) {
+        this.evaluator = evaluator;
+        this.defaultDepth = defaultDepth;
+        final long size = Long.highestOneBit(Math.max(1024L, ((long) hashMegabytes << 20) / ENTRY_BYTES));
+        this.keys = new long[(int) Math.min(size, 1 << 28)];
+        this.entries = new long[this.keys.length];
+        this.mask = this.keys.length - 1;
+    }
+
+    @Override
+    public Move execute(final Board board) {
+        final SearchResult result = search(board, this.defaultDepth, Long.MAX_VALUE, 0);
+        return result.getBestMove() != null ? result.getBestMove() : MoveFactory.getNullMove();
+    }
+
+    /**
+     * Metoda ustawiajaca odbiorce wynikow kolejnych iteracji przeszukiwania
+     * @param listener odbiorca wynikow lub null
+     */
+    public void setListener(final Consumer<SearchResult> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Metoda przerywajaca trwajace przeszukiwanie (moze byc wywolana z innego watku)
+     */
+    public void stop() {
+        this.stopped = true;
+    }
+
+    /**
+     * Metoda zmieniajaca limit czasu trwajacego przeszukiwania (moze byc wywolana z innego watku, np. po ponderhit)
+     * @param timeLimitMillis nowy limit liczony od chwili wywolania lub 0 gdy czas nie jest ograniczony
+     */
+    public void setTimeLimit(final long timeLimitMillis) {
+        this.deadline = timeLimitMillis > 0 ? System.nanoTime() + timeLimitMillis * 1_000_000L : Long.MAX_VALUE;
+    }
+
+    /**
+     * Metoda czyszczaca tablice transpozycji (np. przed nowa partia)
+     */
+    public void clear() {
+        Arrays.fill(this.keys, 0L);
+        Arrays.fill(this.entries, 0L);
+    }
+
+    /**
+     * Metoda przygotowujaca kolejne przeszukiwanie: kasuje wczesniejsze stop() i ustawia limit czasu. Wywolana w watku,
+     * ktory zleca przeszukiwanie, zanim przekaze je innemu watkowi, sprawia ze stop() i setTimeLimit() wywolane zaraz
+     * po zleceniu nie zostana nadpisane przy starcie przeszukiwania.
+     * @param timeLimitMillis limit czasu liczony od chwili wywolania lub 0 gdy czas nie jest ograniczony
+     */
+    public void prepare(final long timeLimitMillis) {
+        this.stopped = false;
+        setTimeLimit(timeLimitMillis);
+    }
+
+    /**
+     * Metoda przeszukujaca pozycje
+     * @param board aktualna plansza
+     * @param maxDepth maksymalna glebokosc w polruchach
+     * @param nodeLimit maksymalna liczba wezlow
+     * @param timeLimitMillis limit czasu w milisekundach lub 0 gdy czas nie jest ograniczony
+     * @return zwraca wynik ostatniej ukonczonej iteracji
+     */
+    public SearchResult search(final Board board,
+                               final int maxDepth,
+                               final long nodeLimit,
+                               final long timeLimitMillis) {
+        prepare(timeLimitMillis);
+        return search(board, maxDepth, nodeLimit);
+    }
+
+    /**
+     * Metoda przeszukujaca pozycje z limitem czasu ustawionym wczesniej metoda prepare() - stop() i setTimeLimit()
+     * wywolane po prepare() obowiazuja od poczatku przeszukiwania
+     * @param board aktualna plansza
+     * @param maxDepth maksymalna glebokosc w polruchach
+     * @param nodeLimit maksymalna liczba wezlow
+     * @return zwraca wynik ostatniej ukonczonej iteracji
+     */
+    public SearchResult search(final Board board,
+                               final int maxDepth,
+                               final long nodeLimit) {
+        final long start = System.nanoTime();
+        this.nodes = 0;
+        this.nodeLimit = nodeLimit;
+        final List<Move> rootMoves = new ArrayList<>();
+        final List<Board> rootBoards = new ArrayList<>();
+        for (final Move move : orderMoves(board, 0, false)) {
+            final Board child = move.execute();
+            if (!child.currentPlayer().getOpponent().isInCheck()) {
+                rootMoves.add(move);
+                rootBoards.add(child);
+            }
+        }
+        if (rootMoves.isEmpty()) {
+            final int score = board.currentPlayer().isInCheck() ? -MATE_SCORE : 0;
+            return new SearchResult(null, score, 0, new ArrayList<>(), 0, 0);
+        }
+        SearchResult result = new SearchResult(rootMoves.get(0), 0, 0, new ArrayList<>(), 0, 0);
+        for (int depth = 1; depth <= Math.max(1, maxDepth) && depth < MAX_PLY; depth++) {
+            int alpha = -INFINITY;
+            int bestIndex = -1;
+            for (int i = 0; i < rootMoves.size(); i++) {
+                final int score = -negamax(rootBoards.get(i), depth - 1, -INFINITY, -alpha, 1);
+                if (this.stopped) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    bestIndex = i;
+                }
+            }
+            if (this.stopped && (bestIndex < 0 || result.getDepth() > 0)) {
+                break;
+            }
+            final Move bestMove = rootMoves.remove(bestIndex);
+            rootMoves.add(0, bestMove);
+            rootBoards.add(0, rootBoards.remove(bestIndex));
+            store(board.getZobristHash(), alpha, depth, EXACT, PGNUtilities.encodeMove(bestMove), 0);
+            result = new SearchResult(bestMove, alpha, depth, principalVariation(board, depth), this.nodes,
+                                      (System.nanoTime() - start) / 1_000_000L);
+            if (this.listener != null) {
+                this.listener.accept(result);
+            }
+            if (this.stopped || Math.abs(alpha) >= MATE_SCORE - depth) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private int negamax(final Board board,
+                        int depth,
+                        int alpha,
+                        final int beta,
+                        final int ply) {
+        if ((++this.nodes & 1023) == 0) {
+            checkLimits();
+        }
+        if (this.stopped) {
+            return 0;
+        }
+        if (board.isRepetition() || board.isFiftyMoveRule() || board.isInsufficientMaterial()) {
+            return 0;
+        }
+        if (ply >= MAX_PLY) {
+            return this.evaluator.evaluate(board);
+        }
+        final BitbaseResult bitbaseResult = Bitbases.INSTANCE.probe(board);
+        if (bitbaseResult != null && bitbaseResult.isDraw()) {
+            return 0;
+        }
+        final boolean inCheck = board.currentPlayer().isInCheck();
+        if (depth <= 0) {
+            if (bitbaseResult != null) {
+                return knownResult(board, bitbaseResult, inCheck, ply);
+            }
+            if (!inCheck) {
+                return quiescence(board, alpha, beta, ply);
+            }
+            depth = 1;
+        }
+        final long key = board.getZobristHash();
+        final int slot = slot(key);
+        int hashMove = 0;
+        if (this.keys[slot] == key) {
+            final long entry = this.entries[slot];
+            hashMove = (int) (entry >>> 16) & 0xFFFF;
+            if (((entry >>> 8) & 0xFF) >= depth) {
+                final int score = fromTable((int) (entry >> 32), ply);
+                final int bound = (int) entry & 0x3;
+                if (bound == EXACT || (bound == LOWER_BOUND && score >= beta) || (bound == UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+        final int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = 0;
+        int legalMoves = 0;
+        for (final Move move : orderMoves(board, hashMove, false)) {
+            final Board child = move.execute();
+            if (child.currentPlayer().getOpponent().isInCheck()) {
+                continue;
+            }
+            legalMoves++;
+            final int score = -negamax(child, depth - 1, -beta, -alpha, ply + 1);
+            if (this.stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = PGNUtilities.encodeMove(move);
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (legalMoves == 0) {
+            return inCheck ? ply - MATE_SCORE : 0;
+        }
+        final int bound = best >= beta ? LOWER_BOUND : best > originalAlpha ? EXACT : UPPER_BOUND;
+        store(key, best, depth, bound, bestMove, ply);
+        return best;
+    }
+
+    /**
+     * Metoda oceniajaca lisc w pozycji wygranej lub przegranej wedlug bazy koncowek. Mat i pat sa sprawdzane najpierw, a pozostale
+     * pozycje dostaja KNOWN_WIN powiekszone o ocene statyczna z punktu widzenia silniejszej strony (material, spychanie krola
+     * do krawedzi, zaawansowanie pionka), wiec przeszukiwanie rozroznia ruchy zblizajace do mata lub promocji.
+     */
+    private int knownResult(final Board board,
+                            final BitbaseResult bitbaseResult,
+                            final boolean inCheck,
+                            final int ply) {
+        if (!hasLegalMove(board)) {
+            return inCheck ? ply - MATE_SCORE : 0;
+        }
+        final int evaluation = this.evaluator.evaluate(board);
+        if (bitbaseResult.isWin()) {
+            return KNOWN_WIN + Math.max(0, Math.min(MAX_KNOWN_WIN_PROGRESS, evaluation));
+        }
+        return -KNOWN_WIN - Math.max(0, Math.min(MAX_KNOWN_WIN_PROGRESS, -evaluation));
+    }
+
+    private static boolean hasLegalMove(final Board board) {
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            if (!move.execute().currentPlayer().getOpponent().isInCheck()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int quiescence(final Board board,
+                           int alpha,
+                           final int beta,
+                           final int ply) {
+        if ((++this.nodes & 1023) == 0) {
+            checkLimits();
+        }
+        final int standPat = this.evaluator.evaluate(board);
+        if (this.stopped || ply >= MAX_PLY || standPat >= beta) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+        for (final Move move : orderMoves(board, 0, true)) {
+            final Board child = move.execute();
+            if (child.currentPlayer().getOpponent().isInCheck()) {
+                continue;
+            }
+            final int score = -quiescence(child, -beta, -alpha, ply + 1);
+            if (this.stopped) {
+                return alpha;
+            }
+            if (score >= beta) {
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        return alpha;
+    }
+
+    /**
+     * Metoda porzadkujaca ruchy: najpierw ruch z tablicy transpozycji, potem bicia (najcenniejsza ofiara, najtanszy napastnik),
+     * promocje i pozostale ruchy
+     * @param tacticalOnly gdy prawda, zwracane sa tylko bicia i promocje
+     */
+    private static Move[] orderMoves(final Board board,
+                                     final int hashMove,
+                                     final boolean tacticalOnly) {
+        final Collection<Move> legalMoves = board.currentPlayer().getLegalMoves();
+        final Move[] moves = new Move[legalMoves.size()];
+        final int[] scores = new int[moves.length];
+        int count = 0;
+        for (final Move move : legalMoves) {
+            int score = 0;
+            if (move.isAttack() && move.getAttackedPiece() != null) {
+                score = 10_000 + 10 * move.getAttackedPiece().getPieceValue() - move.getMovedPiece().getPieceValue() / 10;
+            }
+            if (move.getPromotionPiece() != null) {
+                score += 9_000 + move.getPromotionPiece().getPieceValue();
+            }
+            if (tacticalOnly && score == 0) {
+                continue;
+            }
+            if (hashMove != 0 && PGNUtilities.encodeMove(move) == hashMove) {
+                score = 1_000_000;
+            }
+            int i = count++;
+            while (i > 0 && scores[i - 1] < score) {
+                moves[i] = moves[i - 1];
+                scores[i] = scores[i - 1];
+                i--;
+            }
+            moves[i] = move;
+            scores[i] = score;
+        }
+        return count == moves.length ? moves : Arrays.copyOf(moves, count);
+    }
+
+    private List<Move> principalVariation(final Board root,
+                                          final int depth) {
+        final List<Move> line = new ArrayList<>();
+        Board board = root;
+        for (int ply = 0; ply < depth; ply++) {
+            final long key = board.getZobristHash();
+            final int slot = slot(key);
+            if (this.keys[slot] != key) {
+                break;
+            }
+            final int code = (int) (this.entries[slot] >>> 16) & 0xFFFF;
+            Move next = null;
+            for (final Move move : board.currentPlayer().getLegalMoves()) {
+                if (PGNUtilities.encodeMove(move) == code) {
+                    next = move;
+                    break;
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            final Board child = next.execute();
+            if (child.currentPlayer().getOpponent().isInCheck()) {
+                break;
+            }
+            line.add(next);
+            board = child;
+        }
+        return line;
+    }
+
+    private void checkLimits() {
+        if (this.nodes >= this.nodeLimit || System.nanoTime() >= this.deadline) {
+            this.stopped = true;
+        }
+    }
+
+    private void store(final long key,
+                       final int score,
+                       final int depth,
+                       final int bound,
+                       final int move,
+                       final int ply) {
+        final int slot = slot(key);
+        this.keys[slot] = key;
+        this.entries[slot] = ((long) toTable(score, ply) << 32) | ((long) (move & 0xFFFF) << 16) |
+                             ((long) Math.min(depth, 0xFF) << 8) | bound;
+    }
+
+    private int slot(final long key) {
+        return (int) (key ^ (key >>> 32)) & this.mask;
+    }
+
+    /**
+     * Metoda zamieniajaca ocene matowa na odleglosc od biezacej pozycji (zapis w tablicy transpozycji)
+     */
+    private static int toTable(final int score,
+                               final int ply) {
+        if (score >= MATE_SCORE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= MAX_PLY - MATE_SCORE) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(final int score,
+                                 final int ply) {
+        if (score >= MATE_SCORE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= MAX_PLY - MATE_SCORE) {
+            return score + ply;
+        }
+        return score;
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+
+/**
+ * Interfejs funkcji oceniajacej pozycje
+ */
+public interface BoardEvaluator {
+
+    /**
+     * Metoda oceniajaca pozycje
+     * @param board oceniana plansza
+     * @return zwraca ocene w centypionach z punktu widzenia gracza wykonujacego ruch
+     */
+    int evaluate(Board board);
+
+}
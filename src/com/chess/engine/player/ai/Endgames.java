@@ -0,0 +1,234 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.MaterialKey;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToIntBiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Enum z wiedza o koncowkach wybierana na podstawie klucza materialu. Dla koncowek, w ktorych ogolna ocena zawodzi (KBNK,
+ * samotny krol przeciw hetmanowi lub wiezy, KRKP), zwraca ocene specjalna, a dla pozycji remisowych mimo przewagi materialnej
+ * (rozne gonce, koncowki bez pionow z niewielka przewaga, KNNK) wspolczynnik skalowania zwyklej oceny.
+ * Wybor wymaga jedynie porownania klucza, wiec nie spowalnia oceny pozycji srodkowej gry.
+ */
+public enum Endgames {
+
+    INSTANCE;
+
+    public static final int NORMAL_SCALE = 64;
+
+    private static final int WIN_BONUS = 1000;
+    private static final int OPPOSITE_BISHOPS_SCALE = 32;
+    private static final long TWO_KNIGHTS = MaterialKey.of("KNN", "K");
+
+    private final Map<Long, ToIntFunction<Board>> evaluators = new HashMap<>();
+
+    Endgames() {
+        register("KBN", "K", Endgames::evaluateKBNK);
+        register("KR", "KP", Endgames::evaluateKRKP);
+    }
+
+    private void register(final String strong,
+                          final String weak,
+                          final ToIntBiFunction<Board, Alliance> evaluator) {
+        final long key = MaterialKey.of(strong, weak);
+        this.evaluators.put(key, board -> evaluator.applyAsInt(board, Alliance.WHITE));
+        this.evaluators.put(MaterialKey.mirror(key), board -> evaluator.applyAsInt(board, Alliance.BLACK));
+    }
+
+    /**
+     * Metoda sprawdzajaca czy dla danego materialu istnieje ocena specjalna
+     * @param materialKey klucz materialu pozycji
+     * @return zwraca prawde gdy pozycje nalezy ocenic metoda evaluate()
+     */
+    public boolean hasEvaluator(final long materialKey) {
+        return this.evaluators.containsKey(materialKey) || mopUpSide(materialKey) != null;
+    }
+
+    /**
+     * Metoda oceniajaca koncowke, dla ktorej hasEvaluator() zwrocilo prawde
+     * @param board plansza
+     * @return zwraca ocene z punktu widzenia gracza wykonujacego ruch
+     */
+    public int evaluate(final Board board) {
+        final long materialKey = board.getMaterialKey();
+        final ToIntFunction<Board> evaluator = this.evaluators.get(materialKey);
+        final int whiteScore;
+        if (evaluator != null) {
+            whiteScore = evaluator.applyAsInt(board);
+        } else {
+            final Alliance strongSide = mopUpSide(materialKey);
+            final int score = evaluateMopUp(board, strongSide);
+            whiteScore = strongSide.isWhite() ? score : -score;
+        }
+        return board.currentPlayer().getAlliance().isWhite() ? whiteScore : -whiteScore;
+    }
+
+    /**
+     * Metoda wyznaczajaca wspolczynnik skalowania oceny dla koncowek o zmniejszonych szansach na wygrana
+     * @param board plansza
+     * @param whiteScore ocena z punktu widzenia bialych, ktorej znak wskazuje strone silniejsza
+     * @return zwraca wspolczynnik od 0 (remis) do NORMAL_SCALE
+     */
+    public int scaleFactor(final Board board,
+                           final int whiteScore) {
+        final long key = board.getMaterialKey();
+        final Alliance strongSide = whiteScore >= 0 ? Alliance.WHITE : Alliance.BLACK;
+        final Alliance weakSide = strongSide.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+        final int strongMaterial = MaterialKey.nonPawnMaterial(key, strongSide);
+        final int weakMaterial = MaterialKey.nonPawnMaterial(key, weakSide);
+        if (MaterialKey.count(key, strongSide, PieceType.PAWN) == 0) {
+            if (MaterialKey.side(key, weakSide) == 0 && MaterialKey.side(key, strongSide) == TWO_KNIGHTS) {
+                return 0;
+            }
+            if (strongMaterial - weakMaterial <= PieceType.BISHOP.getPieceValue()) {
+                return strongMaterial < PieceType.ROOK.getPieceValue() ? 0 :
+                       weakMaterial <= PieceType.BISHOP.getPieceValue() ? 4 : 14;
+            }
+        }
+        if (strongMaterial == PieceType.BISHOP.getPieceValue() && weakMaterial == PieceType.BISHOP.getPieceValue() &&
+            hasOppositeColouredBishops(board)) {
+            return OPPOSITE_BISHOPS_SCALE;
+        }
+        return NORMAL_SCALE;
+    }
+
+    /**
+     * Metoda wskazujaca strone, ktora matuje samotnego krola (hetmanem, wieza, para goncow lub goncem ze skoczkiem)
+     * @return zwraca kolor strony silniejszej lub null, gdy koncowka nie jest tego typu
+     */
+    private static Alliance mopUpSide(final long key) {
+        for (final Alliance strongSide : new Alliance[]{Alliance.WHITE, Alliance.BLACK}) {
+            final Alliance weakSide = strongSide.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+            if (MaterialKey.side(key, weakSide) == 0 && MaterialKey.side(key, strongSide) != 0) {
+                final int bishops = MaterialKey.count(key, strongSide, PieceType.BISHOP);
+                final boolean mating = MaterialKey.count(key, strongSide, PieceType.QUEEN) > 0 ||
+                                       MaterialKey.count(key, strongSide, PieceType.ROOK) > 0 ||
+                                       bishops >= 2 || (bishops > 0 && MaterialKey.count(key, strongSide, PieceType.KNIGHT) > 0);
+                return mating ? strongSide : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Metoda oceniajaca matowanie samotnego krola - slabszy krol jest spychany do rogu, a silniejszy krol zbliza sie do niego
+     */
+    private static int evaluateMopUp(final Board board,
+                                     final Alliance strongSide) {
+        final long key = board.getMaterialKey();
+        final int strongKing = kingSquare(board, strongSide);
+        final int weakKing = kingSquare(board, strongSide.isWhite() ? Alliance.BLACK : Alliance.WHITE);
+        return WIN_BONUS + MaterialKey.nonPawnMaterial(key, strongSide) +
+               MaterialKey.count(key, strongSide, PieceType.PAWN) * PieceType.PAWN.getPieceValue() +
+               edgeBonus(weakKing) + 10 * (7 - distance(strongKing, weakKing));
+    }
+
+    /**
+     * Metoda oceniajaca koncowke KBNK z punktu widzenia bialych - slabszy krol jest spychany do rogu w kolorze pol gonca,
+     * w ktorym mozna dac mata
+     */
+    private static int evaluateKBNK(final Board board,
+                                    final Alliance strongSide) {
+        final int strongKing = kingSquare(board, strongSide);
+        final int weakKing = kingSquare(board, strongSide.isWhite() ? Alliance.BLACK : Alliance.WHITE);
+        int bishopColour = 0;
+        for (final Piece piece : strongSide.isWhite() ? board.getWhitePieces() : board.getBlackPieces()) {
+            if (piece.getPieceType().isBishop()) {
+                bishopColour = squareColour(piece.getPiecePosition());
+            }
+        }
+        // rogi a8 i h1 maja kolor 0, rogi h8 i a1 kolor 1; odleglosc od rogu liczona w ruchach wiezy, by kazdy krok sie liczyl
+        final int cornerDistance = bishopColour == 0 ? Math.min(manhattanDistance(weakKing, 0), manhattanDistance(weakKing, 63)) :
+                                                       Math.min(manhattanDistance(weakKing, 7), manhattanDistance(weakKing, 56));
+        final int score = WIN_BONUS + PieceType.BISHOP.getPieceValue() + PieceType.KNIGHT.getPieceValue() +
+                          20 * (14 - cornerDistance) + edgeBonus(weakKing) + 10 * (7 - distance(strongKing, weakKing));
+        return strongSide.isWhite() ? score : -score;
+    }
+
+    /**
+     * Metoda oceniajaca koncowke wieza przeciw pionowi z punktu widzenia bialych - wygrana, gdy silniejszy krol zatrzymuje pion
+     * lub slabszy krol jest daleko, w przeciwnym razie ocena zalezy od wyscigu krolow do pola przed pionem
+     */
+    private static int evaluateKRKP(final Board board,
+                                    final Alliance strongSide) {
+        final Alliance weakSide = strongSide.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+        final int strongKing = kingSquare(board, strongSide);
+        final int weakKing = kingSquare(board, weakSide);
+        int rook = 0;
+        int pawn = 0;
+        for (final Piece piece : board.getAllPieces()) {
+            if (piece.getPieceType().isRook()) {
+                rook = piece.getPiecePosition();
+            } else if (piece.getPieceType().isPawn()) {
+                pawn = piece.getPiecePosition();
+            }
+        }
+        final int queeningSquare = (pawn & 7) + (weakSide.isWhite() ? 0 : 56);
+        final int pushSquare = pawn + 8 * weakSide.getDirection();
+        final boolean strongToMove = board.currentPlayer().getAlliance() == strongSide;
+        final int score;
+        if ((strongKing & 7) == (pawn & 7) && (weakSide.isWhite() ? strongKing < pawn : strongKing > pawn)) {
+            score = PieceType.ROOK.getPieceValue() - distance(strongKing, pawn);
+        } else if (distance(weakKing, pawn) >= 3 + (strongToMove ? 0 : 1) && distance(weakKing, rook) >= 3) {
+            score = PieceType.ROOK.getPieceValue() - distance(strongKing, pawn);
+        } else if (relativeRow(weakKing, strongSide) <= 2 && distance(weakKing, pawn) == 1 &&
+                   relativeRow(strongKing, strongSide) >= 3 && distance(strongKing, pawn) > 2 + (strongToMove ? 1 : 0)) {
+            score = 80 - 8 * distance(strongKing, pawn);
+        } else {
+            score = 200 - 8 * (distance(strongKing, pushSquare) - distance(weakKing, pushSquare) - distance(pawn, queeningSquare));
+        }
+        return strongSide.isWhite() ? score : -score;
+    }
+
+    private static boolean hasOppositeColouredBishops(final Board board) {
+        int colours = 0;
+        for (final Piece piece : board.getAllPieces()) {
+            if (piece.getPieceType().isBishop()) {
+                colours |= 1 << squareColour(piece.getPiecePosition());
+            }
+        }
+        return colours == 3;
+    }
+
+    private static int kingSquare(final Board board,
+                                  final Alliance alliance) {
+        return (alliance.isWhite() ? board.whitePlayer() : board.blackPlayer()).getPlayerKing().getPiecePosition();
+    }
+
+    /**
+     * Metoda zwracajaca numer rzedu liczony od pierwszej linii danej strony (0-7)
+     */
+    private static int relativeRow(final int square,
+                                   final Alliance alliance) {
+        return alliance.isWhite() ? 7 - (square >>> 3) : square >>> 3;
+    }
+
+    private static int squareColour(final int square) {
+        return ((square >>> 3) + (square & 7)) & 1;
+    }
+
+    /**
+     * Metoda zwracajaca premie za odsuniecie krola od srodka planszy (od 20 w centrum do 140 w rogu)
+     */
+    private static int edgeBonus(final int square) {
+        return 10 * (Math.abs(2 * (square & 7) - 7) + Math.abs(2 * (square >>> 3) - 7));
+    }
+
+    private static int manhattanDistance(final int first,
+                                         final int second) {
+        return Math.abs((first & 7) - (second & 7)) + Math.abs((first >>> 3) - (second >>> 3));
+    }
+
+    private static int distance(final int first,
+                                final int second) {
+        return Math.max(Math.abs((first & 7) - (second & 7)), Math.abs((first >>> 3) - (second >>> 3)));
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Move;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Klasa przechowujaca wynik szukania mata: status, liczbe ruchow do mata, wymuszona linie matujaca oraz liczbe odwiedzonych wezlow
+ */
+public final class MateResult {
+
+    private final Status status;
+    private final int mateIn;
+    private final List<Move> line;
+    private final long nodes;
+
+    MateResult(final Status status,
+               final int mateIn,
+               final List<Move> line,
+               final long nodes) {
+        this.status = status;
+        this.mateIn = mateIn;
+        this.line = Collections.unmodifiableList(line);
+        this.nodes = nodes;
+    }
+
+    public Status getStatus() {
+        return this.status;
+    }
+
+    /**
+     * Metoda zwracajaca liczbe ruchow gracza atakujacego do mata
+     * @return zwraca liczbe ruchow lub 0 gdy mat nie zostal udowodniony
+     */
+    public int getMateIn() {
+        return this.mateIn;
+    }
+
+    /**
+     * Metoda zwracajaca wymuszona linie matujaca (ruchy obu graczy)
+     * @return zwraca liste ruchow lub pusta liste gdy mat nie zostal udowodniony
+     */
+    public List<Move> getLine() {
+        return this.line;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    @Override
+    public String toString() {
+        if (this.status.isProven()) {
+            return "mate in " + this.mateIn + " " + this.line + " (" + this.nodes + " nodes)";
+        }
+        return this.status + " (" + this.nodes + " nodes)";
+    }
+
+    /**
+     * Enum przechowujace statusy szukania mata: PROVEN (mat udowodniony), DISPROVEN (brak mata w zadanej liczbie ruchow),
+     * UNKNOWN (wyczerpany limit wezlow)
+     */
+    public enum Status {
+
+        PROVEN {
+            @Override
+            public boolean isProven() {
+                return true;
+            }
+
+            @Override
+            public boolean isDisproven() {
+                return false;
+            }
+        },
+        DISPROVEN {
+            @Override
+            public boolean isProven() {
+                return false;
+            }
+
+            @Override
+            public boolean isDisproven() {
+                return true;
+            }
+        },
+        UNKNOWN {
+            @Override
+            public boolean isProven() {
+                return false;
+            }
+
+            @Override
+            public boolean isDisproven() {
+                return false;
+            }
+        };
+
+        public abstract boolean isProven();
+
+        public abstract boolean isDisproven();
+
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveTransition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Klasa szukajaca wymuszonego mata algorytmem df-pn (depth-first proof-number search).
+ * Gracz wykonujacy ruch w pozycji poczatkowej atakuje, a jego przeciwnik sie broni. Wezly z ruchem atakujacego sa wezlami OR,
+ * wezly z ruchem broniacego - wezlami AND. Liczby dowodu i obalenia sa przechowywane w tablicy mieszajacej o stalym rozmiarze,
+ * a liczba ruchow do mata jest zwiekszana iteracyjnie, dzieki czemu znajdowany jest najkrotszy mat.
+ */
+public final class MateSolver {
+
+    private static final int INFINITY = 100_000_000;
+    private static final int ENTRY_BYTES = 16;
+    private static final long PLY_KEY = 0x9E3779B97F4A7C15L;
+
+    private final long[] keys;
+    private final int[] proofs;
+    private final int[] disproofs;
+    private final int mask;
+    private final long nodeLimit;
+    private long nodes;
+
+    /**
+     * Konstruktor tworzacy solver
+     * @param hashMegabytes rozmiar tablicy mieszajacej w megabajtach
+     * @param nodeLimit maksymalna liczba odwiedzonych wezlow
+     */
+    public MateSolver(final int hashMegabytes,
+                      final long nodeLimit) {
+        final long entries = Long.highestOneBit(Math.max(1024L, ((long) hashMegabytes << 20) / ENTRY_BYTES));
+        final int size = (int) Math.min(entries, 1 << 28);
+        this.keys = new long[size];
+        this.proofs = new int[size];
+        this.disproofs = new int[size];
+        this.mask = size - 1;
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Metoda szukajaca mata w co najwyzej podanej liczbie ruchow
+     * @param board pozycja poczatkowa - gracz wykonujacy ruch jest atakujacym
+     * @param maxMoves maksymalna liczba ruchow atakujacego
+     * @return zwraca wynik szukania
+     */
+    public MateResult solve(final Board board,
+                            final int maxMoves) {
+        this.nodes = 0;
+        for (int moves = 1; moves <= maxMoves; moves++) {
+            final int plies = 2 * moves - 1;
+            mid(board, plies, INFINITY, INFINITY);
+            if (proof(board, plies) == 0) {
+                return new MateResult(MateResult.Status.PROVEN, moves, extractLine(board, plies), this.nodes);
+            }
+            if (this.nodes >= this.nodeLimit) {
+                return new MateResult(MateResult.Status.UNKNOWN, 0, new ArrayList<>(), this.nodes);
+            }
+        }
+        return new MateResult(MateResult.Status.DISPROVEN, 0, new ArrayList<>(), this.nodes);
+    }
+
+    /**
+     * Metoda rozwijajaca wezel do momentu przekroczenia progow (wersja phi/delta: phi to liczba dowodu w wezle OR
+     * i liczba obalenia w wezle AND, delta odwrotnie).
+     */
+    private void mid(final Board board,
+                     final int plies,
+                     final int thresholdPhi,
+                     final int thresholdDelta) {
+        this.nodes++;
+        if (plies == 0) {
+            final boolean mated = board.currentPlayer().isInCheckMate();
+            store(board, plies, mated ? 0 : INFINITY, mated ? INFINITY : 0);
+            return;
+        }
+        final boolean orNode = (plies & 1) == 1;
+        final List<MoveTransition> children = expand(board);
+        if (children.isEmpty()) {
+            final boolean proven = !orNode && board.currentPlayer().isInCheck();
+            store(board, plies, proven ? 0 : INFINITY, proven ? INFINITY : 0);
+            return;
+        }
+        while (true) {
+            int phi = INFINITY;
+            int delta = 0;
+            int best = -1;
+            int bestPhi = 0;
+            int secondDelta = INFINITY;
+            for (int i = 0; i < children.size(); i++) {
+                final Board child = children.get(i).getToBoard();
+                final int childProof = proof(child, plies - 1);
+                final int childDisproof = disproof(child, plies - 1);
+                final int childPhi = orNode ? childDisproof : childProof;
+                final int childDelta = orNode ? childProof : childDisproof;
+                delta = Math.min(INFINITY, delta + childPhi);
+                if (childDelta < phi) {
+                    secondDelta = phi;
+                    phi = childDelta;
+                    best = i;
+                    bestPhi = childPhi;
+                } else if (childDelta < secondDelta) {
+                    secondDelta = childDelta;
+                }
+            }
+            if (phi >= thresholdPhi || delta >= thresholdDelta || this.nodes >= this.nodeLimit) {
+                store(board, plies, orNode ? phi : delta, orNode ? delta : phi);
+                return;
+            }
+            final int childThresholdPhi = Math.min(INFINITY, thresholdDelta - delta + bestPhi);
+            final int childThresholdDelta = Math.min(thresholdPhi, secondDelta == INFINITY ? INFINITY : secondDelta + 1);
+            mid(children.get(best).getToBoard(), plies - 1, childThresholdPhi, childThresholdDelta);
+        }
+    }
+
+    /**
+     * Metoda odtwarzajaca wymuszona linie matujaca z tablicy mieszajacej
+     */
+    private List<Move> extractLine(final Board root,
+                                   final int rootPlies) {
+        final List<Move> line = new ArrayList<>();
+        Board board = root;
+        for (int plies = rootPlies; plies > 0; plies--) {
+            MoveTransition next = null;
+            for (final MoveTransition child : expand(board)) {
+                if (proof(child.getToBoard(), plies - 1) != 0 && this.nodes < this.nodeLimit) {
+                    mid(child.getToBoard(), plies - 1, INFINITY, INFINITY);
+                }
+                if (proof(child.getToBoard(), plies - 1) == 0) {
+                    next = child;
+                    break;
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            line.add(next.getTransitionMove());
+            board = next.getToBoard();
+        }
+        return line;
+    }
+
+    private static List<MoveTransition> expand(final Board board) {
+        final List<MoveTransition> children = new ArrayList<>();
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) {
+                children.add(transition);
+            }
+        }
+        return children;
+    }
+
+    private int proof(final Board board,
+                      final int plies) {
+        final int slot = slot(board, plies);
+        return this.keys[slot] == key(board, plies) ? this.proofs[slot] : 1;
+    }
+
+    private int disproof(final Board board,
+                         final int plies) {
+        final int slot = slot(board, plies);
+        return this.keys[slot] == key(board, plies) ? this.disproofs[slot] : 1;
+    }
+
+    private void store(final Board board,
+                       final int plies,
+                       final int proof,
+                       final int disproof) {
+        final int slot = slot(board, plies);
+        this.keys[slot] = key(board, plies);
+        this.proofs[slot] = proof;
+        this.disproofs[slot] = disproof;
+    }
+
+    private int slot(final Board board,
+                     final int plies) {
+        final long key = key(board, plies);
+        return (int) (key ^ (key >>> 32)) & this.mask;
+    }
+
+    private static long key(final Board board,
+                            final int plies) {
+        return board.getZobristHash() + (plies + 1) * PLY_KEY;
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+
+/**
+ * Interfejs strategii wybierajacej ruch komputera
+ */
+public interface MoveStrategy {
+
+    /**
+     * Metoda wybierajaca ruch
+     * @param board aktualna plansza
+     * @return zwraca wybrany ruch lub ruch pusty, gdy gracz nie ma legalnych ruchow
+     */
+    Move execute(Board board);
+
+}
@@ -0,0 +1,92 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Move;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Klasa przechowujaca wynik przeszukiwania: najlepszy ruch, ocene, osiagnieta glebokosc, glowna linie, liczbe wezlow i czas
+ */
+public final class SearchResult {
+
+    private final Move bestMove;
+    private final int score;
+    private final int depth;
+    private final List<Move> principalVariation;
+    private final long nodes;
+    private final long timeMillis;
+
+    SearchResult(final Move bestMove,
+                 final int score,
+                 final int depth,
+                 final List<Move> principalVariation,
+                 final long nodes,
+                 final long timeMillis) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.principalVariation = Collections.unmodifiableList(principalVariation);
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+    }
+
+    /**
+     * Metoda zwracajaca najlepszy ruch
+     * @return zwraca ruch lub null, gdy gracz nie ma legalnych ruchow
+     */
+    public Move getBestMove() {
+        return this.bestMove;
+    }
+
+    /**
+     * Metoda zwracajaca ocene pozycji
+     * @return zwraca ocene w centypionach z punktu widzenia gracza wykonujacego ruch
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public List<Move> getPrincipalVariation() {
+        return this.principalVariation;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    public long getTimeMillis() {
+        return this.timeMillis;
+    }
+
+    /**
+     * Metoda sprawdzajaca czy ocena oznacza wymuszonego mata
+     * @return zwraca prawde dla oceny matowej
+     */
+    public boolean isMateScore() {
+        return Math.abs(this.score) >= AlphaBeta.MATE_SCORE - AlphaBeta.MAX_PLY;
+    }
+
+    /**
+     * Metoda zwracajaca liczbe ruchow do mata
+     * @return zwraca dodatnia liczbe ruchow gdy gracz wykonujacy ruch matuje, ujemna gdy jest matowany, 0 gdy ocena nie jest matowa
+     */
+    public int getMateIn() {
+        if (!isMateScore()) {
+            return 0;
+        }
+        final int plies = AlphaBeta.MATE_SCORE - Math.abs(this.score);
+        return this.score > 0 ? (plies + 1) / 2 : -(plies + 1) / 2;
+    }
+
+    @Override
+    public String toString() {
+        return this.bestMove + " score " + this.score + " depth " + this.depth + " nodes " + this.nodes +
+               " pv " + this.principalVariation;
+    }
+
+}
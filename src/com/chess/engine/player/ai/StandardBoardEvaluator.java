@@ -0,0 +1,139 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.MaterialKey;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.player.Player;
+
+/**
+ * Enum oceniajace pozycje na podstawie materialu, tablic polozenia pionkow, ruchliwosci, pary goncow oraz roszady.
+ * Koncowki rozpoznane po kluczu materialu sa oceniane lub skalowane przez Endgames.
+ * Tablice sa zapisane z punktu widzenia bialych (pole 0 = a8), dla czarnych pole jest odbijane pionowo.
+ */
+public enum StandardBoardEvaluator implements BoardEvaluator {
+
+    INSTANCE;
+
+    private static final int MOBILITY_WEIGHT = 2;
+    private static final int BISHOP_PAIR_BONUS = 30;
+    private static final int CASTLED_BONUS = 40;
+    private static final int ENDGAME_MATERIAL = 1300;
+
+    private static final int[] PAWN_TABLE = {
+             0,   0,   0,   0,   0,   0,   0,   0,
+            50,  50,  50,  50,  50,  50,  50,  50,
+            10,  10,  20,  30,  30,  20,  10,  10,
+             5,   5,  10,  25,  25,  10,   5,   5,
+             0,   0,   0,  20,  20,   0,   0,   0,
+             5,  -5, -10,   0,   0, -10,  -5,   5,
+             5,  10,  10, -20, -20,  10,  10,   5,
+             0,   0,   0,   0,   0,   0,   0,   0
+    };
+
+    private static final int[] KNIGHT_TABLE = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20,   0,   0,   0,   0, -20, -40,
+            -30,   0,  10,  15,  15,  10,   0, -30,
+            -30,   5,  15,  20,  20,  15,   5, -30,
+            -30,   0,  15,  20,  20,  15,   0, -30,
+            -30,   5,  10,  15,  15,  10,   5, -30,
+            -40, -20,   0,   5,   5,   0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+    };
+
+    private static final int[] BISHOP_TABLE = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,  10,  10,   5,   0, -10,
+            -10,   5,   5,  10,  10,   5,   5, -10,
+            -10,   0,  10,  10,  10,  10,   0, -10,
+            -10,  10,  10,  10,  10,  10,  10, -10,
+            -10,   5,   0,   0,   0,   0,   5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+    };
+
+    private static final int[] KING_MIDDLEGAME_TABLE = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+             20,  20,   0,   0,   0,   0,  20,  20,
+             20,  30,  10,   0,   0,  10,  30,  20
+    };
+
+    private static final int[] KING_ENDGAME_TABLE = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10,   0,   0, -10, -20, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -30,   0,   0,   0,   0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    @Override
+    public int evaluate(final Board board) {
+        if (board.isInsufficientMaterial()) {
+            return 0;
+        }
+        if (Endgames.INSTANCE.hasEvaluator(board.getMaterialKey())) {
+            return Endgames.INSTANCE.evaluate(board);
+        }
+        final int score = score(board, board.whitePlayer(), board.blackPlayer());
+        final int whiteScore = score * Endgames.INSTANCE.scaleFactor(board, score) / Endgames.NORMAL_SCALE;
+        return board.currentPlayer().getAlliance().isWhite() ? whiteScore : -whiteScore;
+    }
+
+    /**
+     * Metoda oceniajaca pozycje z punktu widzenia bialych
+     */
+    private static int score(final Board board,
+                             final Player white,
+                             final Player black) {
+        final long materialKey = board.getMaterialKey();
+        final boolean endgame = MaterialKey.nonPawnMaterial(materialKey, Alliance.WHITE) +
+                                MaterialKey.nonPawnMaterial(materialKey, Alliance.BLACK) <= 2 * ENDGAME_MATERIAL;
+        return sideScore(board, Alliance.WHITE, white, endgame) - sideScore(board, Alliance.BLACK, black, endgame);
+    }
+
+    private static int sideScore(final Board board,
+                                 final Alliance alliance,
+                                 final Player player,
+                                 final boolean endgame) {
+        int score = MOBILITY_WEIGHT * player.getLegalMoves().size();
+        int bishops = 0;
+        for (final Piece piece : alliance.isWhite() ? board.getWhitePieces() : board.getBlackPieces()) {
+            final int square = alliance.isWhite() ? piece.getPiecePosition() : piece.getPiecePosition() ^ 56;
+            switch (piece.getPieceType()) {
+                case PAWN:
+                    score += piece.getPieceValue() + PAWN_TABLE[square];
+                    break;
+                case KNIGHT:
+                    score += piece.getPieceValue() + KNIGHT_TABLE[square];
+                    break;
+                case BISHOP:
+                    score += piece.getPieceValue() + BISHOP_TABLE[square];
+                    bishops++;
+                    break;
+                case KING:
+                    score += endgame ? KING_ENDGAME_TABLE[square] : KING_MIDDLEGAME_TABLE[square];
+                    break;
+                default:
+                    score += piece.getPieceValue();
+                    break;
+            }
+        }
+        if (bishops >= 2) {
+            score += BISHOP_PAIR_BONUS;
+        }
+        if (player.isCastled()) {
+            score += CASTLED_BONUS;
+        }
+        return score;
+    }
+
+}
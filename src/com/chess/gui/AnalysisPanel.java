@@ -0,0 +1,208 @@
+package com.chess.gui;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.SANWriter;
+import com.chess.engine.player.ai.AlphaBeta;
+import com.chess.engine.player.ai.SearchResult;
+import com.chess.util.ThreadPools;
+
+import javax.swing.BorderFactory;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.Timer;
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Klasa tworzaca panel analizy: silnik przeszukuje aktualna pozycje bez ograniczen na osobnym watku, a panel pokazuje
+ * glebokosc, ocene, szybkosc przeszukiwania i glowny wariant. Wyniki kolejnych iteracji sa zamieniane na tekst na watku
+ * przeszukiwania i odkladane w jednym miejscu (nowszy wynik zastepuje starszy), skad zegar Swing pobiera je najwyzej
+ * kilka razy na sekunde, wiec analiza nie obciaza watku EDT. Zmiana pozycji przerywa trwajace przeszukiwanie i zaczyna nowe,
+ * a wyniki przerwanego przeszukiwania sa pomijane.
+ */
+class AnalysisPanel extends JPanel {
+
+    private static final long serialVersionUID = 1L;
+    private static final int MAX_SEARCH_DEPTH = 64;
+    private static final Dimension ANALYSIS_PANEL_DIMENSION = new Dimension(600, 70);
+
+    private final ExecutorService executor;
+    private final AlphaBeta searcher;
+    private final AtomicInteger generation;
+    private final AtomicReference<Update> latestUpdate;
+    private final Timer refreshTimer;
+    private final JLabel summaryLabel;
+    private final JTextArea variationArea;
+    private Board board;
+    private Future<?> search;
+    private boolean active;
+
+    /**
+     * Konstruktor tworzacy panel analizy
+     * @param updatesPerSecond maksymalna liczba odswiezen panelu na sekunde
+     */
+    AnalysisPanel(final int updatesPerSecond) {
+        super(new BorderLayout());
+        this.executor = ThreadPools.newComputeExecutor("analysis", 1);
+        this.searcher = new AlphaBeta(MAX_SEARCH_DEPTH);
+        this.generation = new AtomicInteger();
+        this.latestUpdate = new AtomicReference<>();
+        this.refreshTimer = new Timer(1000 / Math.max(1, updatesPerSecond), e -> refresh());
+        this.summaryLabel = new JLabel(" ");
+        this.variationArea = new JTextArea(2, 40);
+        this.variationArea.setEditable(false);
+        this.variationArea.setLineWrap(true);
+        this.variationArea.setWrapStyleWord(true);
+        setBorder(BorderFactory.createTitledBorder("Analysis"));
+        add(this.summaryLabel, BorderLayout.NORTH);
+        add(new JScrollPane(this.variationArea), BorderLayout.CENTER);
+        setPreferredSize(ANALYSIS_PANEL_DIMENSION);
+    }
+
+    /**
+     * Metoda wlaczajaca lub wylaczajaca analize
+     * @param active czy analiza ma byc prowadzona
+     * @param board aktualna plansza
+     */
+    void setActive(final boolean active,
+                   final Board board) {
+        this.active = active;
+        if (active) {
+            this.refreshTimer.start();
+            setPosition(board);
+        } else {
+            stopSearch();
+            this.board = null;
+            this.refreshTimer.stop();
+            this.latestUpdate.set(null);
+        }
+    }
+
+    /**
+     * Metoda zmieniajaca analizowana pozycje - przeszukiwanie jest uruchamiane ponownie tylko, gdy plansza sie zmienila
+     * @param board aktualna plansza
+     */
+    void setPosition(final Board board) {
+        if (!this.active || board == this.board) {
+            return;
+        }
+        stopSearch();
+        this.board = board;
+        this.summaryLabel.setText(" ");
+        this.variationArea.setText("");
+        final int searchGeneration = this.generation.get();
+        this.search = this.executor.submit(() -> {
+            if (searchGeneration != this.generation.get()) {
+                return;
+            }
+            this.searcher.setListener(result -> publish(searchGeneration, board, result));
+            this.searcher.search(board, MAX_SEARCH_DEPTH, Long.MAX_VALUE, 0);
+        });
+    }
+
+    /**
+     * Metoda przerywajaca trwajace przeszukiwanie i uniewazniajaca jego wyniki
+     */
+    private void stopSearch() {
+        this.generation.incrementAndGet();
+        if (this.search != null) {
+            this.search.cancel(false);
+            this.searcher.stop();
+            this.search = null;
+        }
+        this.latestUpdate.set(null);
+    }
+
+    /**
+     * Metoda wywolywana na watku przeszukiwania po kazdej iteracji - przygotowuje tekst wyniku i zastepuje nim poprzedni,
+     * jeszcze niewyswietlony wynik. Przeszukiwanie uniewaznionej pozycji jest zatrzymywane.
+     */
+    private void publish(final int searchGeneration,
+                         final Board board,
+                         final SearchResult result) {
+        if (searchGeneration != this.generation.get()) {
+            this.searcher.stop();
+            return;
+        }
+        final Update update = new Update(searchGeneration, summary(board, result), variation(board, result));
+        this.latestUpdate.set(update);
+    }
+
+    /**
+     * Metoda wywolywana przez zegar Swing - wyswietla najnowszy wynik, o ile dotyczy aktualnej pozycji
+     */
+    private void refresh() {
+        final Update update = this.latestUpdate.getAndSet(null);
+        if (update != null && update.generation == this.generation.get()) {
+            this.summaryLabel.setText(update.summary);
+            this.variationArea.setText(update.variation);
+            this.variationArea.setCaretPosition(0);
+        }
+    }
+
+    private static String summary(final Board board,
+                                  final SearchResult result) {
+        final StringBuilder summary = new StringBuilder(64);
+        summary.append("Depth ").append(result.getDepth()).append("   ");
+        final boolean white = board.currentPlayer().getAlliance().isWhite();
+        if (result.isMateScore()) {
+            final int mateIn = white ? result.getMateIn() : -result.getMateIn();
+            summary.append(mateIn > 0 ? "#" : "#-").append(Math.abs(mateIn));
+        } else {
+            final int score = white ? result.getScore() : -result.getScore();
+            summary.append(String.format("%+.2f", score / 100.0));
+        }
+        summary.append("   ").append(result.getNodes() / Math.max(1, result.getTimeMillis())).append(" kN/s");
+        return summary.toString();
+    }
+
+    /**
+     * Metoda zapisujaca glowny wariant w notacji SAN z numerami ruchow
+     */
+    private static String variation(final Board board,
+                                    final SearchResult result) {
+        final StringBuilder variation = new StringBuilder(128);
+        int moveNumber = board.getFullmoveNumber();
+        boolean white = board.currentPlayer().getAlliance().isWhite();
+        if (!white) {
+            variation.append(moveNumber).append("... ");
+        }
+        for (final Move move : result.getPrincipalVariation()) {
+            if (white) {
+                variation.append(moveNumber).append(". ");
+            }
+            SANWriter.INSTANCE.appendSAN(move, move.execute(), variation).append(' ');
+            if (!white) {
+                moveNumber++;
+            }
+            white = !white;
+        }
+        return variation.toString().trim();
+    }
+
+    /**
+     * Klasa przechowujaca gotowy do wyswietlenia wynik jednej iteracji przeszukiwania
+     */
+    private static final class Update {
+
+        private final int generation;
+        private final String summary;
+        private final String variation;
+
+        Update(final int generation,
+               final String summary,
+               final String variation) {
+            this.generation = generation;
+            this.summary = summary;
+            this.variation = variation;
+        }
+    }
+
+}
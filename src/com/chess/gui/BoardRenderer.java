@@ -0,0 +1,289 @@
+package com.chess.gui;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Piece;
+
+import javax.swing.JComponent;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Klasa rysujaca cala szachownice jako jeden komponent: pola, pionki, zaznaczenie, podswietlone ruchy oraz strzalke ostatniego
+ * ruchu. Pola planszy sa rysowane raz do obrazu tla, a pozycja (tlo, podswietlenie ostatniego ruchu i pionki z gotowych,
+ * przeskalowanych obrazow PieceSprites) do drugiego obrazu, tworzonego ponownie tylko po zmianie pozycji, rozmiaru lub kierunku
+ * planszy. Odmalowanie komponentu to skopiowanie tego obrazu i narysowanie zaznaczenia, znacznikow ruchow i strzalki.
+ * Rysowanie odbywa sie w pikselach urzadzenia (z uwzglednieniem skalowania ekranu HiDPI), dzieki czemu obraz jest ostry
+ * przy dowolnym rozmiarze okna.
+ */
+final class BoardRenderer extends JComponent {
+
+    private static final long serialVersionUID = 1L;
+    private static final Color SELECTION_COLOR = Color.cyan;
+    private static final Color LAST_MOVE_COLOR = new Color(255, 215, 0, 80);
+    private static final Color ARROW_COLOR = new Color(30, 144, 255, 150);
+    private static final Color LEGAL_MOVE_COLOR = new Color(0, 160, 0, 170);
+
+    private final Color lightTileColor;
+    private final Color darkTileColor;
+    private BufferedImage background;
+    private BufferedImage positionLayer;
+    private Board board;
+    private boolean flipped;
+    private int selection;
+    private long legalDestinations;
+    private int lastMoveSource;
+    private int lastMoveDestination;
+    private double scale;
+    private int originX;
+    private int originY;
+    private int tileSize;
+
+    BoardRenderer(final Color lightTileColor,
+                  final Color darkTileColor,
+                  final Color borderColor,
+                  final Dimension preferredSize) {
+        this.lightTileColor = lightTileColor;
+        this.darkTileColor = darkTileColor;
+        this.selection = -1;
+        this.lastMoveSource = -1;
+        this.lastMoveDestination = -1;
+        this.scale = 1.0;
+        setOpaque(true);
+        setBackground(borderColor);
+        setPreferredSize(preferredSize);
+    }
+
+    /**
+     * Metoda ustawiajaca rysowana pozycje i zlecajaca odmalowanie komponentu
+     * @param board aktualna plansza
+     * @param selection pole zaznaczonego pionka lub -1
+     * @param legalDestinations maska bitowa podswietlonych pol docelowych
+     * @param lastMoveSource pole poczatkowe ostatniego ruchu lub -1
+     * @param lastMoveDestination pole docelowe ostatniego ruchu lub -1
+     */
+    void drawBoard(final Board board,
+                   final int selection,
+                   final long legalDestinations,
+                   final int lastMoveSource,
+                   final int lastMoveDestination) {
+        if (board != this.board || lastMoveSource != this.lastMoveSource || lastMoveDestination != this.lastMoveDestination) {
+            this.positionLayer = null;
+        }
+        this.board = board;
+        this.selection = selection;
+        this.legalDestinations = legalDestinations;
+        this.lastMoveSource = lastMoveSource;
+        this.lastMoveDestination = lastMoveDestination;
+        repaint();
+    }
+
+    /**
+     * Metoda ustawiajaca kierunek planszy
+     * @param flipped czy plansza jest obrocona (biale u gory)
+     */
+    void setFlipped(final boolean flipped) {
+        this.flipped = flipped;
+        this.positionLayer = null;
+        repaint();
+    }
+
+    /**
+     * Metoda wyznaczajaca pole planszy pod wskazanym punktem komponentu
+     * @param x wspolrzedna x punktu
+     * @param y wspolrzedna y punktu
+     * @return zwraca numer pola lub -1, gdy punkt lezy poza plansza
+     */
+    int tileAt(final int x,
+               final int y) {
+        if (this.tileSize == 0) {
+            return -1;
+        }
+        final int column = (int) Math.floor((x * this.scale - this.originX) / this.tileSize);
+        final int row = (int) Math.floor((y * this.scale - this.originY) / this.tileSize);
+        if (column < 0 || column >= BoardUtils.NUM_TILES_PER_ROW || row < 0 || row >= BoardUtils.NUM_TILES_PER_ROW) {
+            return -1;
+        }
+        return toTile(row * BoardUtils.NUM_TILES_PER_ROW + column);
+    }
+
+    @Override
+    protected void paintComponent(final Graphics g) {
+        final Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            final AffineTransform transform = g2.getTransform();
+            this.scale = transform.getScaleX();
+            // rysowanie w pikselach urzadzenia - przesuniecie zostaje, skalowanie jest uwzgledniane w rozmiarach
+            g2.setTransform(AffineTransform.getTranslateInstance(transform.getTranslateX(), transform.getTranslateY()));
+            final int width = (int) Math.ceil(getWidth() * this.scale);
+            final int height = (int) Math.ceil(getHeight() * this.scale);
+            this.tileSize = Math.min(width, height) / BoardUtils.NUM_TILES_PER_ROW;
+            final int boardSize = this.tileSize * BoardUtils.NUM_TILES_PER_ROW;
+            this.originX = (width - boardSize) / 2;
+            this.originY = (height - boardSize) / 2;
+            // tylko obramowanie wokol planszy, by nie malowac pol dwukrotnie
+            g2.setColor(getBackground());
+            g2.fillRect(0, 0, width, this.originY);
+            g2.fillRect(0, this.originY + boardSize, width, height - this.originY - boardSize);
+            g2.fillRect(0, this.originY, this.originX, boardSize);
+            g2.fillRect(this.originX + boardSize, this.originY, width - this.originX - boardSize, boardSize);
+            if (this.tileSize == 0) {
+                return;
+            }
+            g2.drawImage(positionLayer(), this.originX, this.originY, null);
+            paintSelection(g2);
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            paintLegalDestinations(g2);
+            paintLastMoveArrow(g2);
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Metoda zwracajaca obraz pol planszy dla aktualnego rozmiaru pola - obraz jest tworzony ponownie tylko po zmianie rozmiaru
+     * (kolory pol sa symetryczne wzgledem obrotu planszy)
+     */
+    private BufferedImage background() {
+        final int size = this.tileSize * BoardUtils.NUM_TILES_PER_ROW;
+        if (this.background == null || this.background.getWidth() != size) {
+            this.background = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+            final Graphics2D g2 = this.background.createGraphics();
+            for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+                final int row = tile / BoardUtils.NUM_TILES_PER_ROW;
+                final int column = tile % BoardUtils.NUM_TILES_PER_ROW;
+                g2.setColor((row + column) % 2 == 0 ? this.lightTileColor : this.darkTileColor);
+                g2.fillRect(column * this.tileSize, row * this.tileSize, this.tileSize, this.tileSize);
+            }
+            g2.dispose();
+        }
+        return this.background;
+    }
+
+    /**
+     * Metoda zwracajaca obraz aktualnej pozycji - pola, podswietlenie ostatniego ruchu i pionki, we wspolrzednych liczonych
+     * od lewego gornego rogu planszy
+     */
+    private BufferedImage positionLayer() {
+        final int size = this.tileSize * BoardUtils.NUM_TILES_PER_ROW;
+        if (this.positionLayer == null || this.positionLayer.getWidth() != size) {
+            this.positionLayer = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+            final Graphics2D g2 = this.positionLayer.createGraphics();
+            g2.drawImage(background(), 0, 0, null);
+            g2.setColor(LAST_MOVE_COLOR);
+            fillTile(g2, this.lastMoveSource);
+            fillTile(g2, this.lastMoveDestination);
+            if (this.board != null) {
+                final int pieceSize = this.tileSize * 9 / 10;
+                final int inset = (this.tileSize - pieceSize) / 2;
+                for (final Piece piece : this.board.getAllPieces()) {
+                    final BufferedImage image = PieceSprites.INSTANCE.getImage(piece.getPieceAllegiance(), piece.getPieceType(),
+                                                                               pieceSize);
+                    if (image != null) {
+                        final int position = toPosition(piece.getPiecePosition());
+                        g2.drawImage(image, column(position) * this.tileSize + inset, row(position) * this.tileSize + inset, null);
+                    }
+                }
+            }
+            g2.dispose();
+        }
+        return this.positionLayer;
+    }
+
+    private void paintSelection(final Graphics2D g2) {
+        if (this.selection != -1) {
+            final int position = toPosition(this.selection);
+            g2.setColor(SELECTION_COLOR);
+            g2.setStroke(new BasicStroke(Math.max(this.tileSize / 20f, 1f)));
+            g2.drawRect(tileX(position), tileY(position), this.tileSize - 1, this.tileSize - 1);
+        }
+    }
+
+    private void paintLegalDestinations(final Graphics2D g2) {
+        final int diameter = Math.max(this.tileSize / 4, 2);
+        final int inset = (this.tileSize - diameter) / 2;
+        g2.setColor(LEGAL_MOVE_COLOR);
+        for (long destinations = this.legalDestinations; destinations != 0L; destinations &= destinations - 1) {
+            final int position = toPosition(Long.numberOfTrailingZeros(destinations));
+            g2.fillOval(tileX(position) + inset, tileY(position) + inset, diameter, diameter);
+        }
+    }
+
+    /**
+     * Metoda rysujaca strzalke od srodka pola poczatkowego do srodka pola docelowego ostatniego ruchu
+     */
+    private void paintLastMoveArrow(final Graphics2D g2) {
+        if (this.lastMoveSource == -1 || this.lastMoveDestination == -1) {
+            return;
+        }
+        final int from = toPosition(this.lastMoveSource);
+        final int to = toPosition(this.lastMoveDestination);
+        final double x1 = tileX(from) + this.tileSize / 2.0;
+        final double y1 = tileY(from) + this.tileSize / 2.0;
+        final double x2 = tileX(to) + this.tileSize / 2.0;
+        final double y2 = tileY(to) + this.tileSize / 2.0;
+        final double length = Math.hypot(x2 - x1, y2 - y1);
+        final double head = this.tileSize * 0.35;
+        if (length <= head) {
+            return;
+        }
+        final double ux = (x2 - x1) / length;
+        final double uy = (y2 - y1) / length;
+        final double baseX = x2 - ux * head;
+        final double baseY = y2 - uy * head;
+        final float shaft = Math.max(this.tileSize / 8f, 1f);
+        final Path2D.Double arrowHead = new Path2D.Double();
+        arrowHead.moveTo(x2, y2);
+        arrowHead.lineTo(baseX - uy * head / 2, baseY + ux * head / 2);
+        arrowHead.lineTo(baseX + uy * head / 2, baseY - ux * head / 2);
+        arrowHead.closePath();
+        g2.setColor(ARROW_COLOR);
+        g2.setStroke(new BasicStroke(shaft, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER));
+        g2.draw(new Line2D.Double(x1, y1, baseX, baseY));
+        g2.fill(arrowHead);
+    }
+
+    private void fillTile(final Graphics2D g2,
+                          final int tile) {
+        if (tile != -1) {
+            final int position = toPosition(tile);
+            g2.fillRect(column(position) * this.tileSize, row(position) * this.tileSize, this.tileSize, this.tileSize);
+        }
+    }
+
+    /**
+     * Metoda zamieniajaca numer pola planszy na numer miejsca na ekranie (0 = lewy gorny rog) z uwzglednieniem obrotu
+     */
+    private int toPosition(final int tile) {
+        return this.flipped ? BoardUtils.NUM_TILES - 1 - tile : tile;
+    }
+
+    private int toTile(final int position) {
+        return this.flipped ? BoardUtils.NUM_TILES - 1 - position : position;
+    }
+
+    private static int column(final int position) {
+        return position % BoardUtils.NUM_TILES_PER_ROW;
+    }
+
+    private static int row(final int position) {
+        return position / BoardUtils.NUM_TILES_PER_ROW;
+    }
+
+    private int tileX(final int position) {
+        return this.originX + column(position) * this.tileSize;
+    }
+
+    private int tileY(final int position) {
+        return this.originY + row(position) * this.tileSize;
+    }
+
+}
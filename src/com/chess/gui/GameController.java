@@ -0,0 +1,135 @@
+package com.chess.gui;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.Move.MoveStatus;
+import com.chess.engine.board.MoveTransition;
+import com.chess.engine.player.ai.AlphaBeta;
+import com.chess.engine.player.ai.SearchResult;
+import com.chess.util.ThreadPools;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Klasa wykonujaca prace partii poza watkiem Swing (EDT): wykonanie ruchu gracza oraz wyszukanie ruchu komputera.
+ * Zadania dzialaja kolejno na jednym watku w tle, a wynik jest przekazywany z powrotem na EDT przez invokeLater.
+ * Kazde nowe zadanie lub wywolanie cancel() uniewaznia poprzednie: trwajace przeszukiwanie jest przerywane, a wynik
+ * zadania, ktore zdazylo sie zakonczyc, nie jest przekazywany. Wszystkie metody nalezy wywolywac na EDT.
+ */
+final class GameController {
+
+    private static final int MAX_SEARCH_DEPTH = 64;
+
+    private final ExecutorService executor;
+    private final AlphaBeta searcher;
+    private int generation;
+    private Future<?> pending;
+
+    GameController() {
+        this.executor = ThreadPools.newComputeExecutor("game-controller", 1);
+        this.searcher = new AlphaBeta(MAX_SEARCH_DEPTH);
+    }
+
+    /**
+     * Metoda wykonujaca w tle ruch gracza, ktorego poprawnosc zostala juz sprawdzona. Ruch wyznaczony na innej planszy
+     * (np. zapamietany przed zmiana pozycji) nie jest wykonywany - odbiorca dostaje wtedy wynik ILLEGAL_MOVE.
+     * @param board plansza, na ktorej wykonywany jest ruch
+     * @param move legalny ruch na tej planszy
+     * @param onDone odbiorca wyniku wywolywany na EDT, o ile zadanie nie zostalo uniewaznione
+     */
+    void applyMove(final Board board,
+                   final Move move,
+                   final Consumer<MoveTransition> onDone) {
+        if (move.getBoard() != board) {
+            submit(() -> new MoveTransition(board, board, move, MoveStatus.ILLEGAL_MOVE), onDone);
+            return;
+        }
+        submit(() -> new MoveTransition(board, move.execute(), move, MoveStatus.DONE), onDone);
+    }
+
+    /**
+     * Metoda wyszukujaca w tle ruch komputera. Limit czasu jest ustawiany przez prepare() jeszcze na EDT, wiec cancel()
+     * wywolane zanim watek w tle zacznie przeszukiwanie nie zostanie nadpisane. Wczesniej metoda czeka, az przerwane
+     * poprzednie zadanie sie zakonczy, zeby prepare() nie wznowilo jego przeszukiwania.
+     * @param board aktualna plansza
+     * @param timeLimitMillis limit czasu przeszukiwania w milisekundach
+     * @param onDone odbiorca wykonanego najlepszego ruchu (null, gdy gracz nie ma ruchow) wywolywany na EDT, o ile zadanie
+     *               nie zostalo uniewaznione
+     */
+    void searchMove(final Board board,
+                    final long timeLimitMillis,
+                    final Consumer<MoveTransition> onDone) {
+        cancel();
+        awaitWorker();
+        this.searcher.prepare(timeLimitMillis);
+        submit(() -> {
+            final SearchResult result = this.searcher.search(board, MAX_SEARCH_DEPTH, Long.MAX_VALUE);
+            final Move bestMove = result.getBestMove();
+            return bestMove == null ? null : board.currentPlayer().makeMove(bestMove);
+        }, onDone);
+    }
+
+    /**
+     * Metoda uniewazniajaca oczekujace zadanie i przerywajaca trwajace przeszukiwanie
+     */
+    void cancel() {
+        this.generation++;
+        if (this.pending != null) {
+            this.pending.cancel(false);
+            this.searcher.stop();
+            this.pending = null;
+        }
+    }
+
+    /**
+     * Metoda czekajaca na zakonczenie zadania wykonywanego w tle - po cancel() trwa to tylko do najblizszego sprawdzenia stop()
+     */
+    private void awaitWorker() {
+        try {
+            this.executor.submit(() -> { }).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private <T> void submit(final Supplier<T> task,
+                            final Consumer<T> onDone) {
+        cancel();
+        final int submitted = this.generation;
+        this.pending = this.executor.submit(() -> {
+            final T result;
+            try {
+                result = task.get();
+            } catch (final RuntimeException e) {
+                e.printStackTrace();
+                SwingUtilities.invokeLater(() -> finish(submitted));
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (finish(submitted)) {
+                    onDone.accept(result);
+                }
+            });
+        });
+    }
+
+    /**
+     * Metoda konczaca zadanie na EDT
+     * @return zwraca prawde gdy wynik zadania jest nadal aktualny
+     */
+    private boolean finish(final int submitted) {
+        if (submitted != this.generation) {
+            return false;
+        }
+        this.pending = null;
+        return true;
+    }
+
+}
@@ -2,147 +2,249 @@ package com.chess.gui;
 
 import java.awt.BorderLayout;
 import java.awt.Dimension;
-import java.util.ArrayList;
-import java.util.List;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.AbstractTableModel;
 
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
-import com.chess.gui.Table.MoveLog;
+import com.chess.engine.board.MoveTransition;
+import com.chess.engine.board.SANWriter;
+import com.chess.engine.endgame.BitbaseResult;
+import com.chess.engine.endgame.Bitbases;
+import com.chess.pgn.PGNUtilities;
 
 /**
  * Klasa tworzaca panel obrazujacy wykonane ruchy przez graczy oraz informujaca o szachu oraz macie.
+ * Model tabeli jest uzupelniany przyrostowo: po kazdej zmianie historii zapisywane sa tylko ruchy od pierwszego polruchu,
+ * ktory rozni sie od juz wyswietlonych, wiec nowy ruch zmienia jedna komorke. Oznaczenie szachu, mata i pata jest
+ * wyznaczane raz dla kazdego polruchu, a tabela o stalej wysokosci wierszy rysuje tylko widoczne wiersze.
  */
 class GameHistoryPanel extends JPanel {
 
     private final DataModel model;
+    private final JTable table;
     private final JScrollPane scrollPane;
+    private final JLabel statusLabel;
     private static final Dimension HISTORY_PANEL_DIMENSION = new Dimension(100, 40);
 
     /**
      * Konstruktor - tworzy nowy tak zwany model danych zapisujacy w kolumnach wykonane ruchy oraz ustawia odpowiedni rozmiar okna.
+     * @param plySelected akcja wywolywana po kliknieciu ruchu z numerem polruchu pozycji po tym ruchu
      */
-    GameHistoryPanel() {
+    GameHistoryPanel(final IntConsumer plySelected) {
         this.setLayout(new BorderLayout());
         this.model = new DataModel();
         final JTable table = new JTable(model);
+        this.table = table;
         table.setRowHeight(15);
+        table.setCellSelectionEnabled(true);
+        table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(final MouseEvent event) {
+                final int row = table.rowAtPoint(event.getPoint());
+                final int column = table.columnAtPoint(event.getPoint());
+                if (row >= 0 && column >= 0 && model.getValueAt(row, column) != null) {
+                    plySelected.accept(2 * row + column - model.getFirstMoveColumn() + 1);
+                }
+            }
+        });
         this.scrollPane = new JScrollPane(table);
         scrollPane.setColumnHeaderView(table.getTableHeader());
         scrollPane.setPreferredSize(HISTORY_PANEL_DIMENSION);
         this.add(scrollPane, BorderLayout.CENTER);
+        this.statusLabel = new JLabel(" ");
+        this.add(this.statusLabel, BorderLayout.SOUTH);
         this.setVisible(true);
     }
 
     /**
-     * Metoda odpowiadajaca za czyszczenie panelu historii ruchow.
+     * Metoda uzgadniajaca panel historii ruchow z historia partii i zaznaczajaca ruch prowadzacy do aktualnej pozycji.
      * @param board altualna plansza
      * @param moveHistory altualna lista wykonanych ruchow
      */
     void redo(final Board board,
               final MoveLog moveHistory) {
-        int currentRow = 0;
-        this.model.clear();
-        for (final Move move : moveHistory.getMoves()) {
-            final String moveText = move.toString();
-            if (move.getMovedPiece().getPieceAllegiance().isWhite()) {
-                this.model.setValueAt(moveText, currentRow, 0);
-            }
-            else if (move.getMovedPiece().getPieceAllegiance().isBlack()) {
-                this.model.setValueAt(moveText, currentRow, 1);
-                currentRow++;
-            }
-        }
+        this.model.synchronize(moveHistory);
 
-        if(moveHistory.getMoves().size() > 0) {
-            final Move lastMove = moveHistory.getMoves().get(moveHistory.size() - 1);
-            final String moveText = lastMove.toString();
+        this.statusLabel.setText(calculateStatus(board));
 
-            if (lastMove.getMovedPiece().getPieceAllegiance().isWhite()) {
-                this.model.setValueAt(moveText + calculateCheckAndCheckMateHash(board), currentRow, 0);
-            }
-            else if (lastMove.getMovedPiece().getPieceAllegiance().isBlack()) {
-                this.model.setValueAt(moveText + calculateCheckAndCheckMateHash(board), currentRow - 1, 1);
-            }
+        final int currentMove = moveHistory.getCurrentPly() - 1 + this.model.getFirstMoveColumn();
+        if (moveHistory.getCurrentPly() > 0) {
+            this.table.changeSelection(currentMove / 2, currentMove % 2, false, false);
+        } else {
+            this.table.clearSelection();
+            final JScrollBar vertical = scrollPane.getVerticalScrollBar();
+            vertical.setValue(vertical.getMinimum());
         }
 
-        final JScrollBar vertical = scrollPane.getVerticalScrollBar();
-        vertical.setValue(vertical.getMaximum());
-
     }
 
     /**
-     * Metoda sprawdzajaca czy wykonany ruch byl szachem - symbol "+" lub czy byl szach-matem - symbol "#".
+     * Metoda sprawdzajaca remis przez powtorzenie, zasade 50 ruchow lub niewystarczajacy material, a nastepnie w bazie koncowek, czy pozycja jest rozstrzygnieta przy idealnej grze.
      * @param board aktualna plansza
-     * @return uzyskany symbol podczas sprawdzania szach-matu
+     * @return komunikat o remisie lub wyniku koncowki albo spacja, gdy pozycja nie jest rozstrzygnieta
      */
-    private static String calculateCheckAndCheckMateHash(final Board board) {
-        if(board.currentPlayer().isInStaleMate()) {
-            return "@";
-        } else if(board.currentPlayer().isInCheckMate()) {
-            return "#";
-        } else if(board.currentPlayer().isInCheck()) {
-            return "+";
-        }
-        return "";
+    private static String calculateStatus(final Board board) {
+        if (board.isThreefoldRepetition()) {
+            return "Draw by threefold repetition";
+        }
+        if (board.isFiftyMoveRule() && !board.currentPlayer().isInCheckMate()) {
+            return "Draw by fifty-move rule";
+        }
+        if (board.isInsufficientMaterial()) {
+            return "Draw by insufficient material";
+        }
+        final BitbaseResult result = Bitbases.INSTANCE.probe(board);
+        if (result == null) {
+            return " ";
+        } else if (result.isDraw()) {
+            return "Endgame: draw";
+        }
+        return "Endgame: " + (result.isWin() ? board.currentPlayer() : board.currentPlayer().getOpponent()) + " wins";
     }
 
     /**
-     * Klasa odpowiadajaca za wpisanie odpowiedniego hash codu do odpowiedniego wiersza.
+     * Enum przechowujace stan gry po ruchu wraz z oznaczeniem dopisywanym do zapisu ruchu
      */
-    private static class Row {
-
-        private String whiteMove;
-        private String blackMove;
+    private enum GameStatus {
+        NORMAL(""),
+        CHECK("+"),
+        CHECKMATE("#"),
+        STALEMATE("@");
 
-        Row() {
-        }
-
-        public String getWhiteMove() {
-            return this.whiteMove;
-        }
+        private final String suffix;
 
-        public String getBlackMove() {
-            return this.blackMove;
+        GameStatus(final String suffix) {
+            this.suffix = suffix;
         }
 
-        public void setWhiteMove(final String move) {
-            this.whiteMove = move;
+        static GameStatus of(final Board board) {
+            if (board.currentPlayer().isInCheck()) {
+                return board.currentPlayer().isInCheckMate() ? CHECKMATE : CHECK;
+            }
+            return board.currentPlayer().isInStaleMate() ? STALEMATE : NORMAL;
         }
 
-        public void setBlackMove(final String move) {
-            this.blackMove = move;
+        String getSuffix() {
+            return this.suffix;
         }
-
     }
 
     /**
      * Klasa odpowiadajaca za stworzenie dwoch kolum zapisujacych ruchy odpowiednio bialego, a nastepnie czasnego gracza.
+     * Ruchy sa przechowywane jako gotowe napisy w kolejnosci polruchow - wiersz i kolumna komorki wynikaja z numeru polruchu,
+     * a zmiany sa zglaszane tabeli tylko dla dodanych lub usunietych komorek.
      */
-    private static class DataModel extends DefaultTableModel {
+    private static class DataModel extends AbstractTableModel {
 
-        private final List<Row> values;
         private static final String[] NAMES = {"White", "Black"};
 
+        private final StringBuilder moveText;
+        private String[] moves;
+        private int[] codes;
+        private int size;
+        private int firstMoveColumn;
+        private long initialPositionKey;
+
         DataModel() {
-            this.values = new ArrayList<>();
+            this.moveText = new StringBuilder(8);
+            this.moves = new String[64];
+            this.codes = new int[64];
         }
 
-        public void clear() {
-            this.values.clear();
-            setRowCount(0);
+        int getFirstMoveColumn() {
+            return this.firstMoveColumn;
+        }
+
+        /**
+         * Metoda uzgadniajaca model z historia partii - zachowywane sa ruchy wspolne z historia, a zapisywane tylko pozostale
+         * @param moveHistory historia partii
+         */
+        void synchronize(final MoveLog moveHistory) {
+            final int firstMoveColumn = moveHistory.getMoveMaker(0).isWhite() ? 0 : 1;
+            final long initialPositionKey = moveHistory.getPositionKey(0);
+            int common = 0;
+            if (firstMoveColumn == this.firstMoveColumn && initialPositionKey == this.initialPositionKey) {
+                final int limit = Math.min(this.size, moveHistory.size());
+                while (common < limit && this.codes[common] == moveHistory.getMoveCode(common)) {
+                    common++;
+                }
+            }
+            truncate(common);
+            if (firstMoveColumn != this.firstMoveColumn) {
+                this.firstMoveColumn = firstMoveColumn;
+                fireTableDataChanged();
+            }
+            this.initialPositionKey = initialPositionKey;
+            if (common == moveHistory.size()) {
+                return;
+            }
+            Board moveBoard = moveHistory.getBoard(common);
+            for (int ply = common; ply < moveHistory.size(); ply++) {
+                final int code = moveHistory.getMoveCode(ply);
+                final MoveTransition transition = PGNUtilities.createMoveTransition(moveBoard, code);
+                moveBoard = transition.getToBoard();
+                this.moveText.setLength(0);
+                SANWriter.INSTANCE.appendSAN(transition.getTransitionMove(), null, this.moveText)
+                                  .append(GameStatus.of(moveBoard).getSuffix());
+                append(code, this.moveText.toString());
+            }
+        }
+
+        /**
+         * Metoda dopisujaca ruch na koncu modelu
+         * @param code kod ruchu
+         * @param move zapis ruchu
+         */
+        private void append(final int code,
+                            final String move) {
+            if (this.size == this.moves.length) {
+                this.moves = Arrays.copyOf(this.moves, 2 * this.size);
+                this.codes = Arrays.copyOf(this.codes, 2 * this.size);
+            }
+            final int cell = this.size + this.firstMoveColumn;
+            final int rowCount = getRowCount();
+            this.moves[this.size] = move;
+            this.codes[this.size] = code;
+            this.size++;
+            if (cell / 2 == rowCount) {
+                fireTableRowsInserted(rowCount, rowCount);
+            } else {
+                fireTableCellUpdated(cell / 2, cell % 2);
+            }
+        }
+
+        /**
+         * Metoda usuwajaca ruchy od podanego polruchu do konca modelu
+         * @param newSize liczba pozostawionych polruchow
+         */
+        private void truncate(final int newSize) {
+            if (newSize >= this.size) {
+                return;
+            }
+            final int rowCount = getRowCount();
+            Arrays.fill(this.moves, newSize, this.size, null);
+            this.size = newSize;
+            final int newRowCount = getRowCount();
+            if (newRowCount < rowCount) {
+                fireTableRowsDeleted(newRowCount, rowCount - 1);
+            }
+            if (newRowCount > 0) {
+                fireTableRowsUpdated(newRowCount - 1, newRowCount - 1);
+            }
         }
 
         @Override
         public int getRowCount() {
-            if(this.values == null) {
-                return 0;
-            }
-            return this.values.size();
+            return this.size == 0 ? 0 : (this.size + this.firstMoveColumn + 1) / 2;
         }
 
         @Override
@@ -152,33 +254,13 @@ class GameHistoryPanel extends JPanel {
 
         @Override
         public Object getValueAt(final int row, final int col) {
-            final Row currentRow = this.values.get(row);
-            if(col == 0) {
-                return currentRow.getWhiteMove();
-            } else if (col == 1) {
-                return currentRow.getBlackMove();
-            }
-            return null;
+            final int ply = 2 * row + col - this.firstMoveColumn;
+            return ply >= 0 && ply < this.size ? this.moves[ply] : null;
         }
 
         @Override
-        public void setValueAt(final Object aValue,
-                               final int row,
-                               final int col) {
-            final Row currentRow;
-            if(this.values.size() <= row) {
-                currentRow = new Row();
-                this.values.add(currentRow);
-            } else {
-                currentRow = this.values.get(row);
-            }
-            if(col == 0) {
-                currentRow.setWhiteMove((String) aValue);
-                fireTableRowsInserted(row, row);
-            } else  if(col == 1) {
-                currentRow.setBlackMove((String)aValue);
-                fireTableCellUpdated(row, col);
-            }
+        public boolean isCellEditable(final int row, final int col) {
+            return false;
         }
 
         @Override
@@ -191,4 +273,4 @@ class GameHistoryPanel extends JPanel {
             return NAMES[col];
         }
     }
-}
\ No newline at end of file
+}
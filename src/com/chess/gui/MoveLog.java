@@ -0,0 +1,266 @@
+package com.chess.gui;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.MaterialKey;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveTransition;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.pgn.FenUtilities;
+import com.chess.pgn.PGNUtilities;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Klasa przechowujaca historie partii: ruchy w zwartym zapisie liczbowym (PGNUtilities.encodeMove, rozszerzony o rodzaj zbitego
+ * pionka i znacznik ruchu nieodwracalnego), a dla kazdej pozycji zapis FEN i klucz Zobrist. Obiekty Board i Move nie sa
+ * przechowywane (kazdy ruch trzyma referencje do calej planszy z ruchami obu graczy) - partia zajmuje kilkadziesiat bajtow
+ * na polruch. Plansza dowolnej pozycji jest odtwarzana z jej zapisu FEN i kluczy pozycji od ostatniego bicia lub ruchu pionkiem,
+ * wiec cofanie, ponawianie i przejscie do dowolnego polruchu kosztuje jedno zbudowanie planszy niezaleznie od dlugosci partii,
+ * a odtworzona plansza ma poprawne liczniki i en passant oraz wykrywa powtorzenia pozycji.
+ * Ruchy za aktualna pozycja (po cofnieciu) sa zachowywane do ponowienia, dopoki nie zostanie wykonany inny ruch - wykonanie
+ * ruchu, ktory czeka na ponowienie, dziala jak redo().
+ * Dla kazdej pozycji zapamietywany jest tez klucz materialu (MaterialKey) bierek zbitych od poczatku partii, wiec zbity
+ * material w dowolnym miejscu partii jest dostepny bez przegladania ruchow.
+ */
+public final class MoveLog {
+
+    private static final int MOVE_MASK = 0x7FFF;
+    private static final int IRREVERSIBLE_FLAG = 1 << 15;
+    private static final int CAPTURE_SHIFT = 16;
+
+    private int[] moves;
+    private byte[][] positions;
+    private long[] positionKeys;
+    private long[] capturedKeys;
+    private int size;
+    private int currentPly;
+    private Alliance firstMoveMaker;
+    private Board currentBoard;
+
+    MoveLog() {
+        this.moves = new int[64];
+        this.positions = new byte[65][];
+        this.positionKeys = new long[65];
+        this.capturedKeys = new long[65];
+        clear(Board.createStandardBoard());
+    }
+
+    /**
+     * Metoda czyszczaca historie i ustawiajaca nowa pozycje poczatkowa
+     * @param initialBoard plansza poczatkowa partii
+     */
+    void clear(final Board initialBoard) {
+        Arrays.fill(this.positions, null);
+        this.size = 0;
+        this.currentPly = 0;
+        this.firstMoveMaker = initialBoard.currentPlayer().getAlliance();
+        storePosition(0, initialBoard);
+        this.currentBoard = initialBoard;
+    }
+
+    /**
+     * Metoda dopisujaca ruch wykonany w aktualnej pozycji. Gdy jest to ten sam ruch, ktory czeka na ponowienie, aktualna
+     * pozycja jest tylko przesuwana o polruch i dalsze ruchy do ponowienia zostaja - w przeciwnym razie sa odrzucane.
+     * @param move ruch wykonany na planszy getCurrentBoard()
+     * @param toBoard plansza po wykonaniu ruchu
+     */
+    void addMove(final Move move,
+                 final Board toBoard) {
+        final Piece attackedPiece = move.getAttackedPiece();
+        int code = PGNUtilities.encodeMove(move);
+        long capturedKey = this.capturedKeys[this.currentPly];
+        if (attackedPiece != null) {
+            code |= (attackedPiece.getPieceType().ordinal() + 1) << CAPTURE_SHIFT;
+            capturedKey = MaterialKey.add(capturedKey, attackedPiece.getPieceAllegiance(), attackedPiece.getPieceType(), 1);
+        }
+        if (attackedPiece != null || move.getMovedPiece().getPieceType().isPawn()) {
+            code |= IRREVERSIBLE_FLAG;
+        }
+        if (this.currentPly < this.size && this.moves[this.currentPly] == code) {
+            this.currentPly++;
+            this.currentBoard = toBoard;
+            return;
+        }
+        this.size = this.currentPly;
+        if (this.size == this.moves.length) {
+            this.moves = Arrays.copyOf(this.moves, 2 * this.size);
+            this.positions = Arrays.copyOf(this.positions, 2 * this.size + 1);
+            this.positionKeys = Arrays.copyOf(this.positionKeys, 2 * this.size + 1);
+            this.capturedKeys = Arrays.copyOf(this.capturedKeys, 2 * this.size + 1);
+        }
+        this.moves[this.size++] = code;
+        this.capturedKeys[this.size] = capturedKey;
+        storePosition(this.size, toBoard);
+        this.currentPly = this.size;
+        this.currentBoard = toBoard;
+    }
+
+    /**
+     * Metoda cofajaca aktualna pozycje o jeden polruch
+     * @return zwraca plansze nowej aktualnej pozycji
+     */
+    Board undo() {
+        return jumpTo(this.currentPly - 1);
+    }
+
+    /**
+     * Metoda ponawiajaca cofniety ruch
+     * @return zwraca plansze nowej aktualnej pozycji
+     */
+    Board redo() {
+        return jumpTo(this.currentPly + 1);
+    }
+
+    /**
+     * Metoda ustawiajaca aktualna pozycje na podany polruch
+     * @param ply numer polruchu od 0 do size() wlacznie
+     * @return zwraca plansze nowej aktualnej pozycji
+     */
+    Board jumpTo(final int ply) {
+        this.currentBoard = getBoard(ply);
+        this.currentPly = ply;
+        return this.currentBoard;
+    }
+
+    /**
+     * Metoda zwracajaca liczbe zapisanych polruchow, lacznie z ruchami do ponowienia
+     * @return zwraca liczbe polruchow
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Metoda zwracajaca numer aktualnej pozycji
+     * @return zwraca liczbe polruchow wykonanych do aktualnej pozycji
+     */
+    public int getCurrentPly() {
+        return this.currentPly;
+    }
+
+    public Board getCurrentBoard() {
+        return this.currentBoard;
+    }
+
+    /**
+     * Metoda zwracajaca bierki zbite od poczatku partii do aktualnej pozycji
+     * @return zwraca klucz materialu (MaterialKey) zbitych bierek obu kolorow
+     */
+    public long getCapturedMaterialKey() {
+        return this.capturedKeys[this.currentPly];
+    }
+
+    /**
+     * Metoda zwracajaca ruch w zapisie liczbowym
+     * @param ply numer polruchu liczony od 0
+     * @return zwraca kod ruchu (PGNUtilities.encodeMove)
+     */
+    public int getMoveCode(final int ply) {
+        checkPly(ply, this.size - 1);
+        return this.moves[ply] & MOVE_MASK;
+    }
+
+    /**
+     * Metoda zwracajaca kolor gracza wykonujacego dany ruch
+     * @param ply numer polruchu liczony od 0
+     * @return zwraca kolor gracza
+     */
+    public Alliance getMoveMaker(final int ply) {
+        return (ply & 1) == 0 ? this.firstMoveMaker :
+               this.firstMoveMaker.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+    }
+
+    /**
+     * Metoda zwracajaca rodzaj pionka zbitego w danym ruchu (kolor pionka jest przeciwny do koloru getMoveMaker(ply))
+     * @param ply numer polruchu liczony od 0
+     * @return zwraca rodzaj zbitego pionka lub null, gdy ruch nie byl biciem
+     */
+    public PieceType getCapturedPieceType(final int ply) {
+        checkPly(ply, this.size - 1);
+        final int captured = this.moves[ply] >>> CAPTURE_SHIFT;
+        return captured == 0 ? null : PieceType.values()[captured - 1];
+    }
+
+    /**
+     * Metoda zwracajaca klucz Zobrist pozycji przed danym ruchem
+     * @param ply numer polruchu od 0 do size() wlacznie
+     * @return zwraca klucz pozycji
+     */
+    public long getPositionKey(final int ply) {
+        checkPly(ply, this.size);
+        return this.positionKeys[ply];
+    }
+
+    /**
+     * Metoda odtwarzajaca plansze pozycji przed danym ruchem
+     * @param ply numer polruchu od 0 do size() wlacznie
+     * @return zwraca plansze
+     */
+    public Board getBoard(final int ply) {
+        checkPly(ply, this.size);
+        if (ply == this.currentPly) {
+            return this.currentBoard;
+        }
+        int lastReset = ply;
+        while (lastReset > 0 && (this.moves[lastReset - 1] & IRREVERSIBLE_FLAG) == 0) {
+            lastReset--;
+        }
+        final byte[] fen = this.positions[ply];
+        return FenUtilities.createBuilderFromFEN(fen, 0, fen.length)
+                           .setPositionHistory(this.positionKeys, lastReset, ply)
+                           .build();
+    }
+
+    /**
+     * Metoda odtwarzajaca ruch - zwrocony ruch trzyma referencje do planszy, wiec nie powinien byc przechowywany
+     * @param ply numer polruchu liczony od 0
+     * @return zwraca ruch wykonany na planszy getBoard(ply)
+     */
+    public Move getMove(final int ply) {
+        checkPly(ply, this.size - 1);
+        return execute(getBoard(ply), this.moves[ply] & MOVE_MASK).getTransitionMove();
+    }
+
+    /**
+     * Metoda odtwarzajaca wszystkie zapisane ruchy partii, np. do zapisu w archiwum
+     * @return zwraca liste ruchow
+     */
+    public List<Move> getMoves() {
+        final List<Move> result = new ArrayList<>(this.size);
+        Board board = getBoard(0);
+        for (int ply = 0; ply < this.size; ply++) {
+            final MoveTransition transition = execute(board, this.moves[ply] & MOVE_MASK);
+            result.add(transition.getTransitionMove());
+            board = transition.getToBoard();
+        }
+        return result;
+    }
+
+    private void storePosition(final int ply,
+                               final Board board) {
+        this.positions[ply] = FenUtilities.createFENFromGame(board).getBytes(StandardCharsets.US_ASCII);
+        this.positionKeys[ply] = board.getZobristHash();
+    }
+
+    private static MoveTransition execute(final Board board,
+                                          final int code) {
+        final MoveTransition transition = PGNUtilities.createMoveTransition(board, code);
+        if (!transition.getMoveStatus().isDone()) {
+            throw new RuntimeException("Cannot replay move " + code + " in " + FenUtilities.createFENFromGame(board));
+        }
+        return transition;
+    }
+
+    private static void checkPly(final int ply,
+                                 final int maxPly) {
+        if (ply < 0 || ply > maxPly) {
+            throw new RuntimeException("Invalid ply " + ply);
+        }
+    }
+
+}
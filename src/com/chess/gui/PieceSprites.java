@@ -0,0 +1,138 @@
+package com.chess.gui;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Enum przechowujace zdekodowane obrazy pionkow obu kolorow oraz znacznika dostepnego ruchu. Obrazy sa wczytywane raz, przy
+ * pierwszym uzyciu, a przeskalowane wersje (np. dla panelu zbitych pionkow) sa tworzone raz dla kazdego rozmiaru i zapamietywane,
+ * dzieki czemu rysowanie planszy nie odczytuje plikow ani nie dekoduje obrazow.
+ */
+enum PieceSprites {
+
+    INSTANCE;
+
+    private final BufferedImage[] images;
+    private final ImageIcon[] icons;
+    private final ImageIcon legalMoveIcon;
+    private final Map<Integer, ImageIcon> scaledIcons;
+    private final Map<Integer, BufferedImage> scaledImages;
+
+    PieceSprites() {
+        this.images = new BufferedImage[2 * PieceType.values().length];
+        this.icons = new ImageIcon[2 * PieceType.values().length];
+        for (final Alliance alliance : Alliance.values()) {
+            for (final PieceType pieceType : PieceType.values()) {
+                final int index = index(alliance, pieceType);
+                this.images[index] = read("/Pieces/" + alliance.toString().substring(0, 1) + pieceType + ".gif");
+                this.icons[index] = this.images[index] == null ? null : new ImageIcon(this.images[index]);
+            }
+        }
+        final BufferedImage legalMoveImage = read("/Alert/green_dot.png");
+        this.legalMoveIcon = legalMoveImage == null ? null : new ImageIcon(legalMoveImage);
+        this.scaledIcons = new ConcurrentHashMap<>();
+        this.scaledImages = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Metoda zwracajaca obraz pionka w oryginalnym rozmiarze
+     * @param alliance kolor pionka
+     * @param pieceType rodzaj pionka
+     * @return zwraca obraz pionka lub null, gdy nie udalo sie go wczytac
+     */
+    BufferedImage getImage(final Alliance alliance,
+                           final PieceType pieceType) {
+        return this.images[index(alliance, pieceType)];
+    }
+
+    /**
+     * Metoda zwracajaca obraz pionka przeskalowany do kwadratu o podanym boku, gotowy do szybkiego rysowania przez Graphics2D -
+     * skalowanie odbywa sie tylko przy pierwszym uzyciu danego rozmiaru
+     * @param alliance kolor pionka
+     * @param pieceType rodzaj pionka
+     * @param size bok obrazu w pikselach urzadzenia
+     * @return zwraca obraz pionka lub null, gdy nie udalo sie go wczytac
+     */
+    BufferedImage getImage(final Alliance alliance,
+                           final PieceType pieceType,
+                           final int size) {
+        final int index = index(alliance, pieceType);
+        if (this.images[index] == null || size <= 0) {
+            return null;
+        }
+        return this.scaledImages.computeIfAbsent(size * this.images.length + index, key -> scale(this.images[index], size));
+    }
+
+    /**
+     * Metoda zwracajaca ikone pionka w oryginalnym rozmiarze
+     * @param alliance kolor pionka
+     * @param pieceType rodzaj pionka
+     * @return zwraca ikone pionka lub null, gdy nie udalo sie jej wczytac
+     */
+    ImageIcon getIcon(final Alliance alliance,
+                      final PieceType pieceType) {
+        return this.icons[index(alliance, pieceType)];
+    }
+
+    /**
+     * Metoda zwracajaca ikone pionka przeskalowana do kwadratu o podanym boku - skalowanie odbywa sie tylko przy pierwszym uzyciu
+     * @param alliance kolor pionka
+     * @param pieceType rodzaj pionka
+     * @param size bok ikony w pikselach
+     * @return zwraca ikone pionka lub null, gdy nie udalo sie jej wczytac
+     */
+    ImageIcon getIcon(final Alliance alliance,
+                      final PieceType pieceType,
+                      final int size) {
+        final int index = index(alliance, pieceType);
+        if (this.images[index] == null) {
+            return null;
+        }
+        return this.scaledIcons.computeIfAbsent(size * this.images.length + index,
+                key -> new ImageIcon(this.images[index].getScaledInstance(size, size, Image.SCALE_SMOOTH)));
+    }
+
+    /**
+     * Metoda zwracajaca ikone znacznika pola, na ktore moze ruszyc sie wybrany pionek
+     * @return zwraca ikone znacznika lub null, gdy nie udalo sie jej wczytac
+     */
+    ImageIcon getLegalMoveIcon() {
+        return this.legalMoveIcon;
+    }
+
+    private int index(final Alliance alliance,
+                      final PieceType pieceType) {
+        return (alliance.isWhite() ? 0 : this.images.length / 2) + pieceType.ordinal();
+    }
+
+    private static BufferedImage scale(final BufferedImage image,
+                                       final int size) {
+        final BufferedImage scaled = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB_PRE);
+        final Graphics2D g2 = scaled.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2.drawImage(image, 0, 0, size, size, null);
+        g2.dispose();
+        return scaled;
+    }
+
+    private static BufferedImage read(final String resource) {
+        try {
+            return ImageIO.read(PieceSprites.class.getResource(resource));
+        } catch (final IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+}
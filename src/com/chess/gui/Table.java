@@ -1,15 +1,17 @@
 package com.chess.gui;
 
+import com.chess.archive.GameArchiveReader;
+import com.chess.archive.PositionIndex;
 import com.chess.engine.board.*;
-import com.chess.engine.board.Move.MoveFactory;
+import com.chess.engine.endgame.Bitbases;
 import com.chess.engine.pieces.Piece;
 import com.google.common.collect.Lists;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
+import javax.swing.border.Border;
 import java.awt.*;
 import java.awt.event.*;
-import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
 import java.util.*;
 import java.util.List;
@@ -27,19 +29,33 @@ public final class Table implements ActionListener {
     private final GameHistoryPanel gameHistoryPanel;
     private final TakenPiecesPanel takenPiecesPanel;
     private final BoardPanel boardPanel;
+    private final BoardRenderer boardRenderer;
     private final MoveLog moveLog;
+    private final GameController gameController;
+    private final AnalysisPanel analysisPanel;
     private Board chessBoard;
     private Move computerMove;
     private Piece sourceTile;
     private Piece humanMovedPiece;
+    private long legalDestinationMask;
+    private final Move[] legalMovesByDestination = new Move[BoardUtils.NUM_TILES];
     private BoardDirection boardDirection;
     private boolean highlightLegalMoves;
+    private boolean useBoardRenderer;
     private Color lightTileColor = Color.decode("#FFFACD");
     private Color darkTileColor = Color.decode("#593E1A");
+    private PositionIndex positionIndex;
+    private GameArchiveReader positionArchive;
 
     private static final Dimension OUTER_FRAME_DIMENSION = new Dimension(600, 600);
     private static final Dimension BOARD_PANEL_DIMENSION = new Dimension(400, 350);
     private static final Dimension TILE_PANEL_DIMENSION = new Dimension(10, 10);
+    private static final Color BOARD_BORDER_COLOR = Color.decode("#8B4726");
+    private static final int MAX_POSITION_HITS = 20;
+    private static final long COMPUTER_MOVE_TIME_MILLIS = 3000;
+    private static final int ANALYSIS_UPDATES_PER_SECOND = 10;
+    private static final Border TILE_BORDER = BorderFactory.createLineBorder(Color.GRAY);
+    private static final Border SELECTED_TILE_BORDER = BorderFactory.createLineBorder(Color.cyan);
 
     private static final Table INSTANCE = new Table();
 
@@ -55,10 +71,24 @@ public final class Table implements ActionListener {
         this.chessBoard = Board.createStandardBoard();
         this.boardDirection = BoardDirection.NORMAL;
         this.highlightLegalMoves = false;
-        this.gameHistoryPanel = new GameHistoryPanel();
+        this.gameHistoryPanel = new GameHistoryPanel(this::jumpToPly);
         this.takenPiecesPanel = new TakenPiecesPanel();
         this.boardPanel = new BoardPanel();
+        this.boardRenderer = new BoardRenderer(this.lightTileColor, this.darkTileColor, BOARD_BORDER_COLOR, BOARD_PANEL_DIMENSION);
+        this.boardRenderer.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(final MouseEvent event) {
+                tilePressed(boardRenderer.tileAt(event.getX(), event.getY()), event);
+            }
+
+            @Override
+            public void mouseReleased(final MouseEvent event) {
+                tileReleased(boardRenderer.tileAt(event.getX(), event.getY()), event);
+            }
+        });
         this.moveLog = new MoveLog();
+        this.gameController = new GameController();
+        this.analysisPanel = new AnalysisPanel(ANALYSIS_UPDATES_PER_SECOND);
         this.gameFrame.add(this.takenPiecesPanel, BorderLayout.WEST);
         this.gameFrame.add(this.boardPanel, BorderLayout.CENTER);
         this.gameFrame.add(this.gameHistoryPanel, BorderLayout.EAST);
@@ -67,6 +97,8 @@ public final class Table implements ActionListener {
         this.gameFrame.setSize(OUTER_FRAME_DIMENSION);
         center(this.gameFrame);
         this.gameFrame.setVisible(true);
+        Bitbases.INSTANCE.initialize(Bitbases.DEFAULT_DIRECTORY)
+                         .thenRun(() -> invokeLater(() -> this.gameHistoryPanel.redo(this.chessBoard, this.moveLog)));
     }
 
     /**
@@ -89,10 +121,6 @@ public final class Table implements ActionListener {
         return this.moveLog;
     }
 
-    private BoardPanel getBoardPanel() {
-        return this.boardPanel;
-    }
-
     private GameHistoryPanel getGameHistoryPanel() {
         return this.gameHistoryPanel;
     }
@@ -109,10 +137,10 @@ public final class Table implements ActionListener {
      * Metoda ktora czysci wskaznik dostepnych ruchow, panel historii gry oraz panel zbitych pionkow. Ponadto rysuje szachownice.
      */
     public void show() {
-        Table.get().getMoveLog().clear();
+        Table.get().getMoveLog().clear(chessBoard);
         Table.get().getGameHistoryPanel().redo(chessBoard, Table.get().getMoveLog());
         Table.get().getTakenPiecesPanel().redo(Table.get().getMoveLog());
-        Table.get().getBoardPanel().drawBoard(Table.get().getGameBoard());
+        Table.get().drawBoard(Table.get().getGameBoard());
     }
 
     private void populateMenuBar(final JMenuBar tableMenuBar) {
@@ -142,6 +170,15 @@ public final class Table implements ActionListener {
                 System.exit(0);
             }
         });
+        final JMenuItem findPositionMenuItem = new JMenuItem("Find games with this position...", KeyEvent.VK_G);
+        findPositionMenuItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(final ActionEvent e) {
+                findGamesWithPosition();
+            }
+        });
+        filesMenu.add(findPositionMenuItem);
+        filesMenu.addSeparator();
         filesMenu.add(exitMenuItem);
 
         return filesMenu;
@@ -163,16 +200,39 @@ public final class Table implements ActionListener {
         optionsMenu.add(resetMenuItem);
 
         final JMenuItem undoMoveMenuItem = new JMenuItem("Undo last move", KeyEvent.VK_M);
+        undoMoveMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK));
         undoMoveMenuItem.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(final ActionEvent e) {
-                if(Table.get().getMoveLog().size() > 0) {
+                if(Table.get().getMoveLog().getCurrentPly() > 0) {
                     undoLastMove();
                 }
             }
         });
         optionsMenu.add(undoMoveMenuItem);
 
+        final JMenuItem redoMoveMenuItem = new JMenuItem("Redo move", KeyEvent.VK_R);
+        redoMoveMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK));
+        redoMoveMenuItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(final ActionEvent e) {
+                if(Table.get().getMoveLog().getCurrentPly() < Table.get().getMoveLog().size()) {
+                    redoMove();
+                }
+            }
+        });
+        optionsMenu.add(redoMoveMenuItem);
+
+        final JMenuItem computerMoveMenuItem = new JMenuItem("Computer move", KeyEvent.VK_C);
+        computerMoveMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, InputEvent.CTRL_DOWN_MASK));
+        computerMoveMenuItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(final ActionEvent e) {
+                requestComputerMove();
+            }
+        });
+        optionsMenu.add(computerMoveMenuItem);
+
         return optionsMenu;
     }
 
@@ -188,7 +248,8 @@ public final class Table implements ActionListener {
             @Override
             public void actionPerformed(final ActionEvent e) {
                 boardDirection = boardDirection.opposite();
-                boardPanel.drawBoard(chessBoard);
+                boardPanel.flipBoard();
+                boardRenderer.setFlipped(boardDirection == BoardDirection.FLIPPED);
             }
         });
         preferencesMenu.add(flipBoardMenuItem);
@@ -200,69 +261,384 @@ public final class Table implements ActionListener {
             @Override
             public void actionPerformed(final ActionEvent e) {
                 highlightLegalMoves = cbLegalMoveHighlighter.isSelected();
+                drawBoard(chessBoard);
             }
         });
         preferencesMenu.add(cbLegalMoveHighlighter);
 
+        final JCheckBoxMenuItem cbBoardRenderer = new JCheckBoxMenuItem("Single Component Board", false);
+        cbBoardRenderer.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(final ActionEvent e) {
+                useBoardRenderer = cbBoardRenderer.isSelected();
+                gameFrame.remove(useBoardRenderer ? boardPanel : boardRenderer);
+                gameFrame.add(useBoardRenderer ? boardRenderer : boardPanel, BorderLayout.CENTER);
+                gameFrame.revalidate();
+                drawBoard(chessBoard);
+            }
+        });
+        preferencesMenu.add(cbBoardRenderer);
+
+        final JCheckBoxMenuItem cbAnalysis = new JCheckBoxMenuItem("Show Analysis", false);
+        cbAnalysis.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(final ActionEvent e) {
+                if (cbAnalysis.isSelected()) {
+                    gameFrame.add(analysisPanel, BorderLayout.SOUTH);
+                } else {
+                    gameFrame.remove(analysisPanel);
+                }
+                analysisPanel.setActive(cbAnalysis.isSelected(), chessBoard);
+                gameFrame.revalidate();
+                gameFrame.repaint();
+            }
+        });
+        preferencesMenu.add(cbAnalysis);
+
         return preferencesMenu;
     }
 
-    private void undoAllMoves() {
-        for(int i = Table.get().getMoveLog().size() - 1; i >= 0; i--) {
-            final Move lastMove = Table.get().getMoveLog().removeMove(Table.get().getMoveLog().size() - 1);
-            this.chessBoard = this.chessBoard.currentPlayer().unMakeMove(lastMove).getToBoard();
+    /**
+     * Metoda wyszukujaca w indeksie pozycji partie, w ktorych wystapila aktualna pozycja. Przy pierwszym uzyciu pyta o plik indeksu,
+     * a archiwum partii o tej samej nazwie (z rozszerzeniem .jga), jesli istnieje, sluzy do wypisania naglowkow znalezionych partii.
+     */
+    private void findGamesWithPosition() {
+        try {
+            if (this.positionIndex == null) {
+                final JFileChooser chooser = new JFileChooser();
+                if (chooser.showOpenDialog(this.gameFrame) != JFileChooser.APPROVE_OPTION) {
+                    return;
+                }
+                final File indexFile = chooser.getSelectedFile();
+                this.positionIndex = new PositionIndex(indexFile);
+                final String name = indexFile.getName();
+                final File archiveFile = new File(indexFile.getParentFile(),
+                        (name.lastIndexOf('.') > 0 ? name.substring(0, name.lastIndexOf('.')) : name) + ".jga");
+                if (archiveFile.isFile()) {
+                    this.positionArchive = new GameArchiveReader(archiveFile);
+                }
+            }
+            final long hash = this.chessBoard.getZobristHash();
+            final StringBuilder message = new StringBuilder();
+            message.append(this.positionIndex.count(hash)).append(" occurrences\n");
+            for (final PositionIndex.Hit hit : this.positionIndex.find(hash, MAX_POSITION_HITS)) {
+                message.append('\n');
+                if (this.positionArchive != null) {
+                    final Map<String, String> tags = this.positionArchive.getTags(hit.getGame());
+                    message.append(tags.getOrDefault("White", "?")).append(" - ").append(tags.getOrDefault("Black", "?"))
+                           .append(" (").append(tags.getOrDefault("Event", "?")).append("), ");
+                }
+                message.append(hit);
+            }
+            JOptionPane.showMessageDialog(this.gameFrame, message.toString(), "Position search", JOptionPane.INFORMATION_MESSAGE);
+        } catch (final IOException e) {
+            this.positionIndex = null;
+            JOptionPane.showMessageDialog(this.gameFrame, e.getMessage(), "Position search", JOptionPane.ERROR_MESSAGE);
         }
+    }
+
+    private void undoAllMoves() {
+        this.gameController.cancel();
+        this.chessBoard = Table.get().getMoveLog().getBoard(0);
         this.computerMove = null;
-        Table.get().getMoveLog().clear();
+        clearSelection();
+        Table.get().getMoveLog().clear(chessBoard);
         Table.get().getGameHistoryPanel().redo(chessBoard, Table.get().getMoveLog());
         Table.get().getTakenPiecesPanel().redo(Table.get().getMoveLog());
-        Table.get().getBoardPanel().drawBoard(chessBoard);
+        Table.get().drawBoard(chessBoard);
     }
 
     private void undoLastMove() {
-        final Move lastMove = Table.get().getMoveLog().removeMove(Table.get().getMoveLog().size() - 1);
-        this.chessBoard = this.chessBoard.currentPlayer().unMakeMove(lastMove).getToBoard();
+        jumpToPly(Table.get().getMoveLog().getCurrentPly() - 1);
+    }
+
+    private void redoMove() {
+        jumpToPly(Table.get().getMoveLog().getCurrentPly() + 1);
+    }
+
+    /**
+     * Metoda ustawiajaca na planszy pozycje po podanym polruchu partii - ruchy dalej w partii zostaja zachowane do ponowienia
+     * @param ply numer polruchu od 0 do liczby zapisanych polruchow
+     */
+    private void jumpToPly(final int ply) {
+        this.gameController.cancel();
+        this.chessBoard = Table.get().getMoveLog().jumpTo(ply);
         this.computerMove = null;
-        Table.get().getMoveLog().removeMove(lastMove);
+        clearSelection();
         Table.get().getGameHistoryPanel().redo(chessBoard, Table.get().getMoveLog());
         Table.get().getTakenPiecesPanel().redo(Table.get().getMoveLog());
-        Table.get().getBoardPanel().drawBoard(chessBoard);
+        Table.get().drawBoard(chessBoard);
     }
 
     @Override
     public void actionPerformed(ActionEvent e) {}
 
     /**
-     * Klasa odpowiadajaca za rysowanie planszy.
+     * Metoda rysujaca plansze aktualnie wybranym sposobem - polami BoardPanel lub jednym komponentem BoardRenderer - oraz
+     * przekazujaca pozycje do panelu analizy
+     * @param board aktualna plansza
+     */
+    private void drawBoard(final Board board) {
+        this.analysisPanel.setPosition(board);
+        if (this.useBoardRenderer) {
+            final int ply = this.moveLog.getCurrentPly();
+            final int lastMove = ply > 0 ? this.moveLog.getMoveCode(ply - 1) : -1;
+            this.boardRenderer.drawBoard(board, selectedTile(board), highlightedDestinations(),
+                    lastMove == -1 ? -1 : lastMove & 63, lastMove == -1 ? -1 : (lastMove >>> 6) & 63);
+        } else {
+            this.boardPanel.drawBoard(board);
+        }
+    }
+
+    /**
+     * Metoda obslugujaca wcisniecie przycisku myszy nad polem planszy: gdy wybrany pionek moze przejsc na to pole, ruch jest
+     * wykonywany (ruch dwoma kliknieciami), w przeciwnym razie zaznaczany jest pionek gracza z tego pola, ktory mozna tez
+     * przeciagnac. Prawy przycisk anuluje zaznaczenie. Kazde wcisniecie uniewaznia wynik zadania, ktore jeszcze nie zostalo
+     * zakonczone, np. ruch komputera.
+     * @param tileId numer pola lub -1 poza plansza
+     * @param event zdarzenie myszy
+     */
+    private void tilePressed(final int tileId,
+                             final MouseEvent event) {
+        this.gameController.cancel();
+        if (isLeftMouseButton(event) && tileId != -1) {
+            if (!makeSelectedMove(tileId)) {
+                selectPiece(tileId);
+            }
+        } else {
+            clearSelection();
+        }
+        drawBoard(chessBoard);
+    }
+
+    /**
+     * Metoda obslugujaca zwolnienie przycisku myszy - upuszczenie przeciaganego pionka na inne pole wykonuje ruch, o ile pole
+     * nalezy do maski dozwolonych pol docelowych
+     * @param tileId numer pola pod kursorem lub -1 poza plansza
+     * @param event zdarzenie myszy
+     */
+    private void tileReleased(final int tileId,
+                              final MouseEvent event) {
+        if (isLeftMouseButton(event) && sourceTile != null && tileId != -1 && tileId != sourceTile.getPiecePosition() &&
+            makeSelectedMove(tileId)) {
+            drawBoard(chessBoard);
+        }
+    }
+
+    /**
+     * Metoda zaznaczajaca pionek gracza wykonujacego ruch i wyznaczajaca raz maske pol, na ktore moze on zgodnie z zasadami
+     * przejsc (ruchy zostawiajace krola w szachu sa odrzucane)
+     * @param tileId numer pola pionka
+     */
+    private void selectPiece(final int tileId) {
+        clearSelection();
+        final Piece piece = chessBoard.getPiece(tileId);
+        if (piece == null || piece.getPieceAllegiance() != chessBoard.currentPlayer().getAlliance()) {
+            return;
+        }
+        sourceTile = piece;
+        humanMovedPiece = piece;
+        for (final Move move : chessBoard.currentPlayer().getLegalMoves()) {
+            final long destination = 1L << move.getDestinationCoordinate();
+            if (move.getCurrentCoordinate() == tileId && (this.legalDestinationMask & destination) == 0L &&
+                !move.execute().currentPlayer().getOpponent().isInCheck()) {
+                this.legalDestinationMask |= destination;
+                this.legalMovesByDestination[move.getDestinationCoordinate()] = move;
+            }
+        }
+    }
+
+    private void clearSelection() {
+        sourceTile = null;
+        humanMovedPiece = null;
+        this.legalDestinationMask = 0L;
+        Arrays.fill(this.legalMovesByDestination, null);
+    }
+
+    /**
+     * Metoda wykonujaca w tle ruch zaznaczonego pionka na podane pole, jesli pole nalezy do maski dozwolonych pol docelowych -
+     * ruch nie jest ponownie generowany ani sprawdzany
+     * @param tileId numer pola docelowego
+     * @return zwraca prawde gdy ruch zostal zlecony
+     */
+    private boolean makeSelectedMove(final int tileId) {
+        if ((this.legalDestinationMask & (1L << tileId)) == 0L) {
+            return false;
+        }
+        this.gameController.applyMove(chessBoard, this.legalMovesByDestination[tileId], transition -> {
+            if (transition.getMoveStatus().isDone()) {
+                moveMade(transition);
+            }
+        });
+        clearSelection();
+        return true;
+    }
+
+    /**
+     * Metoda zlecajaca wyszukanie w tle ruchu komputera dla aktualnej pozycji - ruch jest wykonywany po zakonczeniu
+     * przeszukiwania, o ile w miedzyczasie pozycja sie nie zmienila
+     */
+    private void requestComputerMove() {
+        clearSelection();
+        final Board board = this.chessBoard;
+        this.gameController.searchMove(board, COMPUTER_MOVE_TIME_MILLIS, transition -> {
+            if (transition != null && transition.getMoveStatus().isDone()) {
+                this.computerMove = transition.getTransitionMove();
+                moveMade(transition);
+            }
+        });
+        drawBoard(this.chessBoard);
+    }
+
+    /**
+     * Metoda ustawiajaca plansze po wykonanym ruchu, zapisujaca ruch w historii i odswiezajaca panele
+     * @param transition wykonany ruch
+     */
+    private void moveMade(final MoveTransition transition) {
+        this.chessBoard = transition.getToBoard();
+        this.moveLog.addMove(transition.getTransitionMove(), this.chessBoard);
+        this.gameHistoryPanel.redo(this.chessBoard, this.moveLog);
+        this.takenPiecesPanel.redo(this.moveLog);
+        drawBoard(this.chessBoard);
+    }
+
+    /**
+     * Metoda zwracajaca pole zaznaczonego pionka gracza wykonujacego ruch
+     * @param board aktualna plansza
+     * @return zwraca numer pola lub -1, gdy nic nie jest zaznaczone
+     */
+    private int selectedTile(final Board board) {
+        if (humanMovedPiece != null && humanMovedPiece.getPieceAllegiance() == board.currentPlayer().getAlliance()) {
+            return humanMovedPiece.getPiecePosition();
+        }
+        return -1;
+    }
+
+    /**
+     * Metoda zwracajaca pola docelowe ruchow zaznaczonego pionka do podswietlenia, po wybraniu takiej opcji w panelu Menu
+     * @return zwraca maske bitowa pol docelowych wyznaczona przy zaznaczeniu pionka
+     */
+    private long highlightedDestinations() {
+        return getHighlightLegalMoves() ? this.legalDestinationMask : 0L;
+    }
+
+    /**
+     * Metoda wyznaczajaca pola, na ktorych zmienil sie pionek (rodzaj lub kolor) pomiedzy dwiema planszami
+     * @param previous plansza poprzednio narysowana lub null
+     * @param next nowa plansza
+     * @return zwraca maske bitowa zmienionych pol (bit i odpowiada polu i), a dla braku poprzedniej planszy wszystkie pola
+     */
+    private static long changedTiles(final Board previous,
+                                     final Board next) {
+        if (previous == null) {
+            return -1L;
+        }
+        if (previous == next) {
+            return 0L;
+        }
+        long changed = 0L;
+        for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+            final Piece before = previous.getPiece(tile);
+            final Piece after = next.getPiece(tile);
+            if (before != after && (before == null || after == null ||
+                before.getPieceType() != after.getPieceType() ||
+                before.getPieceAllegiance() != after.getPieceAllegiance())) {
+                changed |= 1L << tile;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Klasa odpowiadajaca za rysowanie planszy. Pamieta ostatnio narysowany stan (plansze, zaznaczone pole i podswietlone ruchy)
+     * i przy kolejnym rysowaniu odswieza tylko pola, ktore sie zmienily - pola nie sa usuwane ani dodawane, a uklad nie jest
+     * przeliczany. Obrocenie planszy zmienia jedynie polozenie pol.
      */
     private class BoardPanel extends JPanel {
 
         final List<TilePanel> boardTiles;
+        private Board drawnBoard;
+        private int drawnSelection;
+        private long drawnLegals;
 
         BoardPanel() {
-            super(new GridLayout(8,8));
+            super(null);
             this.boardTiles = new ArrayList<>();
             for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
                 final TilePanel tilePanel = new TilePanel(this, i);
                 this.boardTiles.add(tilePanel);
                 add(tilePanel);
             }
+            this.drawnSelection = -1;
             setPreferredSize(BOARD_PANEL_DIMENSION);
             setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-            setBackground(Color.decode("#8B4726"));
+            setBackground(BOARD_BORDER_COLOR);
             validate();
         }
 
-        void drawBoard(final Board board) {
-            removeAll();
-            for (final TilePanel boardTile : boardDirection.traverse(boardTiles)) {
-                boardTile.drawTile(board);
-                add(boardTile);
+        /**
+         * Metoda rozmieszczajaca pola w siatce 8x8 w kolejnosci wyznaczonej przez kierunek planszy
+         */
+        @Override
+        public void doLayout() {
+            final Insets insets = getInsets();
+            final int width = getWidth() - insets.left - insets.right;
+            final int height = getHeight() - insets.top - insets.bottom;
+            final List<TilePanel> tiles = boardDirection.traverse(this.boardTiles);
+            for (int i = 0; i < tiles.size(); i++) {
+                final int column = i % BoardUtils.NUM_TILES_PER_ROW;
+                final int row = i / BoardUtils.NUM_TILES_PER_ROW;
+                final int x = insets.left + column * width / BoardUtils.NUM_TILES_PER_ROW;
+                final int y = insets.top + row * height / BoardUtils.NUM_TILES_PER_ROW;
+                tiles.get(i).setBounds(x, y,
+                        insets.left + (column + 1) * width / BoardUtils.NUM_TILES_PER_ROW - x,
+                        insets.top + (row + 1) * height / BoardUtils.NUM_TILES_PER_ROW - y);
             }
-            validate();
+        }
+
+        /**
+         * Metoda przestawiajaca pola po zmianie kierunku planszy - zawartosc pol sie nie zmienia
+         */
+        void flipBoard() {
+            doLayout();
             repaint();
         }
 
+        /**
+         * Metoda rysujaca plansze - odswiezane sa tylko pola, na ktorych zmienil sie pionek, zaznaczenie lub podswietlenie ruchu
+         * @param board aktualna plansza
+         */
+        void drawBoard(final Board board) {
+            final int selection = selectedTile(board);
+            final long legals = highlightedDestinations();
+            long dirty = changedTiles(this.drawnBoard, board) | (legals ^ this.drawnLegals);
+            if (selection != this.drawnSelection) {
+                dirty |= tileMask(selection) | tileMask(this.drawnSelection);
+            }
+            while (dirty != 0L) {
+                final int tile = Long.numberOfTrailingZeros(dirty);
+                this.boardTiles.get(tile).drawTile(board.getPiece(tile), tile == selection, (legals & (1L << tile)) != 0L);
+                dirty &= dirty - 1;
+            }
+            this.drawnBoard = board;
+            this.drawnSelection = selection;
+            this.drawnLegals = legals;
+        }
+
+        /**
+         * Metoda wyznaczajaca pole planszy pod wskazanym punktem panelu
+         * @param point punkt we wspolrzednych panelu
+         * @return zwraca numer pola lub -1, gdy punkt lezy poza polami
+         */
+        int tileAt(final Point point) {
+            final Component component = getComponentAt(point);
+            return component instanceof TilePanel ? ((TilePanel) component).tileId : -1;
+        }
+
+        private long tileMask(final int tile) {
+            return tile == -1 ? 0L : 1L << tile;
+        }
+
     }
 
     /**
@@ -297,96 +673,28 @@ public final class Table implements ActionListener {
 
     }
 
-    /**
-     * Klasa odpowiedzialna za przechowywanie dostepnych ruchow oraz operacje na liscie ruchow.
-     */
-
-    public static class MoveLog {
-
-        private final List<Move> moves;
-
-        MoveLog() {
-            this.moves = new ArrayList<>();
-        }
-
-        public List<Move> getMoves() {
-            return this.moves;
-        }
-
-        void addMove(final Move move) {
-            this.moves.add(move);
-        }
-
-        public int size() {
-            return this.moves.size();
-        }
-
-        void clear() {
-            this.moves.clear();
-        }
-
-        Move removeMove(final int index) {
-            return this.moves.remove(index);
-        }
-
-        boolean removeMove(final Move move) {
-            return this.moves.remove(move);
-        }
-
-    }
-
     /**
      * Klasa odpowiedzialna za rysowanie oraz przypisanie parametrow elementom skladowym planszy oraz obslugujaca reakcje klikania myszy.
+     * Pole nie zawiera komponentow potomnych - obraz pionka i znacznik ruchu sa rysowane bezposrednio, wiec zmiana zawartosci
+     * wymaga jedynie odmalowania pola.
      */
 
     private class TilePanel extends JPanel {
 
         private final int tileId;
+        private ImageIcon pieceIcon;
+        private boolean legalDestination;
 
         TilePanel(final BoardPanel boardPanel,
                   final int tileId) {
-            super(new GridBagLayout());
+            super(null);
             this.tileId = tileId;
             setPreferredSize(TILE_PANEL_DIMENSION);
+            setBorder(TILE_BORDER);
             assignTileColor();
-            assignTilePieceIcon(chessBoard);
-            highlightTileBorder(chessBoard);
             addMouseListener(new MouseListener() {
                 @Override
-                public void mouseClicked(final MouseEvent event) {
-
-                    if (isRightMouseButton(event)) {
-                        sourceTile = null;
-                        humanMovedPiece = null;
-                    } else if (isLeftMouseButton(event)) {
-                        if (sourceTile == null) {
-                            sourceTile = chessBoard.getPiece(tileId);
-                            humanMovedPiece = sourceTile;
-                            if (humanMovedPiece == null) {
-                                sourceTile = null;
-                            }
-                        } else {
-                            final Move move = MoveFactory.createMove(chessBoard, sourceTile.getPiecePosition(),
-                                    tileId);
-                            final MoveTransition transition = chessBoard.currentPlayer().makeMove(move);
-                            if (transition.getMoveStatus().isDone()) {
-                                chessBoard = transition.getToBoard();
-                                moveLog.addMove(move);
-                            }
-                            sourceTile = null;
-                            humanMovedPiece = null;
-                        }
-                    }
-                    /**
-                     * Metoda Runnable wywolywana podczas klikniecia myszka
-                     */
-                    invokeLater(new Runnable() {
-                        public void run() {
-                            gameHistoryPanel.redo(chessBoard, moveLog);
-                            takenPiecesPanel.redo(moveLog);
-                            boardPanel.drawBoard(chessBoard);
-                        }
-                    });
+                public void mouseClicked(final MouseEvent e) {
                 }
 
                 @Override
@@ -398,90 +706,49 @@ public final class Table implements ActionListener {
                 }
 
                 @Override
-                public void mouseReleased(final MouseEvent e) {
+                public void mouseReleased(final MouseEvent event) {
+                    tileReleased(boardPanel.tileAt(convertPoint(TilePanel.this, event.getPoint(), boardPanel)), event);
                 }
 
                 @Override
-                public void mousePressed(final MouseEvent e) {
+                public void mousePressed(final MouseEvent event) {
+                    tilePressed(tileId, event);
                 }
             });
-            validate();
         }
 
         /**
-         * Metoda rysujaca pola na szachownicy
-         * @param board aktualna plansza
+         * Metoda ustawiajaca zawartosc pola na szachownicy i zlecajaca jego odmalowanie
+         * @param piece pionek stojacy na polu lub null
+         * @param selected czy pole jest zaznaczone przez gracza
+         * @param legalDestination czy pole jest podswietlonym celem ruchu zaznaczonego pionka
          */
-        void drawTile(final Board board) {
-            assignTileColor();
-            assignTilePieceIcon(board);
-            highlightTileBorder(board);
-            highlightLegals(board);
-            validate();
+        void drawTile(final Piece piece,
+                      final boolean selected,
+                      final boolean legalDestination) {
+            this.pieceIcon = piece == null ? null : PieceSprites.INSTANCE.getIcon(piece.getPieceAllegiance(), piece.getPieceType());
+            this.legalDestination = legalDestination;
+            setBorder(selected ? SELECTED_TILE_BORDER : TILE_BORDER);
             repaint();
         }
 
         /**
-         * Metoda podswietlajaca pola po wcisnieciu ich przez gracza
-         * @param board aktualna plansza
-         */
-        private void highlightTileBorder(final Board board) {
-            if(humanMovedPiece != null &&
-               humanMovedPiece.getPieceAllegiance() == board.currentPlayer().getAlliance() &&
-               humanMovedPiece.getPiecePosition() == this.tileId) {
-                setBorder(BorderFactory.createLineBorder(Color.cyan));
-            } else {
-                setBorder(BorderFactory.createLineBorder(Color.GRAY));
-            }
-        }
-
-        /**
-         * Metoda pokazujaca dostepne ruchy, po wybraniu takiej opcji w panelu Menu
-         * @param board aktualna plansza
-         */
-        private void highlightLegals(final Board board) {
-            if (Table.get().getHighlightLegalMoves()) {
-                for (final Move move : pieceLegalMoves(board)) {
-                    if (move.getDestinationCoordinate() == this.tileId) {
-                        try {
-                            add(new JLabel(new ImageIcon(ImageIO.read(getClass().getResource("/Alert/green_dot.png")))));
-                        }
-                        catch (final IOException e) {
-                            e.printStackTrace();
-                        }
-                    }
-                }
-            }
-        }
-
-        /**
-         * Metoda wyliczajaca aktualne dostepne ruchy gracza
-         * @param board aktualna plansza
-         * @return lista aktualnych dostepnych ruchow gracza
+         * Metoda rysujaca tlo pola, obraz pionka oraz znacznik dostepnego ruchu na srodku pola
+         * @param g kontekst graficzny
          */
-        private Collection<Move> pieceLegalMoves(final Board board) {
-            if(humanMovedPiece != null && humanMovedPiece.getPieceAllegiance() == board.currentPlayer().getAlliance()) {
-                return humanMovedPiece.calculateLegalMoves(board);
+        @Override
+        protected void paintComponent(final Graphics g) {
+            super.paintComponent(g);
+            paintCentered(g, this.pieceIcon);
+            if (this.legalDestination) {
+                paintCentered(g, PieceSprites.INSTANCE.getLegalMoveIcon());
             }
-            return Collections.emptyList();
         }
 
-        /**
-         * Metoda przypisujaca polom odpowiednie obrazy pionkow
-         * @param board aktualna plansza
-         */
-        private void assignTilePieceIcon(final Board board) {
-            this.removeAll();
-            if(board.getPiece(this.tileId) != null) {
-                try{
-                    final BufferedImage image = ImageIO.read(getClass().getResource("/Pieces/" +
-                            board.getPiece(this.tileId).getPieceAllegiance().toString().substring(0, 1) + "" +
-                            board.getPiece(this.tileId).toString() +
-                            ".gif"));
-                    add(new JLabel(new ImageIcon(image)));
-                } catch(final IOException e) {
-                    e.printStackTrace();
-                }
+        private void paintCentered(final Graphics g,
+                                   final ImageIcon icon) {
+            if (icon != null) {
+                icon.paintIcon(this, g, (getWidth() - icon.getIconWidth()) / 2, (getHeight() - icon.getIconHeight()) / 2);
             }
         }
 
@@ -503,4 +770,3 @@ public final class Table implements ActionListener {
         }
     }
 }
-
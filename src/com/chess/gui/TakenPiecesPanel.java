@@ -4,37 +4,46 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.GridLayout;
-import java.awt.Image;
-import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.List;
-import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.SwingConstants;
 import javax.swing.border.EtchedBorder;
 
-import com.chess.engine.board.Move;
-import com.chess.engine.pieces.Piece;
-import com.chess.gui.Table.MoveLog;
-import com.google.common.primitives.Ints;
+import com.chess.engine.Alliance;
+import com.chess.engine.board.MaterialKey;
+import com.chess.engine.pieces.Piece.PieceType;
 
 /**
  * Klasa odpowiadajaca za stworzenie pola reprezentujacego zbite pionki.
+ * Zbite bierki sa odczytywane z klucza materialu prowadzonego przyrostowo przez MoveLog, a kazda strona panelu ma stala liste
+ * miejsc, w ktorych zmieniane sa tylko obrazy rozniace sie od poprzednio wyswietlonych. Bilans materialu jest liczony
+ * z klucza materialu planszy.
  */
 
 class TakenPiecesPanel extends JPanel {
 
     private final JPanel northPanel;
     private final JPanel southPanel;
+    private final JLabel[] northSlots;
+    private final JLabel[] southSlots;
+    private final JLabel balanceLabel;
+    private long displayedKey;
+    private int displayedBalance;
 
     private static final long serialVersionUID = 1L;
     private static final Color PANEL_COLOR = Color.decode("0xFDF5E6");
     private static final Dimension TAKEN_PIECES_PANEL_DIMENSION = new Dimension(40, 80);
     private static final EtchedBorder PANEL_BORDER = new EtchedBorder(EtchedBorder.RAISED);
+    private static final int TAKEN_PIECE_INSET = 20;
+    private static final int SLOTS = 16;
+    private static final int[] PIECE_POINTS = {1, 3, 3, 5, 9};
+    private static final PieceType[] TAKEN_PIECE_ORDER = Arrays.stream(PieceType.values())
+                                                               .filter(pieceType -> !pieceType.isKing())
+                                                               .sorted(Comparator.comparingInt(PieceType::getPieceValue))
+                                                               .toArray(PieceType[]::new);
 
     /**
      * Konstruktor - ustawiaja kolor tla pola, dzieli je na strefe polnocna oraz poludniowa zbitych pionkow i ustawia odpowiedni rozmiar.
@@ -47,91 +56,92 @@ class TakenPiecesPanel extends JPanel {
         this.southPanel = new JPanel(new GridLayout(8, 2));
         this.northPanel.setBackground(PANEL_COLOR);
         this.southPanel.setBackground(PANEL_COLOR);
+        this.northSlots = createSlots(this.northPanel);
+        this.southSlots = createSlots(this.southPanel);
+        this.balanceLabel = new JLabel("0", SwingConstants.CENTER);
         add(this.northPanel, BorderLayout.NORTH);
+        add(this.balanceLabel, BorderLayout.CENTER);
         add(this.southPanel, BorderLayout.SOUTH);
         setPreferredSize(TAKEN_PIECES_PANEL_DIMENSION);
     }
 
+    private static JLabel[] createSlots(final JPanel panel) {
+        final JLabel[] slots = new JLabel[SLOTS];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new JLabel();
+            panel.add(slots[i]);
+        }
+        return slots;
+    }
+
     /**
-     * Metoda czyszczaca zbite pionki znajdujace sie w panelu.
+     * Metoda pokazujaca bierki zbite do aktualnej pozycji oraz bilans materialu - odswiezane sa tylko zmienione miejsca.
      * @param moveLog lista wykonanych ruchow
      */
     public void redo(final MoveLog moveLog) {
-        southPanel.removeAll();
-        northPanel.removeAll();
-        
-        final List<Piece> whiteTakenPieces = new ArrayList<>();
-        final List<Piece> blackTakenPieces = new ArrayList<>();
-
-        for(final Move move: moveLog.getMoves()) {
-            if(move.isAttack()) {
-                final Piece takenPiece = move.getAttackedPiece();
-                if(takenPiece.getPieceAllegiance().isWhite()) {
-                    whiteTakenPieces.add(takenPiece);
-                } else if(takenPiece.getPieceAllegiance().isBlack()){
-                    blackTakenPieces.add(takenPiece);
-                } else {
-                    throw new RuntimeException("Should not reach here!");
-                }
-            }
+        final long capturedKey = moveLog.getCapturedMaterialKey();
+        if (MaterialKey.side(capturedKey, Alliance.WHITE) != MaterialKey.side(this.displayedKey, Alliance.WHITE)) {
+            fillSlots(this.southSlots, capturedKey, Alliance.WHITE);
         }
+        if (MaterialKey.side(capturedKey, Alliance.BLACK) != MaterialKey.side(this.displayedKey, Alliance.BLACK)) {
+            fillSlots(this.northSlots, capturedKey, Alliance.BLACK);
+        }
+        this.displayedKey = capturedKey;
 
-        /**
-         * Sortowanie zbitych bialych pionkow po ich wartosciowosci.
-         */
-        Collections.sort(whiteTakenPieces, new Comparator<Piece>() {
-            @Override
-            public int compare(final Piece p1, final Piece p2) {
-                return Ints.compare(p1.getPieceValue(), p2.getPieceValue());
-            }
-        });
-
-        /**
-         * Sortowanie zbitych czarnych pionkow po ich wartosciowosci.
-         */
-        Collections.sort(blackTakenPieces, new Comparator<Piece>() {
-            @Override
-            public int compare(final Piece p1, final Piece p2) {
-                return Ints.compare(p1.getPieceValue(), p2.getPieceValue());
-            }
-        });
+        final long materialKey = moveLog.getCurrentBoard().getMaterialKey();
+        final int balance = points(materialKey, Alliance.WHITE) - points(materialKey, Alliance.BLACK);
+        if (balance != this.displayedBalance) {
+            this.balanceLabel.setText(balance > 0 ? "+" + balance : Integer.toString(balance));
+            this.displayedBalance = balance;
+        }
+    }
 
-        /**
-         * Dodawanie reprezentacji graficznej zbitych pionkow do panelu dla bialych pionkow.
-         */
-        for (final Piece takenPiece : whiteTakenPieces) {
-            try {
-                final BufferedImage image = ImageIO.read(getClass().getResource("/Pieces/"
-                        + takenPiece.getPieceAllegiance().toString().substring(0, 1) + "" + takenPiece.toString()
-                        + ".gif"));
-                final ImageIcon ic = new ImageIcon(image);
-                final JLabel imageLabel = new JLabel(new ImageIcon(ic.getImage().getScaledInstance(
-                        ic.getIconWidth() - 20, ic.getIconWidth() - 20, Image.SCALE_SMOOTH)));
-                this.southPanel.add(imageLabel);
-            }
-            catch (final IOException e) {
-                e.printStackTrace();
+    /**
+     * Metoda ustawiajaca obrazy zbitych bierek jednego koloru w kolejnosci ich wartosci
+     * @param slots miejsca na obrazy
+     * @param capturedKey klucz materialu zbitych bierek
+     * @param alliance kolor zbitych bierek
+     */
+    private static void fillSlots(final JLabel[] slots,
+                                  final long capturedKey,
+                                  final Alliance alliance) {
+        int slot = 0;
+        for (final PieceType pieceType : TAKEN_PIECE_ORDER) {
+            final ImageIcon icon = takenPieceIcon(alliance, pieceType);
+            for (int i = MaterialKey.count(capturedKey, alliance, pieceType); i > 0 && slot < slots.length; i--) {
+                setSlot(slots[slot++], icon);
             }
         }
+        while (slot < slots.length) {
+            setSlot(slots[slot++], null);
+        }
+    }
 
-        /**
-         * Dodawanie reprezentacji graficznej zbitych pionkow do panelu dla czarnych pionkow.
-         */
-        for (final Piece takenPiece : blackTakenPieces) {
-            try {
-                final BufferedImage image = ImageIO.read(getClass().getResource("/Pieces/"
-                        + takenPiece.getPieceAllegiance().toString().substring(0, 1) + "" + takenPiece.toString()
-                        + ".gif"));
-                final ImageIcon ic = new ImageIcon(image);
-                final JLabel imageLabel = new JLabel(new ImageIcon(ic.getImage().getScaledInstance(
-                        ic.getIconWidth() - 20, ic.getIconWidth() - 20, Image.SCALE_SMOOTH)));
-                this.northPanel.add(imageLabel);
+    private static void setSlot(final JLabel slot,
+                                final ImageIcon icon) {
+        if (slot.getIcon() != icon) {
+            slot.setIcon(icon);
+        }
+    }
 
-            } catch (final IOException e) {
-                e.printStackTrace();
-            }
+    /**
+     * Metoda liczaca material jednej strony w punktach (pion 1, skoczek i goniec 3, wieza 5, hetman 9)
+     */
+    private static int points(final long materialKey,
+                              final Alliance alliance) {
+        int points = 0;
+        for (final PieceType pieceType : TAKEN_PIECE_ORDER) {
+            points += MaterialKey.count(materialKey, alliance, pieceType) * PIECE_POINTS[pieceType.ordinal()];
         }
-        
-        validate();
+        return points;
+    }
+
+    /**
+     * Metoda zwracajaca pomniejszona ikone zbitego pionka z pamieci obrazow
+     */
+    private static ImageIcon takenPieceIcon(final Alliance alliance,
+                                            final PieceType pieceType) {
+        final ImageIcon icon = PieceSprites.INSTANCE.getIcon(alliance, pieceType);
+        return icon == null ? null : PieceSprites.INSTANCE.getIcon(alliance, pieceType, icon.getIconWidth() - TAKEN_PIECE_INSET);
     }
-}
\ No newline at end of file
+}
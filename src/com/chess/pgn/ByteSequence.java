@@ -0,0 +1,57 @@
+package com.chess.pgn;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Klasa udostepniajaca fragment bufora bajtow jako CharSequence bez kopiowania danych. Obiekt jest wielokrotnie
+ * przestawiany na kolejne tokeny, dzieki czemu parser nie tworzy obiektu String dla kazdego ruchu.
+ */
+final class ByteSequence implements CharSequence {
+
+    private ByteBuffer buffer;
+    private int start;
+    private int length;
+
+    /**
+     * Metoda ustawiajaca widok na podany fragment bufora
+     * @param buffer bufor z tekstem
+     * @param start poczatek fragmentu
+     * @param end koniec fragmentu (wylacznie)
+     * @return zwraca ten sam obiekt
+     */
+    ByteSequence set(final ByteBuffer buffer,
+                     final int start,
+                     final int end) {
+        this.buffer = buffer;
+        this.start = start;
+        this.length = end - start;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return this.length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        return (char) (this.buffer.get(this.start + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start,
+                                    final int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        final byte[] bytes = new byte[this.length];
+        for (int i = 0; i < this.length; i++) {
+            bytes[i] = this.buffer.get(this.start + i);
+        }
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+}
@@ -0,0 +1,390 @@
+package com.chess.pgn;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Zobrist;
+import com.chess.engine.pieces.Bishop;
+import com.chess.engine.pieces.King;
+import com.chess.engine.pieces.Knight;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Queen;
+import com.chess.engine.pieces.Rook;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Klasa zawierajaca odczyt i zapis pozycji w notacji FEN. Parser dziala bezposrednio na tablicy bajtow,
+ * dzieki czemu tryb masowy czyta plik przez jeden, ponownie uzywany bufor bez tworzenia obiektu String dla kazdej linii.
+ */
+public final class FenUtilities {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final char[] PIECE_CHARACTERS = {'P', 'N', 'B', 'R', 'Q', 'K'};
+
+    private FenUtilities() {
+        throw new RuntimeException("Not instantiatable!");
+    }
+
+    /**
+     * Metoda tworzaca plansze z zapisu FEN
+     * @param fen zapis FEN (liczniki ruchow sa opcjonalne, jak w EPD)
+     * @return zwraca plansze
+     */
+    public static Board createGameFromFEN(final String fen) {
+        final byte[] bytes = fen.getBytes(StandardCharsets.ISO_8859_1);
+        return parseFEN(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Metoda tworzaca plansze z zapisu FEN znajdujacego sie w podanym fragmencie tablicy bajtow
+     * @param buffer bufor z tekstem
+     * @param start poczatek zapisu FEN
+     * @param end koniec zapisu FEN (wylacznie)
+     * @return zwraca plansze
+     */
+    public static Board parseFEN(final byte[] buffer,
+                                 final int start,
+                                 final int end) {
+        return createBuilderFromFEN(buffer, start, end).build();
+    }
+
+    /**
+     * Metoda tworzaca builder planszy z zapisu FEN, np. by przed zbudowaniem planszy uzupelnic historie pozycji
+     * @param buffer bufor z tekstem
+     * @param start poczatek zapisu FEN
+     * @param end koniec zapisu FEN (wylacznie)
+     * @return zwraca builder z ustawionymi bierkami, graczem na ruchu i licznikami
+     */
+    public static Board.Builder createBuilderFromFEN(final byte[] buffer,
+                                                     final int start,
+                                                     final int end) {
+        final Board.Builder builder = new Board.Builder();
+        final Piece[] placement = new Piece[BoardUtils.NUM_TILES];
+        int position = skipSpaces(buffer, start, end);
+        int square = 0;
+        while (position < end && buffer[position] != ' ') {
+            final byte c = buffer[position++];
+            if (c == '/') {
+                continue;
+            }
+            if (c >= '1' && c <= '8') {
+                square += c - '0';
+                continue;
+            }
+            if (square >= BoardUtils.NUM_TILES) {
+                throw invalid(buffer, start, end);
+            }
+            placement[square] = createPiece((char) c, square);
+            square++;
+        }
+        if (square != BoardUtils.NUM_TILES) {
+            throw invalid(buffer, start, end);
+        }
+        position = skipSpaces(buffer, position, end);
+        if (position >= end || (buffer[position] != 'w' && buffer[position] != 'b')) {
+            throw invalid(buffer, start, end);
+        }
+        final Alliance moveMaker = buffer[position++] == 'w' ? Alliance.WHITE : Alliance.BLACK;
+        position = skipSpaces(buffer, position, end);
+        boolean whiteKingSide = false;
+        boolean whiteQueenSide = false;
+        boolean blackKingSide = false;
+        boolean blackQueenSide = false;
+        while (position < end && buffer[position] != ' ') {
+            switch (buffer[position++]) {
+                case 'K':
+                    whiteKingSide = true;
+                    break;
+                case 'Q':
+                    whiteQueenSide = true;
+                    break;
+                case 'k':
+                    blackKingSide = true;
+                    break;
+                case 'q':
+                    blackQueenSide = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+        position = skipSpaces(buffer, position, end);
+        int enPassantTarget = -1;
+        if (position + 1 < end && buffer[position] != '-') {
+            enPassantTarget = PGNUtilities.coordinateOf((char) buffer[position], (char) buffer[position + 1]);
+        }
+        while (position < end && buffer[position] != ' ') {
+            position++;
+        }
+        position = skipSpaces(buffer, position, end);
+        int halfmoveClock = 0;
+        while (position < end && buffer[position] >= '0' && buffer[position] <= '9') {
+            halfmoveClock = 10 * halfmoveClock + buffer[position++] - '0';
+        }
+        position = skipSpaces(buffer, position, end);
+        int fullmoveNumber = 0;
+        while (position < end && buffer[position] >= '0' && buffer[position] <= '9') {
+            fullmoveNumber = 10 * fullmoveNumber + buffer[position++] - '0';
+        }
+        for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+            final Piece piece = placement[i];
+            if (piece == null) {
+                continue;
+            }
+            if (piece.getPieceType().isKing()) {
+                builder.setPiece(createKing(piece.getPieceAllegiance(), i, whiteKingSide, whiteQueenSide,
+                                            blackKingSide, blackQueenSide));
+            } else if (piece.getPieceType().isRook()) {
+                builder.setPiece(new Rook(piece.getPieceAllegiance(), i,
+                                          isCastlingRook(piece.getPieceAllegiance(), i, whiteKingSide, whiteQueenSide,
+                                                         blackKingSide, blackQueenSide)));
+            } else {
+                builder.setPiece(piece);
+            }
+        }
+        if (enPassantTarget >= 0) {
+            final int pawnSquare = enPassantTarget + (moveMaker.isWhite() ? BoardUtils.NUM_TILES_PER_ROW : -BoardUtils.NUM_TILES_PER_ROW);
+            if (BoardUtils.isValidTileCoordinate(pawnSquare) && placement[pawnSquare] != null &&
+                placement[pawnSquare].getPieceType().isPawn() && placement[pawnSquare].getPieceAllegiance() != moveMaker) {
+                builder.setEnPassantPawn((Pawn) placement[pawnSquare]);
+            }
+        }
+        builder.setMoveMaker(moveMaker);
+        builder.setHalfmoveClock(halfmoveClock);
+        builder.setFullmoveNumber(Math.max(1, fullmoveNumber));
+        return builder;
+    }
+
+    /**
+     * Metoda tworzaca zapis FEN planszy
+     * @param board plansza
+     * @return zwraca zapis FEN
+     */
+    public static String createFENFromGame(final Board board) {
+        return appendFEN(board, new StringBuilder(90)).toString();
+    }
+
+    /**
+     * Metoda dopisujaca zapis FEN planszy do podanego bufora (bez dodatkowych alokacji poza ewentualnym powiekszeniem bufora)
+     * @param board plansza
+     * @param output bufor, do ktorego dopisywany jest zapis
+     * @return zwraca podany bufor
+     */
+    public static StringBuilder appendFEN(final Board board,
+                                          final StringBuilder output) {
+        for (int row = 0; row < BoardUtils.NUM_TILES_PER_ROW; row++) {
+            int empty = 0;
+            for (int file = 0; file < BoardUtils.NUM_TILES_PER_ROW; file++) {
+                final Piece piece = board.getPiece(row * BoardUtils.NUM_TILES_PER_ROW + file);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    output.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                final char c = PIECE_CHARACTERS[piece.getPieceType().ordinal()];
+                output.append(piece.getPieceAllegiance().isWhite() ? c : Character.toLowerCase(c));
+            }
+            if (empty > 0) {
+                output.append((char) ('0' + empty));
+            }
+            if (row < BoardUtils.NUM_TILES_PER_ROW - 1) {
+                output.append('/');
+            }
+        }
+        output.append(' ').append(board.currentPlayer().getAlliance().isWhite() ? 'w' : 'b').append(' ');
+        final int castleRights = Zobrist.castleRights(board);
+        if (castleRights == 0) {
+            output.append('-');
+        } else {
+            if ((castleRights & 1) != 0) {
+                output.append('K');
+            }
+            if ((castleRights & 2) != 0) {
+                output.append('Q');
+            }
+            if ((castleRights & 4) != 0) {
+                output.append('k');
+            }
+            if ((castleRights & 8) != 0) {
+                output.append('q');
+            }
+        }
+        output.append(' ');
+        final Pawn enPassantPawn = board.getEnPassantPawn();
+        if (enPassantPawn != null && enPassantPawn.getPieceAllegiance() != board.currentPlayer().getAlliance()) {
+            final int target = enPassantPawn.getPiecePosition() -
+                               enPassantPawn.getPieceAllegiance().getDirection() * BoardUtils.NUM_TILES_PER_ROW;
+            output.append((char) ('a' + target % BoardUtils.NUM_TILES_PER_ROW))
+                  .append((char) ('8' - target / BoardUtils.NUM_TILES_PER_ROW));
+        } else {
+            output.append('-');
+        }
+        return output.append(' ').append(board.getHalfmoveClock()).append(' ').append(board.getFullmoveNumber());
+    }
+
+    /**
+     * Metoda czytajaca masowo pozycje FEN z pliku (jedna pozycja w linii) przez jeden, ponownie uzywany bufor
+     * @param file plik z pozycjami
+     * @param consumer odbiorca kolejnych plansz
+     * @return zwraca liczbe wczytanych pozycji
+     * @throws IOException w przypadku bledu odczytu
+     */
+    public static long readFENs(final File file,
+                                final Consumer<Board> consumer) throws IOException {
+        try (final InputStream input = new FileInputStream(file)) {
+            return readFENs(input, consumer);
+        }
+    }
+
+    /**
+     * Metoda czytajaca masowo pozycje FEN ze strumienia (jedna pozycja w linii) przez jeden, ponownie uzywany bufor
+     * @param input strumien z pozycjami
+     * @param consumer odbiorca kolejnych plansz
+     * @return zwraca liczbe wczytanych pozycji
+     * @throws IOException w przypadku bledu odczytu
+     */
+    public static long readFENs(final InputStream input,
+                                final Consumer<Board> consumer) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int length = 0;
+        long count = 0;
+        int read;
+        while ((read = input.read(buffer, length, buffer.length - length)) >= 0 || length > 0) {
+            length += Math.max(0, read);
+            int lineStart = 0;
+            for (int i = 0; i < length; i++) {
+                if (buffer[i] == '\n') {
+                    count += parseLine(buffer, lineStart, i, consumer);
+                    lineStart = i + 1;
+                }
+            }
+            if (read < 0) {
+                count += parseLine(buffer, lineStart, length, consumer);
+                break;
+            }
+            length -= lineStart;
+            System.arraycopy(buffer, lineStart, buffer, 0, length);
+            if (length == buffer.length) {
+                final byte[] larger = new byte[buffer.length * 2];
+                System.arraycopy(buffer, 0, larger, 0, length);
+                buffer = larger;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Metoda zapisujaca masowo zapisy FEN plansz (jedna pozycja w linii) przez jeden, ponownie uzywany bufor
+     * @param boards plansze do zapisania
+     * @param writer strumien wyjsciowy
+     * @return zwraca liczbe zapisanych pozycji
+     * @throws IOException w przypadku bledu zapisu
+     */
+    public static long writeFENs(final Iterable<Board> boards,
+                                 final Writer writer) throws IOException {
+        final StringBuilder line = new StringBuilder(96);
+        long count = 0;
+        for (final Board board : boards) {
+            line.setLength(0);
+            appendFEN(board, line).append('\n');
+            writer.append(line);
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static int parseLine(final byte[] buffer,
+                                 final int start,
+                                 int end,
+                                 final Consumer<Board> consumer) {
+        if (end > start && buffer[end - 1] == '\r') {
+            end--;
+        }
+        if (skipSpaces(buffer, start, end) >= end) {
+            return 0;
+        }
+        consumer.accept(parseFEN(buffer, start, end));
+        return 1;
+    }
+
+    private static int skipSpaces(final byte[] buffer,
+                                  int position,
+                                  final int end) {
+        while (position < end && (buffer[position] == ' ' || buffer[position] == '\t')) {
+            position++;
+        }
+        return position;
+    }
+
+    private static Piece createPiece(final char c,
+                                     final int square) {
+        final Alliance alliance = Character.isUpperCase(c) ? Alliance.WHITE : Alliance.BLACK;
+        switch (Character.toUpperCase(c)) {
+            case 'P':
+                return new Pawn(alliance, square, alliance.isWhite() ? BoardUtils.INSTANCE.SEVENTH_ROW.get(square) :
+                                                                       BoardUtils.INSTANCE.SECOND_ROW.get(square));
+            case 'N':
+                return new Knight(alliance, square, isHomeSquare(alliance, square, 1, 6));
+            case 'B':
+                return new Bishop(alliance, square, isHomeSquare(alliance, square, 2, 5));
+            case 'R':
+                return new Rook(alliance, square, false);
+            case 'Q':
+                return new Queen(alliance, square, isHomeSquare(alliance, square, 3, 3));
+            case 'K':
+                return new King(alliance, square, false, false);
+            default:
+                throw new RuntimeException("Invalid FEN piece: " + c);
+        }
+    }
+
+    private static King createKing(final Alliance alliance,
+                                   final int square,
+                                   final boolean whiteKingSide,
+                                   final boolean whiteQueenSide,
+                                   final boolean blackKingSide,
+                                   final boolean blackQueenSide) {
+        final boolean kingSide = alliance.isWhite() ? whiteKingSide && square == 60 : blackKingSide && square == 4;
+        final boolean queenSide = alliance.isWhite() ? whiteQueenSide && square == 60 : blackQueenSide && square == 4;
+        return new King(alliance, square, kingSide || queenSide, false, kingSide, queenSide);
+    }
+
+    private static boolean isCastlingRook(final Alliance alliance,
+                                          final int square,
+                                          final boolean whiteKingSide,
+                                          final boolean whiteQueenSide,
+                                          final boolean blackKingSide,
+                                          final boolean blackQueenSide) {
+        if (alliance.isWhite()) {
+            return (square == 63 && whiteKingSide) || (square == 56 && whiteQueenSide);
+        }
+        return (square == 7 && blackKingSide) || (square == 0 && blackQueenSide);
+    }
+
+    private static boolean isHomeSquare(final Alliance alliance,
+                                        final int square,
+                                        final int firstFile,
+                                        final int secondFile) {
+        final int homeRow = alliance.isWhite() ? 56 : 0;
+        return square == homeRow + firstFile || square == homeRow + secondFile;
+    }
+
+    private static RuntimeException invalid(final byte[] buffer,
+                                            final int start,
+                                            final int end) {
+        return new RuntimeException("Invalid FEN: " + new String(buffer, start, end - start, StandardCharsets.ISO_8859_1));
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.chess.pgn;
+
+import com.chess.engine.board.Board;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Klasa przechowujaca partie wczytana przez PGNImporter - naglowki, ruchy w zwartym zapisie liczbowym, klucze Zobrist
+ * kolejnych pozycji oraz wynik. Partia nie przechowuje obiektow Board ani Move (kazdy ruch trzyma referencje do calej planszy),
+ * dzieki czemu tysiace wczytanych partii zajmuja niewiele pamieci. Jezeli ktoregos ruchu nie dalo sie wykonac, ruchy koncza sie
+ * na ostatnim poprawnym ruchu, a partia jest oznaczona jako niepoprawna.
+ */
+public final class ImportedGame {
+
+    private final Map<String, String> tags;
+    private final int[] moves;
+    private final long[] positionHashes;
+    private final String result;
+    private final boolean valid;
+
+    ImportedGame(final Map<String, String> tags,
+                 final int[] moves,
+                 final long[] positionHashes,
+                 final String result,
+                 final boolean valid) {
+        this.tags = Collections.unmodifiableMap(tags);
+        this.moves = moves;
+        this.positionHashes = positionHashes;
+        this.result = result;
+        this.valid = valid;
+    }
+
+    public Map<String, String> getTags() {
+        return this.tags;
+    }
+
+    /**
+     * Metoda zwracajaca liczbe wykonanych polruchow
+     * @return zwraca liczbe polruchow
+     */
+    public int getMoveCount() {
+        return this.moves.length;
+    }
+
+    /**
+     * Metoda zwracajaca ruch w zapisie liczbowym
+     * @param ply numer polruchu liczony od 0
+     * @return zwraca kod ruchu (PGNUtilities.encodeMove)
+     */
+    public int getMove(final int ply) {
+        return this.moves[ply];
+    }
+
+    /**
+     * Metoda zwracajaca klucz Zobrist pozycji przed podanym polruchem
+     * @param ply numer polruchu od 0 do getMoveCount() wlacznie (ostatni to pozycja koncowa)
+     * @return zwraca klucz Zobrist pozycji
+     */
+    public long getPositionHash(final int ply) {
+        return this.positionHashes[ply];
+    }
+
+    /**
+     * Metoda tworzaca plansze poczatkowa partii
+     * @return zwraca plansze standardowa lub plansze z naglowka FEN
+     */
+    public Board createInitialBoard() {
+        final String fen = this.tags.get("FEN");
+        return fen == null ? Board.createStandardBoard() : FenUtilities.createGameFromFEN(fen);
+    }
+
+    public String getResult() {
+        return this.result;
+    }
+
+    /**
+     * Metoda sprawdzajaca czy wszystkie ruchy partii udalo sie wykonac
+     * @return zwraca prawde gdy partia zostala wczytana w calosci
+     */
+    public boolean isValid() {
+        return this.valid;
+    }
+
+    /**
+     * Metoda zwracajaca wynik partii z punktu widzenia bialych
+     * @return zwraca 1 dla wygranej bialych, -1 dla wygranej czarnych, 0 dla remisu lub null gdy wynik jest nieznany
+     */
+    public Integer getWhiteScore() {
+        switch (this.result) {
+            case "1-0":
+                return 1;
+            case "0-1":
+                return -1;
+            case "1/2-1/2":
+                return 0;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.tags.getOrDefault("White", "?") + " - " + this.tags.getOrDefault("Black", "?") + " " + this.result;
+    }
+
+}
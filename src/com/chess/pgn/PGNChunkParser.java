@@ -0,0 +1,277 @@
+package com.chess.pgn;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.MoveTransition;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Klasa parsujaca fragment pliku PGN bezposrednio z bufora bajtow. Ruchy sa czytane przez wielokrotnie uzywany widok ByteSequence
+ * i od razu wykonywane na planszy, wiec dla tokenow zapisu partii nie powstaja obiekty String. Obiekt nie jest bezpieczny
+ * watkowo - kazdy watek roboczy uzywa wlasnej instancji.
+ */
+final class PGNChunkParser {
+
+    private final ByteSequence token = new ByteSequence();
+    private byte[] scratch = new byte[256];
+    private int[] moves = new int[256];
+    private long[] positionHashes = new long[257];
+    private int moveCount;
+
+    /**
+     * Metoda parsujaca wszystkie partie z fragmentu bufora
+     * @param buffer bufor z tekstem PGN
+     * @param start poczatek fragmentu
+     * @param end koniec fragmentu (wylacznie)
+     * @return zwraca partie w kolejnosci wystepowania we fragmencie
+     */
+    List<ImportedGame> parse(final ByteBuffer buffer,
+                             final int start,
+                             final int end) {
+        final List<ImportedGame> games = new ArrayList<>();
+        Map<String, String> tags = new LinkedHashMap<>();
+        Board board = null;
+        this.moveCount = 0;
+        boolean valid = true;
+        boolean inMoves = false;
+        boolean lineStart = true;
+        int variationDepth = 0;
+        int i = start;
+        while (i < end) {
+            final byte c = buffer.get(i);
+            if (c == '\n') {
+                lineStart = true;
+                i++;
+                continue;
+            }
+            if (c == ' ' || c == '\t' || c == '\r') {
+                i++;
+                continue;
+            }
+            final boolean firstOnLine = lineStart;
+            lineStart = false;
+            if (c == ';' || (c == '%' && firstOnLine)) {
+                i = skipTo(buffer, i, end, (byte) '\n');
+                continue;
+            }
+            if (c == '{') {
+                i = Math.min(end, skipTo(buffer, i, end, (byte) '}') + 1);
+                continue;
+            }
+            if (c == '(') {
+                variationDepth++;
+                i++;
+                continue;
+            }
+            if (c == ')') {
+                variationDepth = Math.max(0, variationDepth - 1);
+                i++;
+                continue;
+            }
+            if (c == '[' && variationDepth == 0) {
+                if (inMoves) {
+                    games.add(finishGame(tags, board, "*", valid));
+                    tags = new LinkedHashMap<>();
+                    board = null;
+                    valid = true;
+                    inMoves = false;
+                }
+                i = parseTag(buffer, i, end, tags);
+                continue;
+            }
+            int tokenEnd = i + 1;
+            while (tokenEnd < end && !isDelimiter(buffer.get(tokenEnd))) {
+                tokenEnd++;
+            }
+            if (variationDepth > 0 || c == '$') {
+                i = tokenEnd;
+                continue;
+            }
+            final String result = resultOf(buffer, i, tokenEnd);
+            if (result != null) {
+                games.add(finishGame(tags, board, result, valid));
+                tags = new LinkedHashMap<>();
+                board = null;
+                valid = true;
+                inMoves = false;
+                i = tokenEnd;
+                continue;
+            }
+            final int moveStart = stripMoveNumber(buffer, i, tokenEnd);
+            if (moveStart < tokenEnd) {
+                inMoves = true;
+                if (board == null) {
+                    board = initialBoard(tags);
+                    valid = board != null;
+                }
+                if (valid) {
+                    final MoveTransition transition =
+                            PGNUtilities.createMoveTransition(board, this.token.set(buffer, moveStart, tokenEnd));
+                    if (transition.getMoveStatus().isDone()) {
+                        addMove(board, PGNUtilities.encodeMove(transition.getTransitionMove()));
+                        board = transition.getToBoard();
+                    } else {
+                        valid = false;
+                    }
+                }
+            }
+            i = tokenEnd;
+        }
+        if (inMoves || !tags.isEmpty()) {
+            games.add(finishGame(tags, board, tags.getOrDefault("Result", "*"), valid));
+        }
+        return games;
+    }
+
+    private void addMove(final Board board,
+                         final int code) {
+        if (this.moveCount == this.moves.length) {
+            this.moves = Arrays.copyOf(this.moves, 2 * this.moveCount);
+            this.positionHashes = Arrays.copyOf(this.positionHashes, 2 * this.moveCount + 1);
+        }
+        this.positionHashes[this.moveCount] = board.getZobristHash();
+        this.moves[this.moveCount++] = code;
+    }
+
+    /**
+     * Metoda tworzaca partie z ruchow zebranych w buforach parsera i czyszczaca bufory dla nastepnej partii
+     */
+    private ImportedGame finishGame(final Map<String, String> tags,
+                                    final Board board,
+                                    final String result,
+                                    final boolean valid) {
+        final Board finalBoard = board != null ? board : initialBoard(tags);
+        this.positionHashes[this.moveCount] = finalBoard != null ? finalBoard.getZobristHash() : 0L;
+        final ImportedGame game = new ImportedGame(tags, Arrays.copyOf(this.moves, this.moveCount),
+                                                   Arrays.copyOf(this.positionHashes, this.moveCount + 1),
+                                                   result, valid && finalBoard != null);
+        this.moveCount = 0;
+        return game;
+    }
+
+    /**
+     * Metoda zwracajaca plansze poczatkowa partii - standardowa lub z naglowka FEN
+     * @return zwraca plansze lub null gdy naglowek FEN jest niepoprawny
+     */
+    private static Board initialBoard(final Map<String, String> tags) {
+        final String fen = tags.get("FEN");
+        if (fen == null) {
+            return Board.createStandardBoard();
+        }
+        try {
+            return FenUtilities.createGameFromFEN(fen);
+        } catch (final RuntimeException e) {
+            return null;
+        }
+    }
+
+    private int parseTag(final ByteBuffer buffer,
+                         final int start,
+                         final int end,
+                         final Map<String, String> tags) {
+        int i = start + 1;
+        final int nameStart = i;
+        while (i < end && buffer.get(i) != ' ' && buffer.get(i) != ']' && buffer.get(i) != '\n') {
+            i++;
+        }
+        final String name = decode(buffer, nameStart, i);
+        while (i < end && buffer.get(i) != '"' && buffer.get(i) != ']' && buffer.get(i) != '\n') {
+            i++;
+        }
+        if (i < end && buffer.get(i) == '"') {
+            i++;
+            int length = 0;
+            while (i < end && buffer.get(i) != '"' && buffer.get(i) != '\n') {
+                if (buffer.get(i) == '\\' && i + 1 < end) {
+                    i++;
+                }
+                if (length == this.scratch.length) {
+                    final byte[] larger = new byte[2 * length];
+                    System.arraycopy(this.scratch, 0, larger, 0, length);
+                    this.scratch = larger;
+                }
+                this.scratch[length++] = buffer.get(i++);
+            }
+            if (!name.isEmpty()) {
+                tags.put(name, new String(this.scratch, 0, length, StandardCharsets.UTF_8));
+            }
+        }
+        return skipTo(buffer, i, end, (byte) '\n');
+    }
+
+    private String decode(final ByteBuffer buffer,
+                          final int start,
+                          final int end) {
+        return this.token.set(buffer, start, end).toString();
+    }
+
+    private static int skipTo(final ByteBuffer buffer,
+                              int position,
+                              final int end,
+                              final byte target) {
+        while (position < end && buffer.get(position) != target) {
+            position++;
+        }
+        return position;
+    }
+
+    private static boolean isDelimiter(final byte c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '{' || c == '(' || c == ')' || c == ';';
+    }
+
+    /**
+     * Metoda rozpoznajaca token wyniku partii
+     * @return zwraca wynik lub null gdy token nie jest wynikiem
+     */
+    private static String resultOf(final ByteBuffer buffer,
+                                   final int start,
+                                   final int end) {
+        final int length = end - start;
+        final byte first = buffer.get(start);
+        if (length == 1 && first == '*') {
+            return "*";
+        }
+        if (length == 3 && buffer.get(start + 1) == '-') {
+            if (first == '1' && buffer.get(start + 2) == '0') {
+                return "1-0";
+            }
+            if (first == '0' && buffer.get(start + 2) == '1') {
+                return "0-1";
+            }
+        }
+        if (length == 7 && first == '1' && buffer.get(start + 1) == '/' && buffer.get(start + 3) == '-') {
+            return "1/2-1/2";
+        }
+        return null;
+    }
+
+    /**
+     * Metoda pomijajaca numer ruchu na poczatku tokenu (np. "12.e4" lub "12...")
+     * @return zwraca poczatek ruchu lub koniec tokenu gdy token zawiera tylko numer
+     */
+    private static int stripMoveNumber(final ByteBuffer buffer,
+                                       final int start,
+                                       final int end) {
+        int i = start;
+        while (i < end && buffer.get(i) >= '0' && buffer.get(i) <= '9') {
+            i++;
+        }
+        if (i == start) {
+            return start;
+        }
+        if (i < end && buffer.get(i) != '.') {
+            return start;
+        }
+        while (i < end && buffer.get(i) == '.') {
+            i++;
+        }
+        return i;
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.chess.pgn;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Klasa przechowujaca jedna partie wczytana z pliku PGN - naglowki, ruchy w notacji SAN oraz wynik
+ */
+public final class PGNGame {
+
+    private final Map<String, String> tags;
+    private final List<String> moves;
+    private final String result;
+
+    public PGNGame(final Map<String, String> tags,
+                   final List<String> moves,
+                   final String result) {
+        this.tags = Collections.unmodifiableMap(tags);
+        this.moves = Collections.unmodifiableList(moves);
+        this.result = result;
+    }
+
+    /**
+     * Metoda zwracajaca naglowki partii
+     * @return zwraca mape naglowkow (nazwa - wartosc)
+     */
+    public Map<String, String> getTags() {
+        return this.tags;
+    }
+
+    /**
+     * Metoda zwracajaca ruchy partii
+     * @return zwraca liste ruchow w notacji SAN
+     */
+    public List<String> getMoves() {
+        return this.moves;
+    }
+
+    /**
+     * Metoda zwracajaca wynik partii
+     * @return zwraca "1-0", "0-1", "1/2-1/2" lub "*"
+     */
+    public String getResult() {
+        return this.result;
+    }
+
+    /**
+     * Metoda zwracajaca wynik partii z punktu widzenia bialych
+     * @return zwraca 1 dla wygranej bialych, -1 dla wygranej czarnych, 0 dla remisu lub null gdy wynik jest nieznany
+     */
+    public Integer getWhiteScore() {
+        switch (this.result) {
+            case "1-0":
+                return 1;
+            case "0-1":
+                return -1;
+            case "1/2-1/2":
+                return 0;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.tags.getOrDefault("White", "?") + " - " + this.tags.getOrDefault("Black", "?") + " " + this.result;
+    }
+
+}
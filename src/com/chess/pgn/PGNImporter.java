@@ -0,0 +1,254 @@
+package com.chess.pgn;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Klasa importujaca duze pliki PGN. Plik jest mapowany do pamieci (lub czytany strumieniowo dla .pgn.gz) i dzielony
+ * na fragmenty na granicach partii. Fragmenty sa parsowane rownolegle przez watki robocze, a gotowe partie sa przekazywane
+ * odbiorcy w watku wywolujacym i w kolejnosci z pliku. Liczba fragmentow w toku jest ograniczona, wiec zuzycie pamieci nie zalezy od rozmiaru pliku.
+ * Uzycie: PGNImporter [-threads n] plik1.pgn [plik2.pgn.gz ...]
+ */
+public final class PGNImporter {
+
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final int MAX_CHUNK_SIZE = Integer.MAX_VALUE - 8;
+
+    private final int threads;
+
+    /**
+     * Konstruktor tworzacy importer
+     * @param threads liczba watkow parsujacych
+     */
+    public PGNImporter(final int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Metoda importujaca wszystkie partie z pliku .pgn lub .pgn.gz
+     * @param file plik z partiami
+     * @param consumer odbiorca partii, wywolywany w watku wywolujacym w kolejnosci partii w pliku
+     * @return zwraca liczbe wczytanych partii
+     * @throws IOException w przypadku bledu odczytu
+     */
+    public long importFile(final File file,
+                           final Consumer<ImportedGame> consumer) throws IOException {
+        if (file.getName().endsWith(".gz")) {
+            try (final InputStream input = new GZIPInputStream(new FileInputStream(file), 1 << 16)) {
+                return importStream(input, consumer);
+            }
+        }
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return run(new MappedChunkSource(channel), consumer);
+        }
+    }
+
+    /**
+     * Metoda importujaca wszystkie partie ze strumienia
+     * @param input strumien z partiami PGN
+     * @param consumer odbiorca partii, wywolywany w watku wywolujacym w kolejnosci partii w strumieniu
+     * @return zwraca liczbe wczytanych partii
+     * @throws IOException w przypadku bledu odczytu
+     */
+    public long importStream(final InputStream input,
+                             final Consumer<ImportedGame> consumer) throws IOException {
+        return run(new StreamChunkSource(input), consumer);
+    }
+
+    private long run(final ChunkSource source,
+                     final Consumer<ImportedGame> consumer) throws IOException {
+        final ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+        final ThreadLocal<PGNChunkParser> parsers = ThreadLocal.withInitial(PGNChunkParser::new);
+        final ArrayDeque<Future<List<ImportedGame>>> pending = new ArrayDeque<>();
+        long count = 0;
+        try {
+            ByteBuffer chunk;
+            while ((chunk = source.next()) != null) {
+                final ByteBuffer text = chunk;
+                pending.add(executor.submit(() -> parsers.get().parse(text, 0, text.limit())));
+                if (pending.size() >= 2 * this.threads) {
+                    count += deliver(pending.poll(), consumer);
+                }
+            }
+            while (!pending.isEmpty()) {
+                count += deliver(pending.poll(), consumer);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return count;
+    }
+
+    private static int deliver(final Future<List<ImportedGame>> future,
+                               final Consumer<ImportedGame> consumer) {
+        final List<ImportedGame> games;
+        try {
+            games = future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("PGN import interrupted", e);
+        } catch (final ExecutionException e) {
+            throw new RuntimeException("PGN import failed", e.getCause());
+        }
+        for (final ImportedGame game : games) {
+            consumer.accept(game);
+        }
+        return games.size();
+    }
+
+    /**
+     * Metoda szukajaca ostatniej granicy partii we fragmencie - linii zaczynajacej sie od '[' poprzedzonej pusta linia
+     * @return zwraca pozycje poczatku ostatniej partii lub -1 gdy fragment nie zawiera granicy
+     */
+    static int lastGameBoundary(final ByteBuffer buffer,
+                                final int length) {
+        for (int i = length - 1; i >= 2; i--) {
+            if (buffer.get(i) == '[' && buffer.get(i - 1) == '\n' &&
+                (buffer.get(i - 2) == '\n' || (i >= 3 && buffer.get(i - 2) == '\r' && buffer.get(i - 3) == '\n'))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int i = 0;
+        if (args.length > 1 && args[0].equals("-threads")) {
+            threads = Integer.parseInt(args[1]);
+            i = 2;
+        }
+        if (i >= args.length) {
+            System.err.println("Usage: PGNImporter [-threads n] file1.pgn [file2.pgn.gz ...]");
+            return;
+        }
+        final PGNImporter importer = new PGNImporter(threads);
+        final long[] invalid = new long[1];
+        final long start = System.nanoTime();
+        long games = 0;
+        for (; i < args.length; i++) {
+            games += importer.importFile(new File(args[i]), game -> {
+                if (!game.isValid()) {
+                    invalid[0]++;
+                }
+            });
+        }
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games (%d invalid) in %.1f s, %.0f games/min%n", games, invalid[0], seconds, 60 * games / seconds);
+    }
+
+    /**
+     * Interfejs zrodla fragmentow - kazdy fragment zaczyna sie na poczatku partii i konczy na granicy partii
+     */
+    private interface ChunkSource {
+
+        /**
+         * @return zwraca kolejny fragment (indeksy od 0 do limit) lub null na koncu danych
+         */
+        ByteBuffer next() throws IOException;
+
+    }
+
+    /**
+     * Zrodlo fragmentow mapujace kolejne obszary pliku do pamieci - dane nie sa kopiowane na sterte
+     */
+    private static final class MappedChunkSource implements ChunkSource {
+
+        private final FileChannel channel;
+        private final long size;
+        private long position;
+
+        MappedChunkSource(final FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        @Override
+        public ByteBuffer next() throws IOException {
+            long remaining = this.size - this.position;
+            if (remaining <= 0) {
+                return null;
+            }
+            int length = (int) Math.min(CHUNK_SIZE, remaining);
+            while (true) {
+                final ByteBuffer buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position, length);
+                final int boundary = length == remaining ? length : lastGameBoundary(buffer, length);
+                if (boundary > 0) {
+                    this.position += boundary;
+                    buffer.limit(boundary);
+                    return buffer;
+                }
+                if (length == MAX_CHUNK_SIZE) {
+                    throw new RuntimeException("PGN game larger than " + MAX_CHUNK_SIZE + " bytes at offset " + this.position);
+                }
+                length = (int) Math.min(Math.min(2L * length, MAX_CHUNK_SIZE), remaining);
+            }
+        }
+
+    }
+
+    /**
+     * Zrodlo fragmentow czytajace strumien - niedokonczona partia z konca fragmentu przechodzi na poczatek nastepnego
+     */
+    private static final class StreamChunkSource implements ChunkSource {
+
+        private final InputStream input;
+        private byte[] carry = new byte[0];
+        private boolean finished;
+
+        StreamChunkSource(final InputStream input) {
+            this.input = input;
+        }
+
+        @Override
+        public ByteBuffer next() throws IOException {
+            if (this.finished) {
+                return null;
+            }
+            byte[] chunk = new byte[Math.max(CHUNK_SIZE, 2 * this.carry.length)];
+            int length = this.carry.length;
+            System.arraycopy(this.carry, 0, chunk, 0, length);
+            while (true) {
+                final int read = this.input.read(chunk, length, chunk.length - length);
+                if (read < 0) {
+                    this.finished = true;
+                    this.carry = new byte[0];
+                    return length == 0 ? null : ByteBuffer.wrap(chunk, 0, length);
+                }
+                length += read;
+                if (length < chunk.length) {
+                    continue;
+                }
+                final ByteBuffer buffer = ByteBuffer.wrap(chunk, 0, length);
+                final int boundary = lastGameBoundary(buffer, length);
+                if (boundary > 0) {
+                    this.carry = new byte[length - boundary];
+                    System.arraycopy(chunk, boundary, this.carry, 0, this.carry.length);
+                    buffer.limit(boundary);
+                    return buffer;
+                }
+                if (chunk.length == MAX_CHUNK_SIZE) {
+                    throw new RuntimeException("PGN game larger than " + MAX_CHUNK_SIZE + " bytes");
+                }
+                final byte[] larger = new byte[(int) Math.min(2L * chunk.length, MAX_CHUNK_SIZE)];
+                System.arraycopy(chunk, 0, larger, 0, length);
+                chunk = larger;
+            }
+        }
+
+    }
+
+}
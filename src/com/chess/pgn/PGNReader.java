@@ -0,0 +1,144 @@
+package com.chess.pgn;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Klasa czytajaca strumieniowo kolejne partie z pliku PGN. Pomija komentarze, warianty oraz oznaczenia NAG.
+ */
+public final class PGNReader implements Closeable {
+
+    private final BufferedReader reader;
+    private String pendingLine;
+
+    public PGNReader(final Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader, 1 << 16);
+    }
+
+    /**
+     * Metoda czytajaca kolejna partie ze strumienia
+     * @return zwraca wczytana partie lub null gdy strumien sie skonczyl
+     * @throws IOException w przypadku bledu odczytu
+     */
+    public PGNGame nextGame() throws IOException {
+        final Map<String, String> tags = new LinkedHashMap<>();
+        final List<String> moves = new ArrayList<>();
+        String result = "*";
+        boolean inMoves = false;
+        int commentDepth = 0;
+        int variationDepth = 0;
+        String line;
+        while ((line = nextLine()) != null) {
+            final String trimmed = line.trim();
+            if (commentDepth == 0 && variationDepth == 0 && trimmed.startsWith("[")) {
+                if (inMoves) {
+                    this.pendingLine = line;
+                    return new PGNGame(tags, moves, result);
+                }
+                parseTag(trimmed, tags);
+                continue;
+            }
+            if (trimmed.isEmpty() || trimmed.startsWith("%")) {
+                continue;
+            }
+            inMoves = true;
+            int i = 0;
+            final int length = trimmed.length();
+            while (i < length) {
+                final char c = trimmed.charAt(i);
+                if (commentDepth > 0) {
+                    if (c == '}') {
+                        commentDepth = 0;
+                    }
+                    i++;
+                } else if (c == '{') {
+                    commentDepth = 1;
+                    i++;
+                } else if (c == ';') {
+                    break;
+                } else if (c == '(') {
+                    variationDepth++;
+                    i++;
+                } else if (c == ')') {
+                    variationDepth = Math.max(0, variationDepth - 1);
+                    i++;
+                } else if (Character.isWhitespace(c)) {
+                    i++;
+                } else {
+                    final int start = i;
+                    while (i < length && !Character.isWhitespace(trimmed.charAt(i)) &&
+                           "{}();".indexOf(trimmed.charAt(i)) < 0) {
+                        i++;
+                    }
+                    if (variationDepth > 0) {
+                        continue;
+                    }
+                    final String token = trimmed.substring(start, i);
+                    if (isResult(token)) {
+                        result = token;
+                        return new PGNGame(tags, moves, result);
+                    }
+                    final String move = stripMoveNumber(token);
+                    if (!move.isEmpty() && move.charAt(0) != '$') {
+                        moves.add(move);
+                    }
+                }
+            }
+        }
+        return tags.isEmpty() && moves.isEmpty() ? null : new PGNGame(tags, moves, tags.getOrDefault("Result", result));
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    private String nextLine() throws IOException {
+        if (this.pendingLine != null) {
+            final String line = this.pendingLine;
+            this.pendingLine = null;
+            return line;
+        }
+        return this.reader.readLine();
+    }
+
+    private static void parseTag(final String line,
+                                 final Map<String, String> tags) {
+        final int space = line.indexOf(' ');
+        final int firstQuote = line.indexOf('"');
+        final int lastQuote = line.lastIndexOf('"');
+        if (space > 1 && firstQuote > space && lastQuote > firstQuote) {
+            tags.put(line.substring(1, space), line.substring(firstQuote + 1, lastQuote));
+        }
+    }
+
+    private static boolean isResult(final String token) {
+        return token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*");
+    }
+
+    /**
+     * Metoda usuwajaca numer ruchu z tokenu (np. "12.e4" lub "12..." )
+     * @param token token z zapisu partii
+     * @return zwraca sam ruch lub pusty lancuch znakow
+     */
+    private static String stripMoveNumber(final String token) {
+        int i = 0;
+        while (i < token.length() && Character.isDigit(token.charAt(i))) {
+            i++;
+        }
+        if (i > 0 && i < token.length() && token.charAt(i) == '.') {
+            while (i < token.length() && token.charAt(i) == '.') {
+                i++;
+            }
+            return token.substring(i);
+        }
+        return i == token.length() ? "" : token;
+    }
+
+}
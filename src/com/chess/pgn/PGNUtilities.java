@@ -0,0 +1,212 @@
+package com.chess.pgn;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.Move.MoveFactory;
+import com.chess.engine.board.Move.MoveStatus;
+import com.chess.engine.board.MoveTransition;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Klasa zawierajaca operacje pomocnicze do zamiany ruchow w notacji SAN na ruchy na planszy
+ */
+public final class PGNUtilities {
+
+    private PGNUtilities() {
+        throw new RuntimeException("Not instantiatable!");
+    }
+
+    /**
+     * Metoda wykonujaca ruch zapisany w notacji SAN na podanej planszy. Zapis jest czytany znak po znaku bez tworzenia
+     * pomocniczych obiektow String, a kandydaci sa wybierani bezposrednio z listy ruchow gracza po polu docelowym i rodzaju pionka.
+     * @param board aktualna plansza
+     * @param san ruch w notacji SAN (np. "Nbd7", "exd5", "e8=Q+", "O-O")
+     * @return zwraca obiekt MoveTransition ze statusem DONE lub ILLEGAL_MOVE gdy ruchu nie da sie wykonac
+     */
+    public static MoveTransition createMoveTransition(final Board board,
+                                                      final CharSequence san) {
+        int end = san.length();
+        while (end > 0 && isSuffix(san.charAt(end - 1))) {
+            end--;
+        }
+        if (isCastle(san, end, 2)) {
+            return findCastle(board, 6);
+        }
+        if (isCastle(san, end, 3)) {
+            return findCastle(board, 2);
+        }
+        PieceType promotionType = null;
+        if (end > 3 && san.charAt(end - 2) == '=') {
+            promotionType = pieceTypeOf(san.charAt(end - 1));
+            end -= 2;
+        } else if (end > 2 && pieceTypeOf(san.charAt(end - 1)) != null && Character.isDigit(san.charAt(end - 2))) {
+            promotionType = pieceTypeOf(san.charAt(end - 1));
+            end--;
+        }
+        if (end < 2) {
+            return illegal(board);
+        }
+        final PieceType movedType = Character.isUpperCase(san.charAt(0)) ? pieceTypeOf(san.charAt(0)) : PieceType.PAWN;
+        if (movedType == null) {
+            return illegal(board);
+        }
+        final int destination = coordinateOf(san.charAt(end - 2), san.charAt(end - 1));
+        if (destination < 0) {
+            return illegal(board);
+        }
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = movedType == PieceType.PAWN ? 0 : 1; i < end - 2; i++) {
+            final char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            }
+        }
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            if (move.getDestinationCoordinate() != destination || move.getMovedPiece().getPieceType() != movedType) {
+                continue;
+            }
+            final int from = move.getCurrentCoordinate();
+            if ((fromFile >= 0 && from % BoardUtils.NUM_TILES_PER_ROW != fromFile) ||
+                (fromRank >= 0 && 7 - from / BoardUtils.NUM_TILES_PER_ROW != fromRank)) {
+                continue;
+            }
+            final Piece promotionPiece = move.getPromotionPiece();
+            if ((promotionPiece == null) != (promotionType == null) ||
+                (promotionPiece != null && promotionPiece.getPieceType() != promotionType)) {
+                continue;
+            }
+            final MoveTransition transition = executeLegalMove(board, move);
+            if (transition != null) {
+                return transition;
+            }
+        }
+        return illegal(board);
+    }
+
+    /**
+     * Metoda zamieniajaca ruch na zwarty zapis liczbowy: pole poczatkowe, pole docelowe (dla roszady pole docelowe krola)
+     * oraz rodzaj promowanego pionka
+     * @param move ruch
+     * @return zwraca kod ruchu
+     */
+    public static int encodeMove(final Move move) {
+        final Piece promotionPiece = move.getPromotionPiece();
+        final int promotion = promotionPiece == null ? 0 : promotionPiece.getPieceType().ordinal() + 1;
+        return move.getCurrentCoordinate() | (move.getDestinationCoordinate() << 6) | (promotion << 12);
+    }
+
+    /**
+     * Metoda wykonujaca ruch zapisany kodem z encodeMove na podanej planszy
+     * @param board aktualna plansza
+     * @param code kod ruchu
+     * @return zwraca obiekt MoveTransition ze statusem DONE lub ILLEGAL_MOVE gdy ruchu nie da sie wykonac
+     */
+    public static MoveTransition createMoveTransition(final Board board,
+                                                      final int code) {
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            if (encodeMove(move) == code) {
+                final MoveTransition transition = executeLegalMove(board, move);
+                return transition != null ? transition : illegal(board);
+            }
+        }
+        return illegal(board);
+    }
+
+    /**
+     * Metoda zamieniajaca pole zapisane jako kolumna i rzad na numer pola planszy
+     * @param file kolumna ('a' - 'h')
+     * @param rank rzad ('1' - '8')
+     * @return zwraca numer pola (0 = a8, 63 = h1) lub -1 dla niepoprawnego pola
+     */
+    public static int coordinateOf(final char file,
+                                   final char rank) {
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            return -1;
+        }
+        return ('8' - rank) * BoardUtils.NUM_TILES_PER_ROW + (file - 'a');
+    }
+
+    /**
+     * Metoda zwracajaca rodzaj pionka dla litery z notacji SAN
+     * @param c litera pionka
+     * @return zwraca rodzaj pionka lub null dla nieznanej litery
+     */
+    public static PieceType pieceTypeOf(final char c) {
+        switch (Character.toUpperCase(c)) {
+            case 'N':
+                return PieceType.KNIGHT;
+            case 'B':
+                return PieceType.BISHOP;
+            case 'R':
+                return PieceType.ROOK;
+            case 'Q':
+                return PieceType.QUEEN;
+            case 'K':
+                return PieceType.KING;
+            case 'P':
+                return PieceType.PAWN;
+            default:
+                return null;
+        }
+    }
+
+    private static MoveTransition findCastle(final Board board,
+                                             final int destinationFile) {
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            if (move.isCastlingMove() &&
+                move.getDestinationCoordinate() % BoardUtils.NUM_TILES_PER_ROW == destinationFile) {
+                final MoveTransition transition = executeLegalMove(board, move);
+                if (transition != null) {
+                    return transition;
+                }
+            }
+        }
+        return illegal(board);
+    }
+
+    /**
+     * Metoda wykonujaca ruch pochodzacy z listy ruchow gracza - pomija ponowne szukanie ruchu na tej liscie,
+     * ktore wykonuje Player.makeMove, i sprawdza jedynie czy ruch nie zostawia krola w szachu
+     * @return zwraca wykonany ruch lub null gdy ruch zostawia krola w szachu
+     */
+    private static MoveTransition executeLegalMove(final Board board,
+                                                   final Move move) {
+        final Board transitionedBoard = move.execute();
+        if (transitionedBoard.currentPlayer().getOpponent().isInCheck()) {
+            return null;
+        }
+        return new MoveTransition(board, transitionedBoard, move, MoveStatus.DONE);
+    }
+
+    private static boolean isSuffix(final char c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+
+    private static boolean isCastle(final CharSequence san,
+                                    final int end,
+                                    final int sides) {
+        if (end != 2 * sides - 1) {
+            return false;
+        }
+        final char castle = san.charAt(0);
+        if (castle != 'O' && castle != '0') {
+            return false;
+        }
+        for (int i = 0; i < end; i++) {
+            if (san.charAt(i) != ((i & 1) == 0 ? castle : '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MoveTransition illegal(final Board board) {
+        return new MoveTransition(board, board, MoveFactory.getNullMove(), MoveStatus.ILLEGAL_MOVE);
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.chess.server;
+
+import com.chess.engine.board.Board;
+import com.chess.pgn.FenUtilities;
+import com.chess.util.LatencyHistogram;
+import com.chess.util.ThreadPools;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Klasa serwera HTTP prowadzacego wiele partii jednoczesnie. Kazde zadanie jest obslugiwane w osobnym watku wirtualnym
+ * (lub watku z puli, gdy maszyna wirtualna ich nie udostepnia), a ruchy sa sprawdzane i wykonywane pod blokada danej partii.
+ * Interfejs:
+ * POST /games (opcjonalnie FEN w tresci) - nowa partia,
+ * GET /games/{id} - stan partii,
+ * GET /games/{id}/moves - ruchy partii w notacji UCI,
+ * POST /games/{id}/moves (ruch UCI w tresci) - wykonanie ruchu (409 dla niepoprawnego ruchu),
+ * DELETE /games/{id} - usuniecie partii,
+ * GET /stats - liczba partii i ruchow oraz percentyle czasu sprawdzania ruchu.
+ * Uzycie: GameServer [-port n]
+ */
+public final class GameServer {
+
+    private static final String JSON = "application/json";
+    private static final String TEXT = "text/plain";
+
+    private final Map<Long, GameSession> games = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicLong movesPlayed = new AtomicLong();
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Konstruktor tworzacy serwer
+     * @param port port, na ktorym serwer nasluchuje (0 - dowolny wolny port)
+     * @throws IOException gdy nie mozna otworzyc portu
+     */
+    public GameServer(final int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(port), 4096);
+        this.executor = ThreadPools.newIOExecutor("game-server");
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/games", this::handleGames);
+        this.server.createContext("/stats", this::handleStats);
+    }
+
+    public void start() {
+        this.server.start();
+    }
+
+    public void stop() {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return this.server.getAddress().getPort();
+    }
+
+    public LatencyHistogram getMoveLatency() {
+        return this.moveLatency;
+    }
+
+    private void handleGames(final HttpExchange exchange) throws IOException {
+        try {
+            final String[] path = exchange.getRequestURI().getPath().split("/");
+            final String method = exchange.getRequestMethod();
+            if (path.length == 2 && method.equals("POST")) {
+                final String fen = readBody(exchange);
+                final Board board = fen.isEmpty() ? Board.createStandardBoard() : FenUtilities.createGameFromFEN(fen);
+                final GameSession game = new GameSession(this.nextId.getAndIncrement(), board);
+                this.games.put(game.getId(), game);
+                respond(exchange, 201, JSON, game.toJSON(false));
+                return;
+            }
+            final GameSession game = path.length >= 3 ? this.games.get(parseId(path[2])) : null;
+            if (game == null) {
+                respond(exchange, 404, TEXT, "no such game");
+            } else if (path.length == 3 && method.equals("GET")) {
+                respond(exchange, 200, JSON, game.toJSON(true));
+            } else if (path.length == 3 && method.equals("DELETE")) {
+                this.games.remove(game.getId());
+                respond(exchange, 204, TEXT, "");
+            } else if (path.length == 4 && path[3].equals("moves") && method.equals("GET")) {
+                respond(exchange, 200, TEXT, game.getMoves());
+            } else if (path.length == 4 && path[3].equals("moves") && method.equals("POST")) {
+                final String move = readBody(exchange);
+                final long start = System.nanoTime();
+                final Board board = game.play(move);
+                this.moveLatency.record(System.nanoTime() - start);
+                if (board == null) {
+                    respond(exchange, 409, TEXT, "illegal move " + move);
+                } else {
+                    this.movesPlayed.incrementAndGet();
+                    respond(exchange, 200, JSON, game.toJSON(false));
+                }
+            } else {
+                respond(exchange, 405, TEXT, "unsupported request");
+            }
+        } catch (final RuntimeException e) {
+            respond(exchange, 400, TEXT, String.valueOf(e.getMessage()));
+        }
+    }
+
+    private void handleStats(final HttpExchange exchange) throws IOException {
+        respond(exchange, 200, TEXT, "games " + this.games.size() + "\nmoves " + this.movesPlayed.get() +
+                                     "\nmove validation " + this.moveLatency.summary() + "\n");
+    }
+
+    private static long parseId(final String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (final NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String readBody(final HttpExchange exchange) throws IOException {
+        return new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.US_ASCII).trim();
+    }
+
+    private static void respond(final HttpExchange exchange,
+                                final int status,
+                                final String contentType,
+                                final String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (final OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    public static void main(final String[] args) throws IOException {
+        int port = 8080;
+        if (args.length > 1 && args[0].equals("-port")) {
+            port = Integer.parseInt(args[1]);
+        }
+        final GameServer server = new GameServer(port);
+        server.start();
+        System.out.println("Game server listening on port " + server.getPort() +
+                           (ThreadPools.hasVirtualThreads() ? " (virtual threads)" : ""));
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.chess.server;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.MoveTransition;
+import com.chess.pgn.FenUtilities;
+import com.chess.pgn.PGNUtilities;
+import com.chess.uci.UCIUtilities;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Klasa przechowujaca jedna partie prowadzona przez serwer. Ruchy w obrebie partii sa wykonywane pod blokada tej partii,
+ * wiec zachowuja kolejnosc bez globalnej blokady, a rozne partie sa obslugiwane calkowicie rownolegle. Aktualna pozycja jest niezmiennym
+ * obiektem Board, a historia jest przechowywana jako kody ruchow (wczesniejsze plansze mozna z nich odtworzyc),
+ * dzieki czemu tysiace partii zajmuja niewiele pamieci. Blokada ReentrantLock nie przypina watkow wirtualnych, w przeciwienstwie do synchronized.
+ */
+final class GameSession {
+
+    private final long id;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Board board;
+    private int[] moves = new int[32];
+    private int plies;
+
+    GameSession(final long id,
+                final Board initialBoard) {
+        this.id = id;
+        this.board = initialBoard;
+    }
+
+    long getId() {
+        return this.id;
+    }
+
+    /**
+     * Metoda sprawdzajaca i wykonujaca ruch
+     * @param uciMove ruch w notacji UCI
+     * @return zwraca plansze po ruchu lub null gdy ruch jest niepoprawny
+     */
+    Board play(final String uciMove) {
+        this.lock.lock();
+        try {
+            final MoveTransition transition = UCIUtilities.createMoveTransition(this.board, uciMove);
+            if (!transition.getMoveStatus().isDone()) {
+                return null;
+            }
+            if (this.plies == this.moves.length) {
+                this.moves = Arrays.copyOf(this.moves, this.plies * 2);
+            }
+            this.moves[this.plies++] = PGNUtilities.encodeMove(transition.getTransitionMove());
+            this.board = transition.getToBoard();
+            return this.board;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Metoda opisujaca stan partii w formacie JSON
+     * @param withStatus czy obliczyc status (mat, pat) - wymaga sprawdzenia wszystkich ruchow gracza
+     * @return zwraca opis partii
+     */
+    String toJSON(final boolean withStatus) {
+        final Board current;
+        final int count;
+        this.lock.lock();
+        try {
+            current = this.board;
+            count = this.plies;
+        } finally {
+            this.lock.unlock();
+        }
+        final StringBuilder json = new StringBuilder(160);
+        json.append("{\"id\":").append(this.id).append(",\"ply\":").append(count).append(",\"fen\":\"");
+        FenUtilities.appendFEN(current, json).append('"');
+        if (withStatus) {
+            final String status = current.currentPlayer().isInCheckMate() ? "checkmate" :
+                                  current.currentPlayer().isInStaleMate() ? "stalemate" : "ongoing";
+            json.append(",\"status\":\"").append(status).append('"');
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Metoda zwracajaca ruchy partii w notacji UCI
+     * @return zwraca ruchy oddzielone spacjami
+     */
+    String getMoves() {
+        this.lock.lock();
+        try {
+            final StringBuilder text = new StringBuilder(this.plies * 5);
+            for (int ply = 0; ply < this.plies; ply++) {
+                text.append(ply > 0 ? " " : "").append(UCIUtilities.toUCI(this.moves[ply]));
+            }
+            return text.toString();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+}
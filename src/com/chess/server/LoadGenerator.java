@@ -0,0 +1,219 @@
+package com.chess.server;
+
+import com.chess.pgn.PGNImporter;
+import com.chess.uci.UCIUtilities;
+import com.chess.util.LatencyHistogram;
+import com.chess.util.ThreadPools;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Klasa generujaca obciazenie serwera partii. Otwiera zadana liczbe partii, a nastepnie klienci (watki wirtualne) na zmiane
+ * wykonuja w nich kolejne ruchy z partii wczytanych z pliku PGN, az wszystkie partie dobiegna konca. Mierzony jest czas odpowiedzi
+ * po stronie klienta, a na koniec wypisywane sa rowniez statystyki serwera. Bez parametru -url uruchamiany jest serwer lokalny.
+ * Uzycie: LoadGenerator -pgn partie.pgn [-url http://host:port] [-games n] [-clients n]
+ */
+public final class LoadGenerator {
+
+    private static final int MAX_SOURCE_GAMES = 2000;
+
+    private final HttpClient client;
+    private final String url;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong errors = new AtomicLong();
+
+    private LoadGenerator(final String url,
+                          final ExecutorService executor) {
+        this.url = url;
+        this.client = HttpClient.newBuilder().executor(executor).version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    /**
+     * Metoda prowadzaca test obciazenia
+     * @param sourceGames ruchy partii w notacji UCI, odtwarzane cyklicznie
+     * @param gameCount liczba jednoczesnie otwartych partii
+     * @param clients liczba rownoleglych klientow
+     * @param executor pula watkow klientow
+     */
+    private void run(final List<String[]> sourceGames,
+                     final int gameCount,
+                     final int clients,
+                     final ExecutorService executor) throws Exception {
+        final ConcurrentLinkedQueue<Session> sessions = new ConcurrentLinkedQueue<>();
+        final AtomicLong created = new AtomicLong();
+        runClients(clients, executor, () -> {
+            long index;
+            while ((index = created.getAndIncrement()) < gameCount) {
+                final String body = send("POST", "/games", "");
+                sessions.add(new Session(parseId(body), sourceGames.get((int) (index % sourceGames.size()))));
+            }
+        });
+        System.out.println(sessions.size() + " games open");
+        final AtomicLong moves = new AtomicLong();
+        final long start = System.nanoTime();
+        runClients(clients, executor, () -> {
+            Session session;
+            while ((session = sessions.poll()) != null) {
+                final long requestStart = System.nanoTime();
+                final String response = send("POST", "/games/" + session.id + "/moves", session.moves[session.next]);
+                this.latency.record(System.nanoTime() - requestStart);
+                moves.incrementAndGet();
+                if (response == null || ++session.next == session.moves.length) {
+                    send("DELETE", "/games/" + session.id, "");
+                } else {
+                    sessions.add(session);
+                }
+            }
+        });
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d moves in %.1f s (%.0f moves/s), %d errors%n", moves.get(), seconds, moves.get() / seconds, this.errors.get());
+        System.out.println("client round trip " + this.latency.summary());
+        System.out.print(send("GET", "/stats", ""));
+    }
+
+    private static void runClients(final int clients,
+                                   final ExecutorService executor,
+                                   final Runnable client) throws Exception {
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            futures.add(executor.submit(client));
+        }
+        for (final Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    /**
+     * Metoda wysylajaca zadanie, ponawiajac je raz po bledzie polaczenia
+     * @return zwraca tresc odpowiedzi lub null dla odpowiedzi z bledem
+     */
+    private String send(final String method,
+                        final String path,
+                        final String body) {
+        final HttpRequest request = HttpRequest.newBuilder(URI.create(this.url + path))
+                                               .method(method, HttpRequest.BodyPublishers.ofString(body))
+                                               .build();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                final HttpResponse<String> response = this.client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() >= 400) {
+                    this.errors.incrementAndGet();
+                    return null;
+                }
+                return response.body();
+            } catch (final IOException e) {
+                // polaczenie keep-alive moglo zostac zamkniete przez serwer - jedna ponowna proba na nowym polaczeniu
+                if (attempt > 0) {
+                    this.errors.incrementAndGet();
+                    return null;
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Load generator interrupted", e);
+            }
+        }
+    }
+
+    private static long parseId(final String json) {
+        if (json == null) {
+            throw new RuntimeException("Cannot create game");
+        }
+        final int start = json.indexOf("\"id\":") + 5;
+        int end = start;
+        while (Character.isDigit(json.charAt(end))) {
+            end++;
+        }
+        return Long.parseLong(json.substring(start, end));
+    }
+
+    private static List<String[]> readSourceGames(final File file) throws IOException {
+        final List<String[]> games = new ArrayList<>();
+        new PGNImporter(1).importFile(file, game -> {
+            if (games.size() < MAX_SOURCE_GAMES && game.getMoveCount() > 0) {
+                final String[] moves = new String[game.getMoveCount()];
+                for (int ply = 0; ply < moves.length; ply++) {
+                    moves[ply] = UCIUtilities.toUCI(game.getMove(ply));
+                }
+                games.add(moves);
+            }
+        });
+        if (games.isEmpty()) {
+            throw new RuntimeException("No games in " + file);
+        }
+        return games;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        String url = null;
+        File pgn = null;
+        int games = 10_000;
+        int clients = 256;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-url":
+                    url = args[i + 1];
+                    break;
+                case "-pgn":
+                    pgn = new File(args[i + 1]);
+                    break;
+                case "-games":
+                    games = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-clients":
+                    clients = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (pgn == null) {
+            System.err.println("Usage: LoadGenerator -pgn games.pgn [-url http://host:port] [-games n] [-clients n]");
+            return;
+        }
+        final List<String[]> sourceGames = readSourceGames(pgn);
+        GameServer server = null;
+        if (url == null) {
+            server = new GameServer(0);
+            server.start();
+            url = "http://localhost:" + server.getPort();
+        }
+        final ExecutorService executor = ThreadPools.newIOExecutor("load-client");
+        try {
+            new LoadGenerator(url, executor).run(sourceGames, games, clients, executor);
+        } finally {
+            executor.shutdownNow();
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    /**
+     * Partia prowadzona przez klienta - w danej chwili obslugiwana przez co najwyzej jednego klienta
+     */
+    private static final class Session {
+
+        private final long id;
+        private final String[] moves;
+        private int next;
+
+        Session(final long id,
+                final String[] moves) {
+            this.id = id;
+            this.moves = moves;
+        }
+
+    }
+
+}
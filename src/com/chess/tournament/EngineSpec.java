@@ -0,0 +1,125 @@
+package com.chess.tournament;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Klasa opisujaca konfiguracje silnika turniejowego zapisana jako lista klucz=wartosc oddzielona przecinkami, np.
+ * "name=glebszy,depth=5,hash=32" dla silnika wewnetrznego lub "cmd=/usr/bin/stockfish,option.Hash=64,movetime=100"
+ * dla zewnetrznego silnika UCI. Ograniczenia depth, nodes i movetime obowiazuja, gdy turniej jest grany bez zegara.
+ */
+final class EngineSpec {
+
+    private final String name;
+    private final String command;
+    private final int depth;
+    private final long nodes;
+    private final long moveTimeMillis;
+    private final int hashMegabytes;
+    private final Map<String, String> options;
+
+    private EngineSpec(final String name,
+                       final String command,
+                       final int depth,
+                       final long nodes,
+                       final long moveTimeMillis,
+                       final int hashMegabytes,
+                       final Map<String, String> options) {
+        this.name = name;
+        this.command = command;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.moveTimeMillis = moveTimeMillis;
+        this.hashMegabytes = hashMegabytes;
+        this.options = options;
+    }
+
+    /**
+     * Metoda tworzaca konfiguracje z zapisu tekstowego
+     * @param text konfiguracja, np. "name=A,depth=4"
+     * @param defaultName nazwa uzywana, gdy konfiguracja jej nie podaje
+     * @return zwraca konfiguracje silnika
+     */
+    static EngineSpec parse(final String text,
+                            final String defaultName) {
+        String name = null;
+        String command = null;
+        int depth = 0;
+        long nodes = 0;
+        long moveTime = 0;
+        int hash = 16;
+        final Map<String, String> options = new LinkedHashMap<>();
+        for (final String entry : text.split(",")) {
+            final int separator = entry.indexOf('=');
+            if (separator < 0) {
+                throw new RuntimeException("Invalid engine setting " + entry);
+            }
+            final String key = entry.substring(0, separator).trim();
+            final String value = entry.substring(separator + 1).trim();
+            if (key.startsWith("option.")) {
+                options.put(key.substring("option.".length()), value);
+                continue;
+            }
+            switch (key) {
+                case "name":
+                    name = value;
+                    break;
+                case "cmd":
+                    command = value;
+                    break;
+                case "depth":
+                    depth = Integer.parseInt(value);
+                    break;
+                case "nodes":
+                    nodes = Long.parseLong(value);
+                    break;
+                case "movetime":
+                    moveTime = Long.parseLong(value);
+                    break;
+                case "hash":
+                    hash = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new RuntimeException("Unknown engine setting " + key);
+            }
+        }
+        if (name == null && command == null) {
+            name = defaultName;
+        }
+        return new EngineSpec(name, command, depth, nodes, moveTime, hash, options);
+    }
+
+    /**
+     * Metoda sprawdzajaca czy silnik ma ograniczenie przeszukiwania, gdy turniej jest grany bez zegara
+     * @return zwraca prawde, gdy podano depth, nodes lub movetime
+     */
+    boolean hasSearchLimit() {
+        return this.depth > 0 || this.nodes > 0 || this.moveTimeMillis > 0;
+    }
+
+    /**
+     * Metoda tworzaca nowa instancje silnika - kazdy watek turnieju ma wlasne instancje
+     * @return zwraca silnik
+     * @throws IOException gdy zewnetrznego silnika nie mozna uruchomic
+     */
+    MatchEngine create() throws IOException {
+        if (this.command == null) {
+            return new InternalEngine(this.name, this.depth, this.nodes, this.moveTimeMillis, this.hashMegabytes);
+        }
+        final StringBuilder limits = new StringBuilder();
+        if (this.depth > 0) {
+            limits.append(" depth ").append(this.depth);
+        }
+        if (this.nodes > 0) {
+            limits.append(" nodes ").append(this.nodes);
+        }
+        if (this.moveTimeMillis > 0) {
+            limits.append(" movetime ").append(this.moveTimeMillis);
+        }
+        final Map<String, String> engineOptions = new LinkedHashMap<>(this.options);
+        engineOptions.putIfAbsent("Hash", Integer.toString(this.hashMegabytes));
+        return new UCIProcessEngine(this.name, this.command, engineOptions, limits.toString().trim(), this.moveTimeMillis);
+    }
+
+}
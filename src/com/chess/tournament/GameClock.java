@@ -0,0 +1,57 @@
+package com.chess.tournament;
+
+import com.chess.engine.Alliance;
+
+/**
+ * Klasa zegara szachowego partii turniejowej: czas poczatkowy i dodatek za kazdy ruch
+ */
+final class GameClock {
+
+    private final long incrementMillis;
+    private long whiteMillis;
+    private long blackMillis;
+
+    GameClock(final long baseMillis,
+              final long incrementMillis) {
+        this.incrementMillis = incrementMillis;
+        this.whiteMillis = baseMillis;
+        this.blackMillis = baseMillis;
+    }
+
+    long getWhiteMillis() {
+        return this.whiteMillis;
+    }
+
+    long getBlackMillis() {
+        return this.blackMillis;
+    }
+
+    long getIncrementMillis() {
+        return this.incrementMillis;
+    }
+
+    long getRemainingMillis(final Alliance alliance) {
+        return alliance.isWhite() ? this.whiteMillis : this.blackMillis;
+    }
+
+    /**
+     * Metoda odejmujaca czas namyslu i doliczajaca dodatek
+     * @param alliance gracz, ktory wykonal ruch
+     * @param elapsedMillis czas namyslu
+     * @return zwraca falsz gdy gracz przekroczyl czas
+     */
+    boolean consume(final Alliance alliance,
+                    final long elapsedMillis) {
+        final long remaining = getRemainingMillis(alliance) - elapsedMillis;
+        if (remaining < 0) {
+            return false;
+        }
+        if (alliance.isWhite()) {
+            this.whiteMillis = remaining + this.incrementMillis;
+        } else {
+            this.blackMillis = remaining + this.incrementMillis;
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.chess.tournament;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.player.ai.AlphaBeta;
+import com.chess.engine.player.ai.StandardBoardEvaluator;
+import com.chess.uci.UCIUtilities;
+
+import java.util.List;
+
+/**
+ * Silnik turniejowy korzystajacy bezposrednio z przeszukiwania alfa-beta w tym samym procesie
+ */
+final class InternalEngine implements MatchEngine {
+
+    private static final int MAX_DEPTH = 64;
+
+    private final String name;
+    private final AlphaBeta searcher;
+    private final int depth;
+    private final long nodeLimit;
+    private final long moveTimeMillis;
+
+    InternalEngine(final String name,
+                   final int depth,
+                   final long nodeLimit,
+                   final long moveTimeMillis,
+                   final int hashMegabytes) {
+        this.name = name;
+        this.searcher = new AlphaBeta(StandardBoardEvaluator.INSTANCE, MAX_DEPTH, hashMegabytes);
+        this.depth = depth > 0 ? depth : MAX_DEPTH;
+        this.nodeLimit = nodeLimit > 0 ? nodeLimit : Long.MAX_VALUE;
+        this.moveTimeMillis = moveTimeMillis;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public void newGame() {
+        this.searcher.clear();
+    }
+
+    @Override
+    public String selectMove(final String startFen,
+                             final List<String> moves,
+                             final Board board,
+                             final GameClock clock) {
+        long timeLimit = this.moveTimeMillis;
+        if (clock != null) {
+            final long allocated = UCIUtilities.allocateTime(clock.getRemainingMillis(board.currentPlayer().getAlliance()),
+                                                             clock.getIncrementMillis(), 0);
+            timeLimit = timeLimit > 0 ? Math.min(timeLimit, allocated) : allocated;
+        }
+        return UCIUtilities.toUCI(this.searcher.search(board, this.depth, this.nodeLimit, timeLimit).getBestMove());
+    }
+
+    @Override
+    public void close() {
+    }
+
+}
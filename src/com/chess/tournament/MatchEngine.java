@@ -0,0 +1,38 @@
+package com.chess.tournament;
+
+import com.chess.engine.board.Board;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Interfejs silnika grajacego w turnieju - wewnetrznego lub zewnetrznego procesu UCI
+ */
+interface MatchEngine extends AutoCloseable {
+
+    String getName();
+
+    /**
+     * Metoda przygotowujaca silnik do nowej partii
+     * @throws IOException w przypadku bledu komunikacji z silnikiem
+     */
+    void newGame() throws IOException;
+
+    /**
+     * Metoda wybierajaca ruch
+     * @param startFen pozycja poczatkowa partii
+     * @param moves dotychczasowe ruchy w notacji UCI
+     * @param board aktualna pozycja
+     * @param clock zegar partii (pozostaly czas obu graczy) lub null gdy partia jest grana bez zegara
+     * @return zwraca ruch w notacji UCI
+     * @throws IOException w przypadku bledu komunikacji z silnikiem
+     */
+    String selectMove(String startFen,
+                      List<String> moves,
+                      Board board,
+                      GameClock clock) throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+}
@@ -0,0 +1,192 @@
+package com.chess.tournament;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveTransition;
+import com.chess.engine.board.SANWriter;
+import com.chess.pgn.FenUtilities;
+import com.chess.uci.UCIUtilities;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Klasa rozgrywajaca jedna partie turniejowa miedzy dwoma silnikami. Partia konczy sie matem, patem, trzykrotnym powtorzeniem,
+ * zasada 50 ruchow, brakiem materialu do mata (same krole), przekroczeniem czasu (takze gdy silnik nie odpowie w terminie),
+ * niepoprawnym ruchem lub awaria silnika oraz remisem po przekroczeniu maksymalnej liczby polruchow.
+ */
+final class MatchGame {
+
+    private final MatchEngine white;
+    private final MatchEngine black;
+    private final String startFen;
+    private final List<String> sanMoves = new ArrayList<>();
+    private String result = "*";
+    private String termination = "unterminated";
+
+    MatchGame(final MatchEngine white,
+              final MatchEngine black,
+              final String startFen) {
+        this.white = white;
+        this.black = black;
+        this.startFen = startFen;
+    }
+
+    /**
+     * Metoda rozgrywajaca partie
+     * @param baseMillis czas poczatkowy lub 0 gdy partia jest grana bez zegara
+     * @param incrementMillis dodatek za ruch
+     * @param maxPlies liczba polruchow, po ktorej partia jest uznawana za remis
+     */
+    void play(final long baseMillis,
+              final long incrementMillis,
+              final int maxPlies) {
+        final GameClock clock = baseMillis > 0 ? new GameClock(baseMillis, incrementMillis) : null;
+        final List<String> moves = new ArrayList<>();
+        Board board = FenUtilities.createGameFromFEN(this.startFen);
+        try {
+            this.white.newGame();
+            this.black.newGame();
+        } catch (final IOException e) {
+            finish("*", "engine failure: " + e.getMessage());
+            return;
+        }
+        while (true) {
+            final boolean whiteToMove = board.currentPlayer().getAlliance().isWhite();
+            if (!hasLegalMove(board)) {
+                if (board.currentPlayer().isInCheck()) {
+                    finish(whiteToMove ? "0-1" : "1-0", "checkmate");
+                } else {
+                    finish("1/2-1/2", "stalemate");
+                }
+                return;
+            }
+            if (board.isThreefoldRepetition()) {
+                finish("1/2-1/2", "threefold repetition");
+                return;
+            }
+            if (board.isFiftyMoveRule()) {
+                finish("1/2-1/2", "fifty move rule");
+                return;
+            }
+            if (board.isInsufficientMaterial()) {
+                finish("1/2-1/2", "insufficient material");
+                return;
+            }
+            if (moves.size() >= maxPlies) {
+                finish("1/2-1/2", "adjudication");
+                return;
+            }
+            final MatchEngine engine = whiteToMove ? this.white : this.black;
+            final String loss = whiteToMove ? "0-1" : "1-0";
+            final String uciMove;
+            final long start = System.nanoTime();
+            try {
+                uciMove = engine.selectMove(this.startFen, moves, board, clock);
+            } catch (final InterruptedIOException e) {
+                finish(loss, "time forfeit: " + e.getMessage());
+                return;
+            } catch (final IOException | RuntimeException e) {
+                finish(loss, "engine failure: " + engine.getName() + " " + e.getMessage());
+                return;
+            }
+            if (clock != null && !clock.consume(board.currentPlayer().getAlliance(), (System.nanoTime() - start) / 1_000_000L)) {
+                finish(loss, "time forfeit");
+                return;
+            }
+            final MoveTransition transition = UCIUtilities.createMoveTransition(board, uciMove);
+            if (!transition.getMoveStatus().isDone()) {
+                finish(loss, "illegal move " + uciMove + " by " + engine.getName());
+                return;
+            }
+            final Board next = transition.getToBoard();
+            this.sanMoves.add(SANWriter.INSTANCE.toSAN(transition.getTransitionMove(), next));
+            moves.add(uciMove);
+            board = next;
+        }
+    }
+
+    String getResult() {
+        return this.result;
+    }
+
+    String getTermination() {
+        return this.termination;
+    }
+
+    /**
+     * Metoda sprawdzajaca czy partia ma wynik - partia, ktorej nie udalo sie rozpoczac (awaria silnika przy newGame),
+     * ma wynik "*" i nie powinna byc liczona w tescie SPRT
+     * @return zwraca prawde gdy partia zakonczyla sie wygrana, porazka lub remisem
+     */
+    boolean hasResult() {
+        return !this.result.equals("*");
+    }
+
+    /**
+     * Metoda zwracajaca wynik partii z punktu widzenia podanego silnika
+     * @param engine jeden z graczy
+     * @return zwraca 1 za wygrana, 0.5 za remis, 0 za porazke
+     */
+    double getScore(final MatchEngine engine) {
+        final double whiteScore = this.result.equals("1-0") ? 1.0 : this.result.equals("0-1") ? 0.0 : 0.5;
+        return engine == this.white ? whiteScore : 1.0 - whiteScore;
+    }
+
+    /**
+     * Metoda dopisujaca partie w formacie PGN
+     */
+    void appendPGN(final StringBuilder output,
+                   final String event,
+                   final int round) {
+        final Board start = FenUtilities.createGameFromFEN(this.startFen);
+        output.append("[Event \"").append(event).append("\"]\n")
+              .append("[Site \"local\"]\n")
+              .append("[Round \"").append(round).append("\"]\n")
+              .append("[White \"").append(this.white.getName()).append("\"]\n")
+              .append("[Black \"").append(this.black.getName()).append("\"]\n")
+              .append("[Result \"").append(this.result).append("\"]\n")
+              .append("[FEN \"").append(this.startFen).append("\"]\n")
+              .append("[SetUp \"1\"]\n")
+              .append("[PlyCount \"").append(this.sanMoves.size()).append("\"]\n")
+              .append("[Termination \"").append(this.termination).append("\"]\n\n");
+        boolean whiteToMove = start.currentPlayer().getAlliance().isWhite();
+        int moveNumber = start.getFullmoveNumber();
+        int lineLength = 0;
+        for (int ply = 0; ply < this.sanMoves.size(); ply++) {
+            final String token = (whiteToMove ? moveNumber + ". " : ply == 0 ? moveNumber + "... " : "") + this.sanMoves.get(ply);
+            if (lineLength > 0 && lineLength + 1 + token.length() > 79) {
+                output.append('\n');
+                lineLength = 0;
+            } else if (lineLength > 0) {
+                output.append(' ');
+                lineLength++;
+            }
+            output.append(token);
+            lineLength += token.length();
+            if (!whiteToMove) {
+                moveNumber++;
+            }
+            whiteToMove = !whiteToMove;
+        }
+        output.append(lineLength > 0 ? " " : "").append(this.result).append("\n\n");
+    }
+
+    private void finish(final String result,
+                        final String termination) {
+        this.result = result;
+        this.termination = termination;
+    }
+
+    private static boolean hasLegalMove(final Board board) {
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            if (!move.execute().currentPlayer().getOpponent().isInCheck()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.chess.tournament;
+
+/**
+ * Klasa prowadzaca sekwencyjny test ilorazu wiarygodnosci (SPRT) dla meczu dwoch silnikow. Partie sa grane parami z ta sama pozycja
+ * poczatkowa i zamienionymi kolorami, a wynik pary (0, 0.25, 0.5, 0.75 lub 1) trafia do rozkladu pentanomialnego, co usuwa
+ * wplyw nierownych pozycji poczatkowych na wariancje. Iloraz wiarygodnosci jest liczony w przyblizeniu normalnym (GSPRT):
+ * LLR = N (s1 - s0) (2m - s0 - s1) / (2 var), gdzie s0 i s1 to oczekiwane wyniki dla hipotez elo0 i elo1.
+ */
+final class SPRT {
+
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+    private final long[] pairs = new long[5];
+    private long wins;
+    private long draws;
+    private long losses;
+
+    /**
+     * Konstruktor tworzacy test
+     * @param elo0 roznica Elo hipotezy zerowej
+     * @param elo1 roznica Elo hipotezy alternatywnej
+     * @param alpha prawdopodobienstwo bledu pierwszego rodzaju
+     * @param beta prawdopodobienstwo bledu drugiego rodzaju
+     */
+    SPRT(final double elo0,
+         final double elo1,
+         final double alpha,
+         final double beta) {
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Metoda dodajaca wynik pary partii
+     * @param first wynik pierwszej partii z punktu widzenia testowanego silnika (0, 0.5 lub 1)
+     * @param second wynik drugiej partii z punktu widzenia testowanego silnika
+     */
+    void addPair(final double first,
+                 final double second) {
+        this.pairs[(int) Math.round((first + second) * 2)]++;
+        count(first);
+        count(second);
+    }
+
+    long getPairCount() {
+        long count = 0;
+        for (final long pair : this.pairs) {
+            count += pair;
+        }
+        return count;
+    }
+
+    double getLowerBound() {
+        return this.lowerBound;
+    }
+
+    double getUpperBound() {
+        return this.upperBound;
+    }
+
+    /**
+     * Metoda zwracajaca logarytm ilorazu wiarygodnosci
+     * @return zwraca LLR lub 0 gdy wariancja jest jeszcze zerowa
+     */
+    double getLLR() {
+        final long count = getPairCount();
+        final double mean = mean();
+        final double variance = variance(mean);
+        if (count == 0 || variance <= 0) {
+            return 0;
+        }
+        final double s0 = expectedScore(this.elo0);
+        final double s1 = expectedScore(this.elo1);
+        return count * (s1 - s0) * (2 * mean - s0 - s1) / (2 * variance);
+    }
+
+    /**
+     * Metoda sprawdzajaca czy test sie zakonczyl
+     * @return zwraca 1 gdy przyjeto hipoteze alternatywna, -1 gdy przyjeto zerowa, 0 gdy test trwa
+     */
+    int getDecision() {
+        final double llr = getLLR();
+        return llr >= this.upperBound ? 1 : llr <= this.lowerBound ? -1 : 0;
+    }
+
+    /**
+     * Metoda zwracajaca opis wyniku meczu: bilans, rozklad par, roznice Elo z 95% przedzialem ufnosci oraz stan testu
+     * @return zwraca opis
+     */
+    String summary() {
+        final long count = getPairCount();
+        final double mean = mean();
+        final double margin = count > 0 ? 1.96 * Math.sqrt(variance(mean) / count) : 0;
+        final int decision = getDecision();
+        return String.format("Games %d: +%d =%d -%d, pairs [%d, %d, %d, %d, %d]%n" +
+                             "Elo %.1f [%.1f, %.1f] (95%%)%n" +
+                             "SPRT elo0=%.1f elo1=%.1f: LLR %.2f [%.2f, %.2f] %s",
+                             this.wins + this.draws + this.losses, this.wins, this.draws, this.losses,
+                             this.pairs[0], this.pairs[1], this.pairs[2], this.pairs[3], this.pairs[4],
+                             elo(mean), elo(mean - margin), elo(mean + margin),
+                             this.elo0, this.elo1, getLLR(), this.lowerBound, this.upperBound,
+                             decision > 0 ? "H1 accepted" : decision < 0 ? "H0 accepted" : "continue");
+    }
+
+    private void count(final double score) {
+        if (score > 0.75) {
+            this.wins++;
+        } else if (score < 0.25) {
+            this.losses++;
+        } else {
+            this.draws++;
+        }
+    }
+
+    private double mean() {
+        final long count = getPairCount();
+        if (count == 0) {
+            return 0.5;
+        }
+        double sum = 0;
+        for (int i = 0; i < this.pairs.length; i++) {
+            sum += this.pairs[i] * i / 4.0;
+        }
+        return sum / count;
+    }
+
+    private double variance(final double mean) {
+        final long count = getPairCount();
+        if (count == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < this.pairs.length; i++) {
+            final double deviation = i / 4.0 - mean;
+            sum += this.pairs[i] * deviation * deviation;
+        }
+        return sum / count;
+    }
+
+    private static double expectedScore(final double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    private static double elo(final double score) {
+        final double clamped = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+        return -400 * Math.log10(1 / clamped - 1);
+    }
+
+}
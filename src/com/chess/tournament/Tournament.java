@@ -0,0 +1,232 @@
+package com.chess.tournament;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.endgame.Bitbases;
+import com.chess.pgn.FenUtilities;
+import com.chess.util.ThreadPools;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Klasa prowadzaca mecz dwoch silnikow: testowanego i bazowego, wewnetrznych lub zewnetrznych (UCI). Partie sa grane parami
+ * z ta sama pozycja poczatkowa z pliku FEN/EPD i zamienionymi kolorami, rownolegle w kilku watkach (kazdy watek ma wlasne
+ * instancje silnikow). Po kazdej parze aktualizowany jest test SPRT, a mecz konczy sie po przyjeciu jednej z hipotez
+ * lub po rozegraniu maksymalnej liczby par. Para, w ktorej jednej z partii nie udalo sie rozpoczac, nie jest liczona w tescie.
+ * Partie sa zapisywane do pliku PGN.
+ * Uzycie: Tournament -engine spec -engine spec [-openings plik.epd] [-pairs n] [-concurrency n] [-tc 10+0.1]
+ * [-sprt elo0,elo1,alpha,beta] [-maxplies n] [-pgnout plik.pgn]
+ */
+public final class Tournament {
+
+    private static final String EVENT = "JChess match";
+
+    private final EngineSpec testEngine;
+    private final EngineSpec baseEngine;
+    private final List<String> openings;
+    private final SPRT sprt;
+    private final int maxPairs;
+    private final int concurrency;
+    private final long baseMillis;
+    private final long incrementMillis;
+    private final int maxPlies;
+    private final AtomicInteger nextPair = new AtomicInteger();
+    private volatile boolean finished;
+
+    private Tournament(final EngineSpec testEngine,
+                       final EngineSpec baseEngine,
+                       final List<String> openings,
+                       final SPRT sprt,
+                       final int maxPairs,
+                       final int concurrency,
+                       final long baseMillis,
+                       final long incrementMillis,
+                       final int maxPlies) {
+        this.testEngine = testEngine;
+        this.baseEngine = baseEngine;
+        this.openings = openings;
+        this.sprt = sprt;
+        this.maxPairs = maxPairs;
+        this.concurrency = concurrency;
+        this.baseMillis = baseMillis;
+        this.incrementMillis = incrementMillis;
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Metoda rozgrywajaca mecz
+     * @param pgnOutput strumien, do ktorego zapisywane sa partie, lub null
+     * @return zwraca test SPRT z wynikami meczu
+     */
+    private SPRT run(final Writer pgnOutput) throws IOException {
+        final ExecutorService executor = ThreadPools.newComputeExecutor("tournament", this.concurrency);
+        final List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int i = 0; i < this.concurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    playPairs(pgnOutput);
+                    return null;
+                }));
+            }
+            for (final Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Tournament interrupted", e);
+        } catch (final ExecutionException e) {
+            throw new RuntimeException("Tournament failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return this.sprt;
+    }
+
+    /**
+     * Metoda watku roboczego - rozgrywa kolejne pary partii, dopoki test sie nie zakonczy
+     */
+    private void playPairs(final Writer pgnOutput) throws IOException {
+        try (final MatchEngine test = this.testEngine.create();
+             final MatchEngine base = this.baseEngine.create()) {
+            int pair;
+            while (!this.finished && (pair = this.nextPair.getAndIncrement()) < this.maxPairs) {
+                final String opening = this.openings.get(pair % this.openings.size());
+                final MatchGame first = new MatchGame(test, base, opening);
+                first.play(this.baseMillis, this.incrementMillis, this.maxPlies);
+                final MatchGame second = new MatchGame(base, test, opening);
+                second.play(this.baseMillis, this.incrementMillis, this.maxPlies);
+                final StringBuilder text = new StringBuilder(4096);
+                first.appendPGN(text, EVENT, 2 * pair + 1);
+                second.appendPGN(text, EVENT, 2 * pair + 2);
+                synchronized (this.sprt) {
+                    if (pgnOutput != null) {
+                        pgnOutput.write(text.toString());
+                        pgnOutput.flush();
+                    }
+                    if (!first.hasResult() || !second.hasResult()) {
+                        System.out.printf("Pair %d: skipped - %s, %s%n", pair + 1, first.getTermination(), second.getTermination());
+                        continue;
+                    }
+                    this.sprt.addPair(first.getScore(test), second.getScore(test));
+                    System.out.printf("Pair %d: %s (%s), %s (%s), LLR %.2f%n", pair + 1,
+                                      first.getResult(), first.getTermination(), second.getResult(), second.getTermination(),
+                                      this.sprt.getLLR());
+                    if (this.sprt.getDecision() != 0) {
+                        this.finished = true;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Metoda wczytujaca pozycje poczatkowe z pliku FEN lub EPD (w EPD brakujace liczniki ruchow sa uzupelniane)
+     */
+    private static List<String> readOpenings(final File file) throws IOException {
+        final List<String> openings = new ArrayList<>();
+        try (final BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] fields = line.trim().split("\\s+");
+                if (fields.length < 4 || fields[0].startsWith("#")) {
+                    continue;
+                }
+                final boolean counters = fields.length >= 6 && fields[4].matches("\\d+") && fields[5].matches("\\d+");
+                final String fen = String.join(" ", fields[0], fields[1], fields[2], fields[3],
+                                               counters ? fields[4] : "0", counters ? fields[5] : "1");
+                openings.add(FenUtilities.createFENFromGame(FenUtilities.createGameFromFEN(fen)));
+            }
+        }
+        if (openings.isEmpty()) {
+            throw new RuntimeException("No positions in " + file);
+        }
+        return openings;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final List<EngineSpec> engines = new ArrayList<>();
+        File openingFile = null;
+        File pgnFile = null;
+        int pairs = 1000;
+        int concurrency = Runtime.getRuntime().availableProcessors();
+        long baseMillis = 0;
+        long incrementMillis = 0;
+        int maxPlies = 400;
+        double[] sprt = {0, 5, 0.05, 0.05};
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            final String value = args[i + 1];
+            switch (args[i]) {
+                case "-engine":
+                    engines.add(EngineSpec.parse(value, engines.isEmpty() ? "test" : "base"));
+                    break;
+                case "-openings":
+                    openingFile = new File(value);
+                    break;
+                case "-pgnout":
+                    pgnFile = new File(value);
+                    break;
+                case "-pairs":
+                    pairs = Integer.parseInt(value);
+                    break;
+                case "-concurrency":
+                    concurrency = Integer.parseInt(value);
+                    break;
+                case "-maxplies":
+                    maxPlies = Integer.parseInt(value);
+                    break;
+                case "-tc":
+                    final String[] parts = value.split("\\+");
+                    baseMillis = Math.round(Double.parseDouble(parts[0]) * 1000);
+                    incrementMillis = parts.length > 1 ? Math.round(Double.parseDouble(parts[1]) * 1000) : 0;
+                    break;
+                case "-sprt":
+                    final String[] bounds = value.split(",");
+                    for (int j = 0; j < bounds.length && j < sprt.length; j++) {
+                        sprt[j] = Double.parseDouble(bounds[j]);
+                    }
+                    break;
+                default:
+                    throw new RuntimeException("Unknown option " + args[i]);
+            }
+        }
+        if (engines.size() != 2 || (baseMillis == 0 && !(engines.get(0).hasSearchLimit() && engines.get(1).hasSearchLimit()))) {
+            System.err.println("Usage: Tournament -engine spec -engine spec [-openings file.epd] [-pairs n] [-concurrency n] " +
+                               "[-tc base+inc] [-sprt elo0,elo1,alpha,beta] [-maxplies n] [-pgnout file.pgn]");
+            System.err.println("  spec: name=x,depth=n,nodes=n,movetime=ms,hash=mb or cmd=path,option.Name=value,...");
+            System.err.println("  without -tc every engine needs depth, nodes or movetime");
+            return;
+        }
+        final List<String> openings = new ArrayList<>();
+        if (openingFile != null) {
+            openings.addAll(readOpenings(openingFile));
+        } else {
+            openings.add(FenUtilities.createFENFromGame(Board.createStandardBoard()));
+        }
+        Bitbases.INSTANCE.initialize(Bitbases.DEFAULT_DIRECTORY).join();
+        final Tournament tournament = new Tournament(engines.get(0), engines.get(1), openings,
+                                                     new SPRT(sprt[0], sprt[1], sprt[2], sprt[3]), pairs,
+                                                     Math.max(1, concurrency), baseMillis, incrementMillis, maxPlies);
+        final SPRT result;
+        if (pgnFile != null) {
+            try (final Writer writer = new OutputStreamWriter(new FileOutputStream(pgnFile), StandardCharsets.UTF_8)) {
+                result = tournament.run(writer);
+            }
+        } else {
+            result = tournament.run(null);
+        }
+        System.out.println(result.summary());
+    }
+
+}
@@ -0,0 +1,208 @@
+package com.chess.tournament;
+
+import com.chess.engine.board.Board;
+import com.chess.util.ThreadPools;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Silnik turniejowy uruchamiany jako lokalny podproces i sterowany protokolem UCI przez standardowe wejscie i wyjscie.
+ * Odpowiedzi silnika sa czytane w osobnym watku, a na kazda odpowiedz czeka sie najwyzej do terminu: na bestmove
+ * pozostaly czas gracza (lub movetime) z zapasem, na uciok i readyok staly czas. Silnik, ktory nie odpowie w terminie,
+ * jest zabijany (selectMove zglasza wtedy InterruptedIOException) i uruchamiany ponownie przed nastepna partia.
+ */
+final class UCIProcessEngine implements MatchEngine {
+
+    private static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final long HANDSHAKE_TIMEOUT_MILLIS = 30_000;
+    private static final long MOVE_TIMEOUT_MARGIN_MILLIS = 1_000;
+    private static final long UNTIMED_MOVE_TIMEOUT_MILLIS = 120_000;
+    // znacznik konca strumienia - wiersze silnika sa przycinane przez trim(), wiec zaden nie moze byc rowny znakowi NUL
+    private static final String END_OF_STREAM = "\u0000";
+
+    private final String command;
+    private final Map<String, String> options;
+    private final String goLimits;
+    private final long moveTimeMillis;
+    private final ExecutorService reader;
+    private Process process;
+    private Writer output;
+    private BlockingQueue<String> lines;
+    private String name;
+
+    /**
+     * Konstruktor uruchamiajacy silnik i ustawiajacy jego opcje
+     * @param name nazwa silnika lub null, gdy ma byc uzyta nazwa podana przez silnik
+     * @param command polecenie uruchamiajace silnik (argumenty oddzielone spacjami)
+     * @param options opcje UCI ustawiane poleceniem setoption
+     * @param goLimits ograniczenia dopisywane do polecenia go, gdy partia jest grana bez zegara (np. "depth 8")
+     * @param moveTimeMillis czas na ruch z goLimits lub 0, gdy go nie podano
+     * @throws IOException gdy silnika nie mozna uruchomic
+     */
+    UCIProcessEngine(final String name,
+                     final String command,
+                     final Map<String, String> options,
+                     final String goLimits,
+                     final long moveTimeMillis) throws IOException {
+        this.command = command;
+        this.options = options;
+        this.goLimits = goLimits;
+        this.moveTimeMillis = moveTimeMillis;
+        this.reader = ThreadPools.newIOExecutor("uci-reader");
+        this.name = name;
+        start();
+    }
+
+    /**
+     * Metoda uruchamiajaca proces silnika, watek czytajacy jego odpowiedzi oraz ustawiajaca opcje
+     */
+    private void start() throws IOException {
+        this.process = new ProcessBuilder(Arrays.asList(this.command.trim().split("\\s+")))
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        this.output = new OutputStreamWriter(this.process.getOutputStream(), StandardCharsets.US_ASCII);
+        final BufferedReader input = new BufferedReader(new InputStreamReader(this.process.getInputStream(),
+                                                                              StandardCharsets.US_ASCII));
+        final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        this.lines = received;
+        this.reader.execute(() -> {
+            try {
+                String line;
+                while ((line = input.readLine()) != null) {
+                    received.add(line.trim());
+                }
+            } catch (final IOException e) {
+                // strumien zamkniety po zabiciu silnika
+            }
+            received.add(END_OF_STREAM);
+        });
+        send("uci");
+        final long deadline = System.nanoTime() + HANDSHAKE_TIMEOUT_MILLIS * 1_000_000L;
+        String line;
+        while (!(line = readLine(deadline)).equals("uciok")) {
+            if (this.name == null && line.startsWith("id name ")) {
+                this.name = line.substring("id name ".length()).trim();
+            }
+        }
+        for (final Map.Entry<String, String> option : this.options.entrySet()) {
+            send("setoption name " + option.getKey() + " value " + option.getValue());
+        }
+        synchronize();
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public void newGame() throws IOException {
+        if (!this.process.isAlive()) {
+            start();
+        }
+        send("ucinewgame");
+        synchronize();
+    }
+
+    @Override
+    public String selectMove(final String startFen,
+                             final List<String> moves,
+                             final Board board,
+                             final GameClock clock) throws IOException {
+        final StringBuilder command = new StringBuilder(64 + 5 * moves.size());
+        command.append(startFen.equals(START_FEN) ? "position startpos" : "position fen " + startFen);
+        if (!moves.isEmpty()) {
+            command.append(" moves");
+            for (final String move : moves) {
+                command.append(' ').append(move);
+            }
+        }
+        send(command.toString());
+        final long timeout;
+        if (clock != null) {
+            send("go wtime " + clock.getWhiteMillis() + " btime " + clock.getBlackMillis() +
+                 " winc " + clock.getIncrementMillis() + " binc " + clock.getIncrementMillis());
+            timeout = clock.getRemainingMillis(board.currentPlayer().getAlliance()) + MOVE_TIMEOUT_MARGIN_MILLIS;
+        } else {
+            send("go " + this.goLimits);
+            timeout = this.moveTimeMillis > 0 ? this.moveTimeMillis + MOVE_TIMEOUT_MARGIN_MILLIS : UNTIMED_MOVE_TIMEOUT_MILLIS;
+        }
+        final long deadline = System.nanoTime() + timeout * 1_000_000L;
+        String line;
+        while (!(line = readLine(deadline)).startsWith("bestmove")) {
+            // wiersze info sa pomijane
+        }
+        final String[] tokens = line.split("\\s+");
+        return tokens.length > 1 ? tokens[1] : "0000";
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            send("quit");
+            if (!this.process.waitFor(1, TimeUnit.SECONDS)) {
+                this.process.destroyForcibly();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.process.destroyForcibly();
+        } catch (final IOException e) {
+            this.process.destroyForcibly();
+        } finally {
+            this.reader.shutdownNow();
+        }
+    }
+
+    private void synchronize() throws IOException {
+        send("isready");
+        final long deadline = System.nanoTime() + HANDSHAKE_TIMEOUT_MILLIS * 1_000_000L;
+        while (!readLine(deadline).equals("readyok")) {
+            // odpowiedzi na wczesniejsze polecenia sa pomijane
+        }
+    }
+
+    private void send(final String command) throws IOException {
+        this.output.write(command);
+        this.output.write('\n');
+        this.output.flush();
+    }
+
+    /**
+     * Metoda czekajaca na kolejna odpowiedz silnika - po uplywie terminu silnik jest zabijany
+     * @param deadline termin w jednostkach System.nanoTime()
+     * @return zwraca odpowiedz bez bialych znakow na koncach
+     * @throws InterruptedIOException gdy silnik nie odpowiedzial w terminie
+     * @throws IOException gdy silnik zakonczyl dzialanie
+     */
+    private String readLine(final long deadline) throws IOException {
+        final String line;
+        try {
+            line = this.lines.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for engine " + this.name);
+        }
+        if (line == null) {
+            this.process.destroyForcibly();
+            throw new InterruptedIOException("Engine " + this.name + " did not answer in time");
+        }
+        if (line.equals(END_OF_STREAM)) {
+            throw new IOException("Engine " + this.name + " terminated");
+        }
+        return line;
+    }
+
+}
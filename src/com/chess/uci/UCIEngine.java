@@ -0,0 +1,337 @@
+package com.chess.uci;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveTransition;
+import com.chess.engine.endgame.Bitbases;
+import com.chess.engine.player.ai.AlphaBeta;
+import com.chess.engine.player.ai.SearchResult;
+import com.chess.engine.player.ai.StandardBoardEvaluator;
+import com.chess.pgn.FenUtilities;
+import com.chess.util.ThreadPools;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Klasa obslugujaca protokol UCI na standardowym wejsciu i wyjsciu. Polecenia sa czytane w watku wywolujacym run(),
+ * a przeszukiwanie dziala w osobnym watku, dzieki czemu stop, ponderhit i isready sa obslugiwane natychmiast, takze w trakcie liczenia.
+ * Obslugiwane polecenia: uci, isready, ucinewgame, setoption (Hash, Threads), position, go, stop, ponderhit, quit.
+ * Polecenie z blednymi argumentami (np. liczba lub zapis FEN) jest pomijane z komunikatem info string, a silnik dziala dalej.
+ */
+public final class UCIEngine {
+
+    private static final int DEFAULT_HASH = 16;
+    private static final int MAX_HASH = 1024;
+    private static final int MAX_DEPTH = 64;
+
+    private final BufferedReader input;
+    private final PrintStream output;
+    private final ExecutorService searchExecutor;
+    private Board position;
+    private int hashMegabytes;
+    private AlphaBeta searcher;
+    private Future<?> search;
+    private volatile CountDownLatch release;
+    private volatile long ponderTimeLimit;
+
+    /**
+     * Konstruktor tworzacy silnik UCI
+     * @param input strumien polecen
+     * @param output strumien odpowiedzi
+     */
+    public UCIEngine(final InputStream input,
+                     final PrintStream output) {
+        this.input = new BufferedReader(new InputStreamReader(input, StandardCharsets.US_ASCII));
+        this.output = output;
+        this.searchExecutor = ThreadPools.newComputeExecutor("uci-search", 1);
+        this.position = Board.createStandardBoard();
+        this.hashMegabytes = DEFAULT_HASH;
+    }
+
+    /**
+     * Metoda czytajaca i wykonujaca polecenia az do polecenia quit lub konca strumienia
+     * @throws IOException w przypadku bledu odczytu
+     */
+    public void run() throws IOException {
+        try {
+            String line;
+            while ((line = this.input.readLine()) != null) {
+                final String[] tokens = line.trim().split("\\s+");
+                try {
+                    switch (tokens[0]) {
+                        case "":
+                            break;
+                        case "uci":
+                            send("id name JChess");
+                            send("id author Michalak Bartosz");
+                            send("option name Hash type spin default " + DEFAULT_HASH + " min 1 max " + MAX_HASH);
+                            send("option name Threads type spin default 1 min 1 max 1");
+                            send("option name Ponder type check default false");
+                            send("uciok");
+                            break;
+                        case "isready":
+                            send("readyok");
+                            break;
+                        case "ucinewgame":
+                            awaitSearch();
+                            if (this.searcher != null) {
+                                this.searcher.clear();
+                            }
+                            this.position = Board.createStandardBoard();
+                            break;
+                        case "setoption":
+                            awaitSearch();
+                            setOption(tokens);
+                            break;
+                        case "position":
+                            awaitSearch();
+                            setPosition(tokens);
+                            break;
+                        case "go":
+                            awaitSearch();
+                            go(tokens);
+                            break;
+                        case "stop":
+                            stopSearch();
+                            break;
+                        case "ponderhit":
+                            ponderHit();
+                            break;
+                        case "quit":
+                            return;
+                        default:
+                            send("info string unknown command " + tokens[0]);
+                    }
+                } catch (final RuntimeException e) {
+                    send("info string error in '" + line.trim() + "': " + e);
+                }
+            }
+        } finally {
+            stopSearch();
+            this.searchExecutor.shutdownNow();
+        }
+    }
+
+    private void setOption(final String[] tokens) {
+        final StringBuilder name = new StringBuilder();
+        String value = null;
+        for (int i = 1; i < tokens.length; i++) {
+            if (tokens[i].equals("value") && i + 1 < tokens.length) {
+                value = tokens[i + 1];
+                break;
+            }
+            if (!tokens[i].equals("name")) {
+                name.append(name.length() > 0 ? " " : "").append(tokens[i]);
+            }
+        }
+        switch (name.toString().toLowerCase()) {
+            case "hash":
+                if (value != null) {
+                    this.hashMegabytes = Math.max(1, Math.min(MAX_HASH, Integer.parseInt(value)));
+                    this.searcher = null;
+                }
+                break;
+            case "threads":
+            case "ponder":
+                break;
+            default:
+                send("info string unknown option " + name);
+        }
+    }
+
+    private void setPosition(final String[] tokens) {
+        int movesIndex = tokens.length;
+        for (int i = 1; i < tokens.length; i++) {
+            if (tokens[i].equals("moves")) {
+                movesIndex = i;
+                break;
+            }
+        }
+        Board board;
+        if (tokens.length > 1 && tokens[1].equals("fen")) {
+            board = FenUtilities.createGameFromFEN(String.join(" ", Arrays.copyOfRange(tokens, 2, movesIndex)));
+        } else {
+            board = Board.createStandardBoard();
+        }
+        for (int i = movesIndex + 1; i < tokens.length; i++) {
+            final MoveTransition transition = UCIUtilities.createMoveTransition(board, tokens[i]);
+            if (!transition.getMoveStatus().isDone()) {
+                send("info string illegal move " + tokens[i]);
+                break;
+            }
+            board = transition.getToBoard();
+        }
+        this.position = board;
+    }
+
+    private void go(final String[] tokens) {
+        int depth = MAX_DEPTH;
+        long nodes = Long.MAX_VALUE;
+        long moveTime = 0;
+        long whiteTime = -1;
+        long blackTime = -1;
+        long whiteIncrement = 0;
+        long blackIncrement = 0;
+        int movesToGo = 0;
+        boolean infinite = false;
+        boolean ponder = false;
+        for (int i = 1; i < tokens.length; i++) {
+            final String value = i + 1 < tokens.length ? tokens[i + 1] : "0";
+            switch (tokens[i]) {
+                case "depth":
+                    depth = Integer.parseInt(value);
+                    i++;
+                    break;
+                case "nodes":
+                    nodes = Long.parseLong(value);
+                    i++;
+                    break;
+                case "movetime":
+                    moveTime = Long.parseLong(value);
+                    i++;
+                    break;
+                case "wtime":
+                    whiteTime = Long.parseLong(value);
+                    i++;
+                    break;
+                case "btime":
+                    blackTime = Long.parseLong(value);
+                    i++;
+                    break;
+                case "winc":
+                    whiteIncrement = Long.parseLong(value);
+                    i++;
+                    break;
+                case "binc":
+                    blackIncrement = Long.parseLong(value);
+                    i++;
+                    break;
+                case "movestogo":
+                    movesToGo = Integer.parseInt(value);
+                    i++;
+                    break;
+                case "infinite":
+                    infinite = true;
+                    break;
+                case "ponder":
+                    ponder = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+        final boolean white = this.position.currentPlayer().getAlliance().isWhite();
+        long timeLimit = moveTime;
+        final long remaining = white ? whiteTime : blackTime;
+        if (timeLimit == 0 && remaining >= 0) {
+            final long increment = white ? whiteIncrement : blackIncrement;
+            timeLimit = UCIUtilities.allocateTime(remaining, increment, movesToGo);
+        }
+        if (this.searcher == null) {
+            this.searcher = new AlphaBeta(StandardBoardEvaluator.INSTANCE, MAX_DEPTH, this.hashMegabytes);
+        }
+        final AlphaBeta engine = this.searcher;
+        final Board board = this.position;
+        final int maxDepth = depth;
+        final long nodeLimit = nodes;
+        final long searchTimeLimit = infinite || ponder ? 0 : timeLimit;
+        this.ponderTimeLimit = infinite ? 0 : timeLimit;
+        this.release = new CountDownLatch(infinite || ponder ? 1 : 0);
+        final CountDownLatch released = this.release;
+        engine.setListener(this::sendInfo);
+        engine.prepare(searchTimeLimit);
+        this.search = this.searchExecutor.submit(() -> {
+            final SearchResult result = engine.search(board, maxDepth, nodeLimit);
+            try {
+                released.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            final StringBuilder line = new StringBuilder("bestmove ");
+            UCIUtilities.appendUCI(result.getBestMove(), line);
+            final List<Move> principalVariation = result.getPrincipalVariation();
+            if (principalVariation.size() > 1) {
+                UCIUtilities.appendUCI(principalVariation.get(1), line.append(" ponder "));
+            }
+            send(line.toString());
+        });
+    }
+
+    private void ponderHit() {
+        final CountDownLatch released = this.release;
+        if (released != null && this.searcher != null) {
+            this.searcher.setTimeLimit(this.ponderTimeLimit);
+            released.countDown();
+        }
+    }
+
+    private void stopSearch() {
+        if (this.searcher != null) {
+            this.searcher.stop();
+        }
+        final CountDownLatch released = this.release;
+        if (released != null) {
+            released.countDown();
+        }
+    }
+
+    /**
+     * Metoda czekajaca na zakonczenie poprzedniego przeszukiwania - nieskonczone przeszukiwanie jest najpierw zatrzymywane
+     */
+    private void awaitSearch() {
+        if (this.search == null) {
+            return;
+        }
+        if (this.release != null && this.release.getCount() > 0) {
+            stopSearch();
+        }
+        try {
+            this.search.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException e) {
+            send("info string search failed: " + e.getCause());
+        }
+        this.search = null;
+    }
+
+    private void sendInfo(final SearchResult result) {
+        final StringBuilder line = new StringBuilder(128);
+        line.append("info depth ").append(result.getDepth()).append(" score ");
+        if (result.isMateScore()) {
+            line.append("mate ").append(result.getMateIn());
+        } else {
+            line.append("cp ").append(result.getScore());
+        }
+        line.append(" nodes ").append(result.getNodes()).append(" time ").append(result.getTimeMillis())
+            .append(" nps ").append(1000 * result.getNodes() / Math.max(1, result.getTimeMillis())).append(" pv");
+        for (final Move move : result.getPrincipalVariation()) {
+            UCIUtilities.appendUCI(move, line.append(' '));
+        }
+        send(line.toString());
+    }
+
+    private void send(final String line) {
+        synchronized (this.output) {
+            this.output.println(line);
+            this.output.flush();
+        }
+    }
+
+    public static void main(final String[] args) throws IOException {
+        Bitbases.INSTANCE.initialize(Bitbases.DEFAULT_DIRECTORY);
+        new UCIEngine(System.in, System.out).run();
+    }
+
+}
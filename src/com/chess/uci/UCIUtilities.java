@@ -0,0 +1,106 @@
+package com.chess.uci;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveTransition;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.pgn.PGNUtilities;
+
+/**
+ * Klasa zamieniajaca ruchy na zapis protokolu UCI (pole poczatkowe, pole docelowe i opcjonalnie mala litera promocji, np. e7e8q)
+ * i odwrotnie. Roszada jest zapisywana jako ruch krola (e1g1).
+ */
+public final class UCIUtilities {
+
+    private static final long MOVE_OVERHEAD_MILLIS = 30;
+    private static final char[] FILES = {'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h'};
+    private static final char[] RANKS = {'8', '7', '6', '5', '4', '3', '2', '1'};
+
+    private UCIUtilities() {
+        throw new RuntimeException("Not instantiatable!");
+    }
+
+    /**
+     * Metoda dopisujaca ruch w zapisie UCI
+     * @param move ruch lub null (zapisywany jako 0000)
+     * @param output bufor, do ktorego dopisywany jest zapis
+     * @return zwraca podany bufor
+     */
+    public static StringBuilder appendUCI(final Move move,
+                                          final StringBuilder output) {
+        if (move == null) {
+            return output.append("0000");
+        }
+        final int from = move.getCurrentCoordinate();
+        final int to = move.getDestinationCoordinate();
+        output.append(FILES[from & 7]).append(RANKS[from >>> 3]).append(FILES[to & 7]).append(RANKS[to >>> 3]);
+        final Piece promotionPiece = move.getPromotionPiece();
+        if (promotionPiece != null) {
+            output.append(Character.toLowerCase(promotionPiece.getPieceType().toString().charAt(0)));
+        }
+        return output;
+    }
+
+    /**
+     * Metoda zwracajaca ruch w zapisie UCI
+     * @param move ruch lub null
+     * @return zwraca zapis ruchu
+     */
+    public static String toUCI(final Move move) {
+        return appendUCI(move, new StringBuilder(5)).toString();
+    }
+
+    /**
+     * Metoda zamieniajaca kod ruchu z PGNUtilities.encodeMove na zapis UCI bez uzycia planszy
+     * @param code kod ruchu
+     * @return zwraca zapis ruchu
+     */
+    public static String toUCI(final int code) {
+        final int from = code & 63;
+        final int to = (code >>> 6) & 63;
+        final int promotion = code >>> 12;
+        final StringBuilder output = new StringBuilder(5);
+        output.append(FILES[from & 7]).append(RANKS[from >>> 3]).append(FILES[to & 7]).append(RANKS[to >>> 3]);
+        if (promotion != 0) {
+            output.append(Character.toLowerCase(PieceType.values()[promotion - 1].toString().charAt(0)));
+        }
+        return output.toString();
+    }
+
+    /**
+     * Metoda wykonujaca ruch zapisany w notacji UCI
+     * @param board aktualna plansza
+     * @param text ruch, np. e2e4 lub a7a8q
+     * @return zwraca obiekt MoveTransition ze statusem DONE lub ILLEGAL_MOVE gdy ruch jest niepoprawny
+     */
+    public static MoveTransition createMoveTransition(final Board board,
+                                                      final String text) {
+        int code = -1;
+        if (text.length() == 4 || text.length() == 5) {
+            final int from = PGNUtilities.coordinateOf(text.charAt(0), text.charAt(1));
+            final int to = PGNUtilities.coordinateOf(text.charAt(2), text.charAt(3));
+            final PieceType promotion = text.length() == 5 ? PGNUtilities.pieceTypeOf(text.charAt(4)) : null;
+            if (from >= 0 && to >= 0 && (text.length() == 4 || promotion != null)) {
+                code = from | (to << 6) | ((promotion == null ? 0 : promotion.ordinal() + 1) << 12);
+            }
+        }
+        return PGNUtilities.createMoveTransition(board, code);
+    }
+
+    /**
+     * Metoda wyznaczajaca czas na ruch przy kontroli czasu z zegarem: rowna czesc pozostalego czasu i wiekszosc dodatku,
+     * nie wiecej niz polowa pozostalego czasu, pomniejszona o zapas na komunikacje
+     * @param remainingMillis czas pozostaly na zegarze gracza
+     * @param incrementMillis dodatek za ruch
+     * @param movesToGo liczba ruchow do kolejnej kontroli lub 0 gdy nie jest znana
+     * @return zwraca czas na ruch w milisekundach (co najmniej 1)
+     */
+    public static long allocateTime(final long remainingMillis,
+                                    final long incrementMillis,
+                                    final int movesToGo) {
+        final long share = remainingMillis / (movesToGo > 0 ? movesToGo + 1 : 30) + incrementMillis * 3 / 4;
+        return Math.max(1, Math.min(share, remainingMillis / 2) - MOVE_OVERHEAD_MILLIS);
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.chess.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Klasa zliczajaca czasy operacji w przedzialach logarytmiczno-liniowych (kazda potega dwojki jest dzielona na 8 przedzialow),
+ * co daje blad percentyla ponizej 12.5% przy stalym rozmiarze pamieci. Zapis jest bezpieczny watkowo i nie blokuje watkow.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+
+    /**
+     * Metoda zapisujaca pomiar
+     * @param nanos czas w nanosekundach
+     */
+    public void record(final long nanos) {
+        this.counts.incrementAndGet(bucketOf(Math.max(1, nanos)));
+    }
+
+    /**
+     * Metoda zwracajaca liczbe pomiarow
+     * @return zwraca liczbe pomiarow
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < this.counts.length(); i++) {
+            count += this.counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Metoda zwracajaca percentyl
+     * @param percentile percentyl od 0 do 100
+     * @return zwraca gorna granice przedzialu zawierajacego percentyl w nanosekundach lub 0 gdy nie ma pomiarow
+     */
+    public long getPercentile(final double percentile) {
+        final long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < this.counts.length(); i++) {
+            seen += this.counts.get(i);
+            if (seen >= rank) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(this.counts.length() - 1);
+    }
+
+    /**
+     * Metoda zwracajaca opis percentyli 50, 99 i 99.9 w mikrosekundach
+     * @return zwraca opis
+     */
+    public String summary() {
+        return String.format("n=%d p50=%dus p99=%dus p99.9=%dus", getCount(), getPercentile(50) / 1000,
+                             getPercentile(99) / 1000, getPercentile(99.9) / 1000);
+    }
+
+    private static int bucketOf(final long value) {
+        final int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude < SUB_BUCKET_BITS) {
+            return (int) value;
+        }
+        final int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBoundOf(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        final int magnitude = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final long subBucket = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << (magnitude - SUB_BUCKET_BITS)) - 1;
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.chess.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Klasa tworzaca pule watkow. Zadania wejscia/wyjscia sa uruchamiane na watkach wirtualnych, gdy udostepnia je biezaca
+ * maszyna wirtualna (metody sa wyszukiwane refleksyjnie, bo projekt jest kompilowany dla starszej wersji Javy),
+ * a w przeciwnym razie na watkach demonach. Obliczenia dzialaja na stalej puli zwyklych watkow.
+ */
+public final class ThreadPools {
+
+    private static final Method VIRTUAL_EXECUTOR = lookupVirtualExecutor();
+
+    private ThreadPools() {
+        throw new RuntimeException("Not instantiatable!");
+    }
+
+    /**
+     * Metoda tworzaca pule dla zadan wejscia/wyjscia
+     * @param name przedrostek nazw watkow (uzywany gdy watki wirtualne nie sa dostepne)
+     * @return zwraca pule z nowym watkiem wirtualnym dla kazdego zadania lub pule watkow demonow
+     */
+    public static ExecutorService newIOExecutor(final String name) {
+        if (VIRTUAL_EXECUTOR != null) {
+            try {
+                return (ExecutorService) VIRTUAL_EXECUTOR.invoke(null);
+            } catch (final ReflectiveOperationException e) {
+                throw new RuntimeException("Cannot create virtual thread executor", e);
+            }
+        }
+        return Executors.newCachedThreadPool(daemonThreadFactory(name));
+    }
+
+    /**
+     * Metoda tworzaca stala pule dla obliczen
+     * @param name przedrostek nazw watkow
+     * @param threads liczba watkow
+     * @return zwraca pule watkow demonow
+     */
+    public static ExecutorService newComputeExecutor(final String name,
+                                                     final int threads) {
+        return Executors.newFixedThreadPool(Math.max(1, threads), daemonThreadFactory(name));
+    }
+
+    /**
+     * Metoda sprawdzajaca czy dostepne sa watki wirtualne
+     * @return zwraca prawde gdy newIOExecutor() tworzy watki wirtualne
+     */
+    public static boolean hasVirtualThreads() {
+        return VIRTUAL_EXECUTOR != null;
+    }
+
+    private static ThreadFactory daemonThreadFactory(final String name) {
+        final AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static Method lookupVirtualExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (final NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+}
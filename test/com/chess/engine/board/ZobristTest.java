@@ -0,0 +1,53 @@
+package com.chess.engine.board;
+
+import com.chess.pgn.FenUtilities;
+
+/**
+ * Test sprawdzajacy zgodnosc kluczy Zobrist z kluczami Polyglot - wartosci oczekiwane pochodza z opisu formatu Polyglot.
+ * Uruchamiany metoda main, rzuca wyjatek przy pierwszej niezgodnosci.
+ */
+public final class ZobristTest {
+
+    private static final String[] FENS = {
+            "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1",
+            "rnbqkbnr/ppp1pppp/8/3p4/4P3/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 2",
+            "rnbqkbnr/ppp1pppp/8/3pP3/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 2",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPPKPPP/RNBQ1BNR b kq - 0 3",
+            "rnbq1bnr/ppp1pkpp/8/3pPp2/8/8/PPPPKPPP/RNBQ1BNR w - - 0 4",
+            "rnbqkbnr/p1pppppp/8/8/PpP4P/8/1P1PPPP1/RNBQKBNR b KQkq c3 0 3",
+            "rnbqkbnr/p1pppppp/8/8/P6P/R1p5/1P1PPPP1/1NBQKBNR b Kkq - 0 4"
+    };
+
+    private static final long[] KEYS = {
+            0x823C9B50FD114196L,
+            0x0756B94461C50FB0L,
+            0x662FAFB965DB29D4L,
+            0x22A48B5A8E47FF78L,
+            0x652A607CA3F242C1L,
+            0x00FDD303C946BDD9L,
+            0x3C8123EA7B067637L,
+            0x5C3F9B829B279560L
+    };
+
+    private ZobristTest() {
+        throw new RuntimeException("Not instantiatable!");
+    }
+
+    public static void main(final String[] args) {
+        check("start position", Board.createStandardBoard().getZobristHash(), 0x463B96181691FC9CL);
+        for (int i = 0; i < FENS.length; i++) {
+            check(FENS[i], FenUtilities.createGameFromFEN(FENS[i]).getZobristHash(), KEYS[i]);
+        }
+        System.out.println("ZobristTest: OK");
+    }
+
+    private static void check(final String position,
+                              final long actual,
+                              final long expected) {
+        if (actual != expected) {
+            throw new RuntimeException(String.format("%s: expected %016x, got %016x", position, expected, actual));
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.chess.uci;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test protokolu UCI: stop i ponderhit wyslane zaraz po go nie moga zostac zgubione, a bledne polecenia nie moga
+ * zakonczyc silnika. Uruchamiany metoda main, rzuca wyjatek przy pierwszym bledzie.
+ */
+public final class UCIEngineTest {
+
+    private static final int REPEATS = 200;
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private final PrintStream commands;
+    private final BlockingQueue<String> responses;
+    private final Thread engine;
+
+    private UCIEngineTest() throws IOException {
+        final PipedOutputStream pipe = new PipedOutputStream();
+        final PipedInputStream input = new PipedInputStream(pipe, 1 << 16);
+        this.commands = new PrintStream(pipe, true, StandardCharsets.US_ASCII);
+        this.responses = new LinkedBlockingQueue<>();
+        final PrintStream output = new PrintStream(new LineCollector(this.responses), true, StandardCharsets.US_ASCII);
+        this.engine = new Thread(() -> {
+            try {
+                new UCIEngine(input, output).run();
+            } catch (final IOException e) {
+                e.printStackTrace();
+            }
+        }, "uci-engine-test");
+        this.engine.setDaemon(true);
+        this.engine.start();
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final UCIEngineTest test = new UCIEngineTest();
+        test.stopRightAfterGoInfinite();
+        test.ponderHitRightAfterGoPonder();
+        test.badCommandsKeepEngineRunning();
+        test.send("quit");
+        test.engine.join(TIMEOUT_MILLIS);
+        if (test.engine.isAlive()) {
+            throw new RuntimeException("engine did not quit");
+        }
+        System.out.println("UCIEngineTest: OK");
+    }
+
+    private void stopRightAfterGoInfinite() throws InterruptedException {
+        for (int i = 0; i < REPEATS; i++) {
+            send("position startpos");
+            send("go infinite");
+            send("stop");
+            expect("bestmove", "go infinite + stop (" + i + ")");
+        }
+    }
+
+    private void ponderHitRightAfterGoPonder() throws InterruptedException {
+        for (int i = 0; i < REPEATS; i++) {
+            send("position startpos moves e2e4");
+            send("go ponder movetime 20");
+            send("ponderhit");
+            expect("bestmove", "go ponder + ponderhit (" + i + ")");
+        }
+    }
+
+    private void badCommandsKeepEngineRunning() throws InterruptedException {
+        send("setoption name Hash value lots");
+        expect("info string", "bad option value");
+        send("position fen not a fen");
+        expect("info string", "bad FEN");
+        send("go depth deep");
+        expect("info string", "bad go argument");
+        send("position startpos");
+        send("go depth 2");
+        expect("bestmove", "search after bad commands");
+        send("isready");
+        expect("readyok", "isready after bad commands");
+    }
+
+    private void send(final String command) {
+        this.commands.println(command);
+    }
+
+    /**
+     * Metoda czekajaca na odpowiedz zaczynajaca sie od podanego tekstu (pozostale odpowiedzi sa pomijane)
+     */
+    private void expect(final String prefix,
+                        final String description) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (true) {
+            final String line = this.responses.poll(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            if (line == null) {
+                throw new RuntimeException(description + ": no '" + prefix + "' within " + TIMEOUT_MILLIS + " ms");
+            }
+            if (line.startsWith(prefix)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Klasa dzielaca wyjscie silnika na linie
+     */
+    private static final class LineCollector extends OutputStream {
+
+        private final BlockingQueue<String> lines;
+        private final StringBuilder line;
+
+        LineCollector(final BlockingQueue<String> lines) {
+            this.lines = lines;
+            this.line = new StringBuilder();
+        }
+
+        @Override
+        public synchronized void write(final int b) {
+            if (b == '\n') {
+                this.lines.add(this.line.toString().trim());
+                this.line.setLength(0);
+            } else {
+                this.line.append((char) b);
+            }
+        }
+    }
+
+}